@@ -1,8 +1,12 @@
 package com.revcart.analyticsservice.client;
 
+import com.revcart.analyticsservice.dto.ApiResponse;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -11,4 +15,9 @@ public interface UserServiceClient {
     
     @GetMapping("/api/users/all")
     List<Map<String, Object>> getAllUsers();
+
+    // Aggregate counts only: total/active/inactive, per role, and users created since the given time
+    @GetMapping("/internal/users/counts")
+    ApiResponse<Map<String, Object>> getUserCounts(
+            @RequestParam("createdSince") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdSince);
 }
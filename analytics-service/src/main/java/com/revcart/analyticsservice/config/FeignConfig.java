@@ -0,0 +1,35 @@
+package com.revcart.analyticsservice.config;
+
+import feign.RequestInterceptor;
+import feign.codec.ErrorDecoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FeignConfig {
+
+    // user-service requires it on /internal/** calls
+    @Bean
+    public RequestInterceptor internalTokenInterceptor(@Value("${security.internal.token:${INTERNAL_API_TOKEN:}}") String internalToken) {
+        return template -> {
+            if (!internalToken.isEmpty() && template.path().startsWith("/internal/")) {
+                template.header("X-Internal-Token", internalToken);
+            }
+        };
+    }
+
+    // A refused /internal/** call means this service and user-service do not share INTERNAL_API_TOKEN
+    @Bean
+    public ErrorDecoder internalTokenErrorDecoder() {
+        ErrorDecoder defaults = new ErrorDecoder.Default();
+        return (methodKey, response) -> {
+            int status = response.status();
+            if ((status == 401 || status == 403) && response.request().url().contains("/internal/")) {
+                return new IllegalStateException("user-service refused " + methodKey + " with " + status
+                        + ": INTERNAL_API_TOKEN is missing here or differs from user-service's");
+            }
+            return defaults.decode(methodKey, response);
+        };
+    }
+}
@@ -106,12 +106,14 @@ public class AnalyticsService {
 
     public UserAnalyticsDto computeUserAnalytics() {
         try {
-            List<Map<String, Object>> users = userServiceClient.getAllUsers();
-            
-            long totalUsers = users.size();
-            long newUsersThisMonth = users.stream()
-                    .filter(u -> isThisMonth(u.get("createdAt")))
-                    .count();
+            ApiResponse<Map<String, Object>> response = userServiceClient.getUserCounts(LocalDateTime.now().minusMonths(1));
+            if (!response.isSuccess() || response.getData() == null) {
+                throw new IllegalStateException("User counts unavailable: " + response.getMessage());
+            }
+            Map<String, Object> counts = response.getData();
+
+            long totalUsers = ((Number) counts.getOrDefault("total", 0)).longValue();
+            long newUsersThisMonth = ((Number) counts.getOrDefault("createdSince", 0)).longValue();
             long returningCustomers = totalUsers - newUsersThisMonth;
 
             saveMetric("total_users", (double) totalUsers, AnalyticsMetric.Period.REALTIME);
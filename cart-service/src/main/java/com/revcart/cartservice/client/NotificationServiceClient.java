@@ -1,5 +1,6 @@
 package com.revcart.cartservice.client;
 
+import com.revcart.cartservice.config.NotificationFeignConfig;
 import com.revcart.cartservice.dto.ApiResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -7,7 +8,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.Map;
 
-@FeignClient(name = "notification-service", url = "${notification.service.url:http://localhost:8086}")
+@FeignClient(name = "notification-service", configuration = NotificationFeignConfig.class)
 public interface NotificationServiceClient {
 
     @PostMapping("/api/notifications")
@@ -6,7 +6,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
-@FeignClient(name = "product-service", url = "${services.product-service.url}")
+@FeignClient(name = "product-service")
 public interface ProductServiceClient {
     
     @GetMapping("/api/products/{id}")
@@ -5,7 +5,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "user-service", url = "${services.user-service.url}")
+@FeignClient(name = "user-service")
 public interface UserServiceClient {
     
     @PostMapping("/api/users/validate-token")
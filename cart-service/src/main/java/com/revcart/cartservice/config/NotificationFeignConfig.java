@@ -0,0 +1,67 @@
+package com.revcart.cartservice.config;
+
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import feign.codec.ErrorDecoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Retries notification-service calls it refused with {@code 429 Too Many Requests} (its queue was
+ * full), waiting for its {@code Retry-After} or a growing backoff capped at
+ * {@code notifications.client.max-backoff-ms}, at most {@code max-attempts} times in all. Other
+ * failures are not retried, so a notification is never sent twice.
+ * <p>
+ * Applied to the notification client only, hence not a {@code @Configuration}.
+ */
+public class NotificationFeignConfig {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    @Bean
+    public ErrorDecoder notificationErrorDecoder() {
+        ErrorDecoder defaults = new ErrorDecoder.Default();
+        return (methodKey, response) -> {
+            Exception exception = defaults.decode(methodKey, response);
+            if (response.status() == TOO_MANY_REQUESTS && !(exception instanceof RetryableException)) {
+                // No Retry-After: the retryer backs off on its own
+                Request request = response.request();
+                return new RetryableException(response.status(), exception.getMessage(), request.httpMethod(),
+                        (Long) null, request);
+            }
+            return exception;
+        };
+    }
+
+    @Bean
+    public Retryer notificationRetryer(@Value("${notifications.client.max-attempts:3}") int maxAttempts,
+                                       @Value("${notifications.client.max-backoff-ms:2000}") long maxBackoffMs) {
+        return new TooManyRequestsRetryer(maxAttempts, maxBackoffMs);
+    }
+
+    static final class TooManyRequestsRetryer implements Retryer {
+        private final int maxAttempts;
+        private final long maxBackoffMs;
+        private final Retryer backoff;
+
+        TooManyRequestsRetryer(int maxAttempts, long maxBackoffMs) {
+            this.maxAttempts = maxAttempts;
+            this.maxBackoffMs = maxBackoffMs;
+            this.backoff = new Retryer.Default(200, maxBackoffMs, maxAttempts);
+        }
+
+        @Override
+        public void continueOrPropagate(RetryableException e) {
+            if (e.status() != TOO_MANY_REQUESTS) {
+                throw e;
+            }
+            backoff.continueOrPropagate(e);
+        }
+
+        @Override
+        public Retryer clone() {
+            return new TooManyRequestsRetryer(maxAttempts, maxBackoffMs);
+        }
+    }
+}
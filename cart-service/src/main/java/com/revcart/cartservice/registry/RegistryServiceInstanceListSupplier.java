@@ -0,0 +1,28 @@
+package com.revcart.cartservice.registry;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public class RegistryServiceInstanceListSupplier implements ServiceInstanceListSupplier {
+
+    private final String serviceId;
+    private final ServiceRegistry registry;
+
+    public RegistryServiceInstanceListSupplier(String serviceId, ServiceRegistry registry) {
+        this.serviceId = serviceId;
+        this.registry = registry;
+    }
+
+    @Override
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return registry.watch(serviceId);
+    }
+}
@@ -0,0 +1,123 @@
+package com.revcart.cartservice.registry;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File-based service registry backing Spring Cloud LoadBalancer, so Feign clients call the
+ * target service directly instead of hairpinning through the gateway.
+ * <p>
+ * Entries are {@code service-id=url[,url...]}; values may use {@code ${ENV:default}} placeholders.
+ * The classpath {@code service-registry.properties} is used unless {@code services.registry.file}
+ * points at an external file, which is re-read whenever it changes.
+ * <p>
+ * order-service has the same three registry classes; services build and ship independently, so
+ * changes here have to be made in both.
+ */
+@Slf4j
+@Component
+public class ServiceRegistry {
+
+    private final Environment environment;
+    private final String registryFile;
+    private final Map<String, Sinks.Many<List<ServiceInstance>>> sinks = new ConcurrentHashMap<>();
+    private volatile Map<String, List<ServiceInstance>> instances = Map.of();
+    private volatile long lastModified = -1;
+
+    public ServiceRegistry(Environment environment,
+                           @Value("${services.registry.file:}") String registryFile) {
+        this.environment = environment;
+        this.registryFile = registryFile;
+    }
+
+    @PostConstruct
+    public void load() {
+        reload(resource());
+    }
+
+    @Scheduled(fixedDelayString = "${services.registry.refresh-interval-ms:15000}")
+    public void refreshIfChanged() {
+        Resource resource = resource();
+        if (!(resource instanceof FileSystemResource)) {
+            return;
+        }
+        try {
+            if (resource.lastModified() != lastModified) {
+                reload(resource);
+            }
+        } catch (IOException e) {
+            log.warn("Could not stat service registry file {}: {}", registryFile, e.getMessage());
+        }
+    }
+
+    public List<ServiceInstance> getInstances(String serviceId) {
+        return instances.getOrDefault(serviceId, List.of());
+    }
+
+    /**
+     * Emits the current instance list for {@code serviceId} and every subsequent change.
+     */
+    public Flux<List<ServiceInstance>> watch(String serviceId) {
+        return sinks.computeIfAbsent(serviceId, id -> {
+            Sinks.Many<List<ServiceInstance>> sink = Sinks.many().replay().latest();
+            sink.tryEmitNext(getInstances(id));
+            return sink;
+        }).asFlux();
+    }
+
+    private Resource resource() {
+        return StringUtils.hasText(registryFile)
+                ? new FileSystemResource(registryFile)
+                : new ClassPathResource("service-registry.properties");
+    }
+
+    private synchronized void reload(Resource resource) {
+        try {
+            Properties properties = PropertiesLoaderUtils.loadProperties(resource);
+            Map<String, List<ServiceInstance>> loaded = new HashMap<>();
+            for (String serviceId : properties.stringPropertyNames()) {
+                String urls = environment.resolvePlaceholders(properties.getProperty(serviceId));
+                List<ServiceInstance> serviceInstances = new ArrayList<>();
+                int index = 0;
+                for (String url : StringUtils.commaDelimitedListToStringArray(urls)) {
+                    URI uri = URI.create(url.trim());
+                    boolean secure = "https".equals(uri.getScheme());
+                    int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+                    serviceInstances.add(new DefaultServiceInstance(serviceId + "-" + index++, serviceId,
+                            uri.getHost(), port, secure));
+                }
+                loaded.put(serviceId, List.copyOf(serviceInstances));
+            }
+            instances = Map.copyOf(loaded);
+            if (resource instanceof FileSystemResource) {
+                lastModified = resource.lastModified();
+            }
+            sinks.forEach((serviceId, sink) -> sink.tryEmitNext(getInstances(serviceId)));
+            log.info("Service registry loaded from {}: {}", resource.getDescription(), instances);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to load service registry from {}, keeping previous instances", resource.getDescription(), e);
+        }
+    }
+}
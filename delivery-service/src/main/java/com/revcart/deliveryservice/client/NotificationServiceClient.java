@@ -1,12 +1,18 @@
 package com.revcart.deliveryservice.client;
 
+import com.revcart.deliveryservice.config.NotificationFeignConfig;
+import com.revcart.deliveryservice.dto.AgentLocationDto;
 import com.revcart.deliveryservice.dto.ApiResponse;
+import com.revcart.deliveryservice.dto.NotificationRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "notification-service", url = "${services.notification-service.url}")
+import java.util.List;
+
+@FeignClient(name = "notification-service", url = "${services.notification-service.url}", configuration = NotificationFeignConfig.class)
 public interface NotificationServiceClient {
     
     @PostMapping("/api/notifications/order/{orderId}")
@@ -15,4 +21,11 @@ public interface NotificationServiceClient {
             @RequestParam Long userId,
             @RequestParam String eventType
     );
+
+    @PostMapping("/api/notifications/batch")
+    ApiResponse<Object> createNotifications(@RequestBody List<NotificationRequest> requests);
+
+    // Broadcast only, nothing is stored
+    @PostMapping("/api/notifications/agent-locations")
+    ApiResponse<Integer> pushAgentLocations(@RequestBody List<AgentLocationDto> locations);
 }
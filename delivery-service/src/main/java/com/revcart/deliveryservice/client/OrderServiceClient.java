@@ -4,8 +4,11 @@ import com.revcart.deliveryservice.dto.ApiResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient(name = "order-service", url = "${services.order-service.url}")
 public interface OrderServiceClient {
     
@@ -14,4 +17,10 @@ public interface OrderServiceClient {
             @PathVariable Long id,
             @RequestParam String status
     );
+
+    @PutMapping("/api/orders/status/batch")
+    ApiResponse<Integer> updateOrderStatuses(
+            @RequestParam String status,
+            @RequestBody List<Long> orderIds
+    );
 }
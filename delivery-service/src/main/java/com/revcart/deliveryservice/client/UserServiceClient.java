@@ -1,6 +1,7 @@
 package com.revcart.deliveryservice.client;
 
 import com.revcart.deliveryservice.dto.ApiResponse;
+import com.revcart.deliveryservice.dto.UserDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -9,5 +10,5 @@ import org.springframework.web.bind.annotation.PathVariable;
 public interface UserServiceClient {
     
     @GetMapping("/api/users/{id}")
-    ApiResponse<Object> getUserById(@PathVariable Long id);
+    ApiResponse<UserDto> getUserById(@PathVariable Long id);
 }
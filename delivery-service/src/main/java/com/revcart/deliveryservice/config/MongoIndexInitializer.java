@@ -0,0 +1,85 @@
+package com.revcart.deliveryservice.config;
+
+import com.revcart.deliveryservice.entity.AgentLocation;
+import com.revcart.deliveryservice.entity.Delivery;
+import com.revcart.deliveryservice.entity.DeliveryTrackingBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Creates the indexes the repositories rely on. Index annotations are not used because Spring
+ * Boot leaves auto index creation off and the TTL comes from configuration.
+ * <p>
+ * A failure is logged rather than stopping the service; an existing index with different
+ * options (e.g. a changed retention) has to be dropped by hand before it is recreated.
+ */
+@Component
+@Order(0)
+@Slf4j
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration trackingRetention;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+                                 @Value("${delivery.tracking.retention:P365D}") Duration trackingRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.trackingRetention = trackingRetention;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ensure(Delivery.class, new Index().on("orderId", Sort.Direction.ASC).unique().named("order_id"));
+        ensure(Delivery.class, new Index()
+                .on("agentId", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .named("agent_status_created"));
+        ensure(Delivery.class, new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("estimatedDeliveryDate", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .named("status_estimated_delivery_id"));
+        ensure(DeliveryTrackingBucket.class, new Index()
+                .on("deliveryId", Sort.Direction.ASC)
+                .on("startTime", Sort.Direction.DESC)
+                .named("delivery_start_time"));
+        ensure(DeliveryTrackingBucket.class, new Index()
+                .on("deliveryId", Sort.Direction.ASC)
+                .unique()
+                .partial(PartialIndexFilter.of(Criteria.where("open").is(true)))
+                .named("delivery_open_bucket"));
+        ensure(AgentLocation.class, new GeospatialIndex("position")
+                .typed(GeoSpatialIndexType.GEO_2DSPHERE)
+                .named("position_2dsphere"));
+        if (!trackingRetention.isZero()) {
+            ensure(DeliveryTrackingBucket.class, new Index()
+                    .on("endTime", Sort.Direction.ASC)
+                    .expire(trackingRetention)
+                    .named("end_time_ttl"));
+        }
+    }
+
+    private void ensure(Class<?> entityClass, IndexDefinition index) {
+        try {
+            mongoTemplate.indexOps(entityClass).ensureIndex(index);
+        } catch (Exception e) {
+            log.error("❌ Could not create index {} on {}: {}",
+                    index.getIndexOptions().get("name"), entityClass.getSimpleName(), e.getMessage());
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package com.revcart.deliveryservice.controller;
 
 import com.revcart.deliveryservice.dto.*;
+import com.revcart.deliveryservice.exception.BadRequestException;
+import com.revcart.deliveryservice.service.AgentEventStream;
+import com.revcart.deliveryservice.service.AgentLocationService;
 import com.revcart.deliveryservice.service.DeliveryService;
+import com.revcart.deliveryservice.service.DeliveryStatusBatchService;
+import com.revcart.deliveryservice.service.EtaService;
+import com.revcart.deliveryservice.service.RouteService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -14,6 +23,11 @@ import java.util.List;
 public class DeliveryController {
 
     private final DeliveryService deliveryService;
+    private final DeliveryStatusBatchService deliveryStatusBatchService;
+    private final AgentLocationService agentLocationService;
+    private final RouteService routeService;
+    private final AgentEventStream agentEventStream;
+    private final EtaService etaService;
 
     // --------- USED BY ADMIN / OTHER SERVICES ----------
 
@@ -47,6 +61,28 @@ public class DeliveryController {
         return ResponseEntity.ok(ApiResponse.success("Delivery status updated successfully", delivery));
     }
 
+    /**
+     * Many status changes in one call (e.g. warehouse handoff); each item is reported separately
+     * POST /api/delivery/status/batch
+     */
+    @PostMapping("/status/batch")
+    public ResponseEntity<ApiResponse<BatchStatusUpdateResult>> updateStatuses(@RequestBody List<StatusUpdateItem> items) {
+        BatchStatusUpdateResult result = deliveryStatusBatchService.apply(items);
+        return ResponseEntity.ok(ApiResponse.success("Delivery statuses updated", result));
+    }
+
+    /**
+     * Learned delivery time for an address, from deliveries completed in the same zip code or city
+     * GET /api/delivery/eta?zipCode=560001&city=Bengaluru
+     */
+    @GetMapping("/eta")
+    public ResponseEntity<ApiResponse<EtaDto>> getEta(
+            @RequestParam(required = false) String zipCode,
+            @RequestParam(required = false) String city) {
+        EtaDto eta = etaService.estimate(zipCode, city);
+        return ResponseEntity.ok(ApiResponse.success("ETA estimated successfully", eta));
+    }
+
     @GetMapping("/{orderId}")
     public ResponseEntity<ApiResponse<DeliveryDto>> getDelivery(@PathVariable Long orderId) {
         DeliveryDto delivery = deliveryService.getDeliveryByOrderId(orderId);
@@ -103,4 +139,74 @@ public class DeliveryController {
         List<DeliveryDto> deliveries = deliveryService.getPendingDeliveriesForAgent(agentId);
         return ResponseEntity.ok(ApiResponse.success("Pending deliveries retrieved successfully", deliveries));
     }
+
+    /**
+     * Planned multi-stop routes over the logged-in agent's open deliveries
+     * Frontend: GET /api/delivery/orders/route with header X-User-Id (refresh=true to replan)
+     */
+    @GetMapping("/orders/route")
+    public ResponseEntity<ApiResponse<AgentRouteDto>> getRoute(
+            @RequestHeader("X-User-Id") Long agentId,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+
+        AgentRouteDto route = routeService.getRoute(agentId, refresh);
+        return ResponseEntity.ok(ApiResponse.success("Route retrieved successfully", route));
+    }
+
+    /**
+     * Live feed of the logged-in agent's open deliveries: a snapshot, then assignment and status events
+     * Frontend: EventSource on GET /api/delivery/orders/stream (X-User-Id header, or agentId param since
+     * EventSource cannot set headers); Last-Event-ID resumes after a reconnect
+     */
+    @GetMapping(value = "/orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrders(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestParam(required = false) Long agentId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+
+        Long agent = userId != null ? userId : agentId;
+        if (agent == null) {
+            throw new BadRequestException("X-User-Id header or agentId parameter is required");
+        }
+        return agentEventStream.subscribe(agent, lastEventId != null ? lastEventId : lastEventIdParam,
+                () -> deliveryService.getAssignedDeliveriesForAgent(agent));
+    }
+
+    // --------- AGENT LOCATION ----------
+
+    /**
+     * GPS ping from the logged-in delivery agent's device; stored and pushed asynchronously
+     * Frontend: POST /api/delivery/agents/location with header X-User-Id
+     */
+    @PostMapping("/agents/location")
+    public ResponseEntity<ApiResponse<Void>> reportLocation(
+            @RequestHeader("X-User-Id") Long agentId,
+            @RequestBody LocationPing ping) {
+
+        agentLocationService.record(agentId, ping);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Location accepted", null));
+    }
+
+    /**
+     * X-User-Id must be the agent or a customer whose open delivery the agent is carrying
+     */
+    @GetMapping("/agents/{agentId}/location")
+    public ResponseEntity<ApiResponse<AgentLocationDto>> getAgentLocation(
+            @PathVariable Long agentId,
+            @RequestHeader("X-User-Id") Long userId) {
+        AgentLocationDto location = agentLocationService.getLocationForAgent(agentId, userId);
+        return ResponseEntity.ok(ApiResponse.success("Agent location retrieved successfully", location));
+    }
+
+    /**
+     * Frontend: GET /api/delivery/{orderId}/agent-location with header X-User-Id (customer or agent of the order)
+     */
+    @GetMapping("/{orderId}/agent-location")
+    public ResponseEntity<ApiResponse<AgentLocationDto>> getAgentLocationForOrder(
+            @PathVariable Long orderId,
+            @RequestHeader("X-User-Id") Long userId) {
+        AgentLocationDto location = agentLocationService.getLocationForOrder(orderId, userId);
+        return ResponseEntity.ok(ApiResponse.success("Agent location retrieved successfully", location));
+    }
 }
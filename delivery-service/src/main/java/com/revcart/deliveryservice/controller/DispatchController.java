@@ -0,0 +1,66 @@
+package com.revcart.deliveryservice.controller;
+
+import com.revcart.deliveryservice.client.UserServiceClient;
+import com.revcart.deliveryservice.dto.ApiResponse;
+import com.revcart.deliveryservice.dto.DispatchCandidateDto;
+import com.revcart.deliveryservice.dto.PostalZoneDto;
+import com.revcart.deliveryservice.dto.UserDto;
+import com.revcart.deliveryservice.exception.AccessDeniedException;
+import com.revcart.deliveryservice.service.DispatchService;
+import com.revcart.deliveryservice.service.Geocoder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/delivery/dispatch")
+@RequiredArgsConstructor
+@Slf4j
+public class DispatchController {
+
+    private final DispatchService dispatchService;
+    private final Geocoder geocoder;
+    private final UserServiceClient userServiceClient;
+
+    /**
+     * Ranked agents for a point, as the dispatcher would see them
+     */
+    @GetMapping("/candidates")
+    public ResponseEntity<ApiResponse<List<DispatchCandidateDto>>> getCandidates(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "8") int k) {
+        List<DispatchCandidateDto> candidates = dispatchService.rank(latitude, longitude, Math.min(Math.max(k, 1), 100));
+        return ResponseEntity.ok(ApiResponse.success("Dispatch candidates retrieved successfully", candidates));
+    }
+
+    /**
+     * Reference coordinates used to geocode delivery addresses; admins only
+     * Frontend: PUT /api/delivery/dispatch/zones with header X-User-Id
+     */
+    @PutMapping("/zones")
+    public ResponseEntity<ApiResponse<Integer>> saveZones(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestBody List<PostalZoneDto> zones) {
+        requireAdmin(userId);
+        int saved = geocoder.saveZones(zones);
+        return ResponseEntity.ok(ApiResponse.success("Postal zones saved successfully", saved));
+    }
+
+    // delivery-service has no roles of its own, so the caller's role is looked up in user-service
+    private void requireAdmin(Long userId) {
+        UserDto user;
+        try {
+            user = userServiceClient.getUserById(userId).getData();
+        } catch (Exception e) {
+            log.warn("Could not check role of user {}: {}", userId, e.getMessage());
+            throw new AccessDeniedException("Could not verify admin role");
+        }
+        if (user == null || !"ADMIN".equals(user.getRole())) {
+            throw new AccessDeniedException("Admin role required");
+        }
+    }
+}
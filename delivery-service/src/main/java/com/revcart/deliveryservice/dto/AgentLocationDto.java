@@ -0,0 +1,34 @@
+package com.revcart.deliveryservice.dto;
+
+import com.revcart.deliveryservice.entity.AgentLocation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AgentLocationDto {
+    private Long agentId;
+    private Long orderId;
+    private Double latitude;
+    private Double longitude;
+    private Double heading;
+    private Double speed;
+    private LocalDateTime recordedAt;
+
+    public static AgentLocationDto fromEntity(AgentLocation location) {
+        return AgentLocationDto.builder()
+                .agentId(location.getAgentId())
+                .latitude(location.getPosition().getY())
+                .longitude(location.getPosition().getX())
+                .heading(location.getHeading())
+                .speed(location.getSpeed())
+                .recordedAt(location.getRecordedAt())
+                .build();
+    }
+}
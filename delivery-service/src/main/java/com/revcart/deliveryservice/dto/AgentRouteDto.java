@@ -0,0 +1,25 @@
+package com.revcart.deliveryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AgentRouteDto {
+    private Long agentId;
+    private Double startLatitude;
+    private Double startLongitude;
+    private double totalDistanceKm;
+    private List<RouteDto> routes;
+    // Open deliveries whose address could not be placed on the map
+    private List<DeliveryDto> unrouted;
+    private LocalDateTime plannedAt;
+    private long planningMicros;
+}
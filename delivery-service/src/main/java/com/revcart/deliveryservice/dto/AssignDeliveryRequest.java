@@ -14,6 +14,15 @@ import java.time.LocalDateTime;
 public class AssignDeliveryRequest {
     private Long orderId;
     private Long userId;
+    // Chosen by the dispatch engine when null
     private Long agentId;
     private LocalDateTime estimatedDeliveryDate;
+    private String street;
+    private String city;
+    private String state;
+    private String zipCode;
+    private String country;
+    // Optional; geocoded from zipCode/city when absent
+    private Double latitude;
+    private Double longitude;
 }
@@ -0,0 +1,19 @@
+package com.revcart.deliveryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchStatusUpdateResult {
+    private int updated;
+    private int failed;
+    // One per request item, in request order
+    private List<StatusUpdateResult> results;
+}
@@ -18,8 +18,13 @@ public class DeliveryDto {
     private Long userId;
     private Long agentId;
     private String status;
+    private String city;
+    private String zipCode;
+    private Double latitude;
+    private Double longitude;
     private LocalDateTime estimatedDeliveryDate;
     private LocalDateTime actualDeliveryDate;
+    private LocalDateTime slaBreachedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -30,8 +35,13 @@ public class DeliveryDto {
                 .userId(delivery.getUserId())
                 .agentId(delivery.getAgentId())
                 .status(delivery.getStatus() != null ? delivery.getStatus().name() : null)
+                .city(delivery.getCity())
+                .zipCode(delivery.getZipCode())
+                .latitude(delivery.getDestination() != null ? delivery.getDestination().getY() : null)
+                .longitude(delivery.getDestination() != null ? delivery.getDestination().getX() : null)
                 .estimatedDeliveryDate(delivery.getEstimatedDeliveryDate())
                 .actualDeliveryDate(delivery.getActualDeliveryDate())
+                .slaBreachedAt(delivery.getSlaBreachedAt())
                 .createdAt(delivery.getCreatedAt())
                 .updatedAt(delivery.getUpdatedAt())
                 .build();
@@ -0,0 +1,20 @@
+package com.revcart.deliveryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DispatchCandidateDto {
+    private Long agentId;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+    private Integer load;
+    // Lower is better: distance plus a penalty per active delivery
+    private Double score;
+}
@@ -0,0 +1,24 @@
+package com.revcart.deliveryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EtaDto {
+    private String zipCode;
+    private String city;
+    // Which history the estimate came from: ZIP, CITY, ALL or DEFAULT
+    private String basis;
+    private long samples;
+    private double p50Minutes;
+    private double p90Minutes;
+    private LocalDateTime p50DeliveryDate;
+    private LocalDateTime p90DeliveryDate;
+}
@@ -0,0 +1,22 @@
+package com.revcart.deliveryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LocationPing {
+    private Double latitude;
+    private Double longitude;
+    private Double heading;
+    private Double speed;
+    private Double accuracy;
+    // Device time of the fix; server time is used when absent
+    private LocalDateTime recordedAt;
+}
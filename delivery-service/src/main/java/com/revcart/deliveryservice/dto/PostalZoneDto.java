@@ -0,0 +1,17 @@
+package com.revcart.deliveryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostalZoneDto {
+    private String zipCode;
+    private String city;
+    private Double latitude;
+    private Double longitude;
+}
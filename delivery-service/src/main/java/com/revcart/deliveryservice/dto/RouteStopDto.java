@@ -0,0 +1,22 @@
+package com.revcart.deliveryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteStopDto {
+    private Long orderId;
+    private String deliveryId;
+    private String status;
+    private String city;
+    private String zipCode;
+    private Double latitude;
+    private Double longitude;
+    // From the previous stop, or from the route start for the first stop
+    private Double legDistanceKm;
+}
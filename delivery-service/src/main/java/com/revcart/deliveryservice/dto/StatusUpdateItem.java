@@ -0,0 +1,17 @@
+package com.revcart.deliveryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatusUpdateItem {
+    private Long orderId;
+    private String status;
+    private String location;
+    private String message;
+}
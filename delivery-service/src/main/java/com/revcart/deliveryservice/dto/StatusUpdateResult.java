@@ -0,0 +1,20 @@
+package com.revcart.deliveryservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatusUpdateResult {
+    private Long orderId;
+    private String status;
+    private boolean success;
+    // False when the status was written but its tracking event could not be recorded
+    private boolean trackingRecorded;
+    // Why the item was not applied, or what went wrong after it was; null on full success
+    private String error;
+}
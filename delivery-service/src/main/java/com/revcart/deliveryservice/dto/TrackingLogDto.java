@@ -1,6 +1,6 @@
 package com.revcart.deliveryservice.dto;
 
-import com.revcart.deliveryservice.entity.DeliveryTrackingLog;
+import com.revcart.deliveryservice.entity.TrackingEvent;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,13 +19,13 @@ public class TrackingLogDto {
     private String message;
     private LocalDateTime timestamp;
 
-    public static TrackingLogDto fromEntity(DeliveryTrackingLog log) {
+    public static TrackingLogDto fromEvent(String id, TrackingEvent event) {
         return TrackingLogDto.builder()
-                .id(log.getId())
-                .status(log.getStatus() != null ? log.getStatus().name() : null)
-                .location(log.getLocation())
-                .message(log.getMessage())
-                .timestamp(log.getTimestamp())
+                .id(id)
+                .status(event.getStatus() != null ? event.getStatus().name() : null)
+                .location(event.getLocation())
+                .message(event.getMessage())
+                .timestamp(event.getTimestamp())
                 .build();
     }
 }
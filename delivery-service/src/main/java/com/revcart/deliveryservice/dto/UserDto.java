@@ -1,4 +1,4 @@
-package com.revcart.paymentservice.dto;
+package com.revcart.deliveryservice.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,8 +9,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class UserDto {
     private Long id;
-    private String email;
     private String name;
-    private String phone;
+    private String email;
     private String role;
 }
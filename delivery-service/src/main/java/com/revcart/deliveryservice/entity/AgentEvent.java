@@ -0,0 +1,29 @@
+package com.revcart.deliveryservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One agent dashboard event in the capped {@code agent_events} collection, which every instance
+ * tails to feed its own streams.
+ */
+@Document("agent_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AgentEvent {
+    @Id
+    private String id;
+    private Long agentId;
+    private String type;
+    // Event data as sent to the client
+    private String payload;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+package com.revcart.deliveryservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last known position of a delivery agent, one document per agent.
+ */
+@Document("agent_locations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AgentLocation {
+    @Id
+    private Long agentId;
+    // GeoJSON order: x = longitude, y = latitude
+    private GeoJsonPoint position;
+    private Double heading;
+    private Double speed;
+    private Double accuracy;
+    private LocalDateTime recordedAt;
+    private LocalDateTime updatedAt;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Delivery {
     @Id
     private String id;
@@ -21,8 +22,16 @@ public class Delivery {
     private Long userId;
     private Long agentId;
     private DeliveryStatus status;
+    private String city;
+    private String zipCode;
+    // Geocoded delivery address; null if it could not be placed
+    private GeoJsonPoint destination;
     private LocalDateTime estimatedDeliveryDate;
     private LocalDateTime actualDeliveryDate;
+    // Set once when the estimated delivery date passes with the delivery still open
+    private LocalDateTime slaBreachedAt;
+    // Marks the breaches claimed by one monitor run, so each is reported by one instance only
+    private String slaClaim;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -0,0 +1,32 @@
+package com.revcart.deliveryservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Up to {@code delivery.tracking.bucket-size} tracking events of one delivery. Indexed on
+ * (deliveryId, startTime) and expired by a TTL index on endTime, see MongoIndexInitializer.
+ * {@code open} is true only on the bucket live appends go to and is removed once it is full.
+ */
+@Document("delivery_tracking")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryTrackingBucket {
+    @Id
+    private String id;
+    private String deliveryId;
+    private int count;
+    private Boolean open;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private List<TrackingEvent> events;
+}
@@ -0,0 +1,30 @@
+package com.revcart.deliveryservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Transit-time sketch for one zip code, one city or all deliveries, summed over all instances.
+ */
+@Document("eta_sketches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EtaSketch {
+    // "zip:<zipCode>", "city:<city>" or "all"
+    @Id
+    private String id;
+    private double relativeAccuracy;
+    // Deliveries per logarithmic bucket of transit minutes, keyed by bucket index; instances add to it with $inc
+    private Map<String, Long> buckets;
+    private long samples;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,24 @@
+package com.revcart.deliveryservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Reference point for a zip code, used to place delivery addresses on the map.
+ */
+@Document("postal_zones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostalZone {
+    @Id
+    private String zipCode;
+    private String city;
+    private GeoJsonPoint position;
+}
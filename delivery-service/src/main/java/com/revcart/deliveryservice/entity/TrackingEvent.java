@@ -4,20 +4,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
-@Document("delivery_tracking_logs")
+/**
+ * One tracking entry, embedded in a {@link DeliveryTrackingBucket}.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class DeliveryTrackingLog {
-    @Id
-    private String id;
-    private Delivery delivery;
+public class TrackingEvent {
     private Delivery.DeliveryStatus status;
     private String location;
     private String message;
@@ -0,0 +1,9 @@
+package com.revcart.deliveryservice.repository;
+
+import com.revcart.deliveryservice.entity.AgentLocation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AgentLocationRepository extends MongoRepository<AgentLocation, Long> {
+}
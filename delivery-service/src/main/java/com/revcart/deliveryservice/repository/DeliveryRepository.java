@@ -3,8 +3,10 @@ package com.revcart.deliveryservice.repository;
 import com.revcart.deliveryservice.entity.Delivery;
 import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +27,13 @@ public interface DeliveryRepository extends MongoRepository<Delivery, String> {
     // Deliveries for an agent filtered by a list of statuses
     List<Delivery> findByAgentIdAndStatusInOrderByCreatedAtDesc(Long agentId, List<DeliveryStatus> statuses);
 
+    // Whether the agent is carrying one of the customer's deliveries
+    boolean existsByAgentIdAndUserIdAndStatusIn(Long agentId, Long userId, List<DeliveryStatus> statuses);
+
     // Deliveries for an agent with a single status
     List<Delivery> findByAgentIdAndStatusOrderByCreatedAtDesc(Long agentId, DeliveryStatus status);
+
+    // Active deliveries of several agents, for pushing agent positions to their customers
+    @Query(value = "{ 'agentId': { $in: ?0 }, 'status': { $in: ?1 } }", fields = "{ 'orderId': 1, 'userId': 1, 'agentId': 1 }")
+    List<Delivery> findActiveByAgentIds(Collection<Long> agentIds, Collection<DeliveryStatus> statuses);
 }
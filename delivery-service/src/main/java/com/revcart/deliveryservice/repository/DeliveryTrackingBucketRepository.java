@@ -0,0 +1,12 @@
+package com.revcart.deliveryservice.repository;
+
+import com.revcart.deliveryservice.entity.DeliveryTrackingBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeliveryTrackingBucketRepository extends MongoRepository<DeliveryTrackingBucket, String> {
+    List<DeliveryTrackingBucket> findByDeliveryIdOrderByStartTimeDesc(String deliveryId);
+}
@@ -0,0 +1,9 @@
+package com.revcart.deliveryservice.repository;
+
+import com.revcart.deliveryservice.entity.PostalZone;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PostalZoneRepository extends MongoRepository<PostalZone, String> {
+}
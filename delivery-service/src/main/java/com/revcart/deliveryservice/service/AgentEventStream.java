@@ -0,0 +1,405 @@
+package com.revcart.deliveryservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCursor;
+import com.revcart.deliveryservice.entity.AgentEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Server-sent event streams for agent dashboards.
+ * <p>
+ * A new stream gets a {@code snapshot} event with the agent's open deliveries, then one event per
+ * assignment or status change of those deliveries. Events are not delivered in-process: publishing
+ * inserts them into the capped {@code agent_events} collection, and every instance tails that
+ * collection with one thread and fans each event out to its own streams, so a dashboard sees the
+ * changes handled by any replica. Event ids are the ids of those documents; the last
+ * {@code delivery.stream.replay-size} events of each agent with a stream are kept so a client
+ * reconnecting with {@code Last-Event-ID} is sent only what it missed. If that is no longer
+ * possible it gets a fresh snapshot. Every stream is also sent a fresh snapshot every
+ * {@code resync-interval-ms}, and all of them are when the tail lost its place in the collection.
+ * <p>
+ * Every stream has its own queue of at most {@code delivery.stream.queue-size} events, drained in
+ * order by one task at a time on a shared pool of {@code delivery.stream.sender-threads}. The
+ * snapshot is queried by that task too, so neither the tail nor a subscribing request waits on a
+ * client. Events carry the full delivery, so one that a snapshot already reflects is harmless to
+ * apply again. A stream whose client falls so far behind that its queue overflows is closed; the
+ * client reconnects and catches up by replay or a new snapshot. Idle streams receive a heartbeat
+ * comment to keep proxies from closing them.
+ */
+@Service
+@Slf4j
+public class AgentEventStream {
+
+    private static final Object HEARTBEAT = new Object();
+    private static final String COLLECTION = "agent_events";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+    private final int replaySize;
+    private final int queueSize;
+    private final long emitterTimeoutMs;
+    private final Duration idleChannelTtl;
+    private final long logSizeBytes;
+    private final Thread tailer;
+    private volatile boolean running = true;
+
+    public AgentEventStream(MongoTemplate mongoTemplate,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${delivery.stream.replay-size:256}") int replaySize,
+                            @Value("${delivery.stream.queue-size:256}") int queueSize,
+                            @Value("${delivery.stream.sender-threads:8}") int senderThreads,
+                            @Value("${delivery.stream.emitter-timeout:PT30M}") Duration emitterTimeout,
+                            @Value("${delivery.stream.idle-channel-ttl:PT10M}") Duration idleChannelTtl,
+                            @Value("${delivery.stream.log-size-mb:16}") long logSizeMb) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.replaySize = replaySize;
+        this.queueSize = Math.max(1, queueSize);
+        this.emitterTimeoutMs = emitterTimeout.toMillis();
+        this.idleChannelTtl = idleChannelTtl;
+        this.logSizeBytes = logSizeMb * 1024 * 1024;
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "agent-event-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tailer = new Thread(this::tail, "agent-event-tailer");
+        this.tailer.setDaemon(true);
+        meterRegistry.gauge("delivery.agent.streams", channels,
+                map -> map.values().stream().mapToInt(channel -> channel.subscribers.size()).sum());
+    }
+
+    @PostConstruct
+    void start() {
+        try {
+            if (!mongoTemplate.collectionExists(COLLECTION)) {
+                mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty().capped().size(logSizeBytes));
+            }
+        } catch (Exception e) {
+            // Most likely created by another instance at the same time; the tail retries if not
+            log.warn("Could not create {}: {}", COLLECTION, e.getMessage());
+        }
+        tailer.start();
+    }
+
+    public SseEmitter subscribe(Long agentId, String lastEventId, Supplier<Object> snapshot) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Channel channel = channels.computeIfAbsent(agentId, id -> new Channel());
+        Subscriber subscriber = new Subscriber(channel, emitter, snapshot);
+        emitter.onCompletion(() -> channel.subscribers.remove(subscriber));
+        emitter.onTimeout(() -> channel.subscribers.remove(subscriber));
+        emitter.onError(error -> channel.subscribers.remove(subscriber));
+
+        synchronized (channel) {
+            List<Event> replay = channel.since(lastEventId);
+            if (replay != null) {
+                replay.forEach(subscriber::offer);
+            } else {
+                subscriber.offer(new Snapshot(channel.lastId(), snapshot));
+            }
+            channel.subscribers.add(subscriber);
+            channel.touch();
+        }
+        return emitter;
+    }
+
+    /**
+     * Appends an event to {@code agent_events}, from where every instance sends it to its streams of the agent.
+     */
+    public void publish(Long agentId, String type, Object data) {
+        if (agentId == null) {
+            return;
+        }
+        try {
+            mongoTemplate.insert(AgentEvent.builder()
+                    .agentId(agentId)
+                    .type(type)
+                    .payload(objectMapper.writeValueAsString(data))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (Exception e) {
+            // The agent's streams pick the change up with their next snapshot
+            log.error("❌ Failed to publish {} event for agent {}: {}", type, agentId, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${delivery.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        long idleBefore = System.currentTimeMillis() - idleChannelTtl.toMillis();
+        channels.entrySet().removeIf(entry -> entry.getValue().subscribers.isEmpty() && entry.getValue().lastActivity < idleBefore);
+        channels.values().forEach(channel -> channel.subscribers.forEach(Subscriber::heartbeat));
+    }
+
+    /**
+     * Sends every stream a fresh snapshot, bounding how long a dashboard can miss a change.
+     */
+    @Scheduled(initialDelayString = "${delivery.stream.resync-interval-ms:300000}",
+            fixedDelayString = "${delivery.stream.resync-interval-ms:300000}")
+    public void resync() {
+        channels.values().forEach(channel -> {
+            synchronized (channel) {
+                channel.subscribers.forEach(subscriber -> subscriber.offer(new Snapshot(channel.lastId(), subscriber.snapshot)));
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        tailer.interrupt();
+        sender.shutdown();
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * Follows {@code agent_events} with a tailable cursor. After reopening the cursor it skips to
+     * the last event already dispatched; if that event has been overwritten in the meantime some
+     * events were missed, and every stream is resynced.
+     */
+    private void tail() {
+        ObjectId last = null;
+        try {
+            last = latestId();
+        } catch (Exception e) {
+            log.warn("Could not read {}: {}", COLLECTION, e.getMessage());
+        }
+        while (running) {
+            boolean positioned = last == null;
+            try (MongoCursor<Document> cursor = mongoTemplate.getCollection(COLLECTION).find()
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .iterator()) {
+                while (running) {
+                    Document next = cursor.tryNext();
+                    if (next == null) {
+                        if (!positioned) {
+                            log.warn("Lost position in {}, resyncing agent event streams", COLLECTION);
+                            resync();
+                            positioned = true;
+                        }
+                        if (cursor.getServerCursor() == null) {
+                            // A tailable cursor on an empty collection is closed straight away
+                            break;
+                        }
+                        continue;
+                    }
+                    ObjectId id = next.getObjectId("_id");
+                    if (!positioned) {
+                        positioned = id.equals(last);
+                        continue;
+                    }
+                    last = id;
+                    dispatch(id.toHexString(), next);
+                }
+            } catch (Exception e) {
+                if (running) {
+                    log.warn("Tailing {} failed, reopening: {}", COLLECTION, e.getMessage());
+                }
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private ObjectId latestId() {
+        Document latest = mongoTemplate.getCollection(COLLECTION).find()
+                .sort(new Document("$natural", -1))
+                .limit(1)
+                .first();
+        return latest != null ? latest.getObjectId("_id") : null;
+    }
+
+    private void dispatch(String id, Document document) {
+        Channel channel = channels.get(document.getLong("agentId"));
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            Event event = new Event(id, document.getString("type"), document.getString("payload"));
+            channel.recent.addLast(event);
+            if (channel.recent.size() > replaySize) {
+                channel.recent.removeFirst();
+            }
+            channel.touch();
+            channel.subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    // payload is already JSON and is written as is
+    private record Event(String id, String type, String payload) {
+    }
+
+    // Queried by the stream's own sender task, not by the subscribing request; lastId may be null
+    private record Snapshot(String lastId, Supplier<Object> data) {
+    }
+
+    /**
+     * One stream: a bounded queue of events (or a pending snapshot, or a heartbeat) and at most one
+     * task draining it. Only that task touches the emitter, so a client stuck in a write never
+     * blocks the tail; it holds one sender thread until its connection fails or times out.
+     */
+    private final class Subscriber {
+        private final Channel channel;
+        private final SseEmitter emitter;
+        private final Supplier<Object> snapshot;
+        private final Deque<Object> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(Channel channel, SseEmitter emitter, Supplier<Object> snapshot) {
+            this.channel = channel;
+            this.emitter = emitter;
+            this.snapshot = snapshot;
+        }
+
+        synchronized void offer(Object item) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= queueSize) {
+                // A full queue is always being drained; the drain completes the emitter when it gets back
+                closed = true;
+                queue.clear();
+                channel.subscribers.remove(this);
+                log.debug("Dropping agent event stream: client fell {} events behind", queueSize);
+                return;
+            }
+            queue.addLast(item);
+            if (!draining) {
+                draining = true;
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // shutting down
+                    draining = false;
+                }
+            }
+        }
+
+        // Only when nothing is waiting: a stream with queued events is not idle
+        synchronized void heartbeat() {
+            if (queue.isEmpty()) {
+                offer(HEARTBEAT);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Object item;
+                boolean dropped;
+                synchronized (this) {
+                    item = closed ? null : queue.pollFirst();
+                    dropped = closed;
+                    if (item == null) {
+                        draining = false;
+                    }
+                }
+                if (item == null) {
+                    if (dropped) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                try {
+                    if (item == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else if (item instanceof Snapshot snapshot) {
+                        send(snapshot.lastId(), "snapshot", snapshot.data().get());
+                    } else if (item instanceof Event event) {
+                        send(event.id(), event.type(), event.payload());
+                    }
+                } catch (Exception e) {
+                    // Includes a failed snapshot query; the client reconnects and asks again
+                    fail(e);
+                    return;
+                }
+            }
+        }
+
+        private void send(String id, String type, Object data) throws IOException {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(type).data(data, MediaType.APPLICATION_JSON);
+            if (id != null) {
+                event.id(id);
+            }
+            emitter.send(event);
+        }
+
+        private void fail(Exception e) {
+            synchronized (this) {
+                closed = true;
+                draining = false;
+                queue.clear();
+            }
+            channel.subscribers.remove(this);
+            emitter.completeWithError(e);
+            log.debug("Dropped agent event stream: {}", e.getMessage());
+        }
+    }
+
+    private static final class Channel {
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final Deque<Event> recent = new ArrayDeque<>();
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        String lastId() {
+            return recent.isEmpty() ? null : recent.peekLast().id();
+        }
+
+        // Events after the one with lastEventId, or null if it is not among the kept events
+        List<Event> since(String lastEventId) {
+            if (lastEventId == null) {
+                return null;
+            }
+            List<Event> missed = null;
+            for (Event event : recent) {
+                if (missed != null) {
+                    missed.add(event);
+                } else if (event.id().equals(lastEventId)) {
+                    missed = new ArrayList<>();
+                }
+            }
+            return missed;
+        }
+    }
+}
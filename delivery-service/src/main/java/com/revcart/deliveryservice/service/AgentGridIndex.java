@@ -0,0 +1,180 @@
+package com.revcart.deliveryservice.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory spatial index of agent positions on a fixed grid of cells roughly {@code cellKm}
+ * on a side (geohash-style bucketing without the string encoding).
+ * <p>
+ * Moving an agent is O(1): at most one removal from its old cell and one insertion into the new
+ * one. A k-nearest lookup scans rings of cells outwards from the query cell and stops as soon as
+ * the next ring cannot hold anything closer than the current k-th candidate, so its cost depends
+ * on local density rather than on the total number of agents. Distances are great-circle;
+ * longitudes do not wrap at the antimeridian, which is fine at city scale.
+ */
+public class AgentGridIndex {
+
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final long ROW_FACTOR = 1_000_000L;
+
+    private final double cellDeg;
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> agents = new ConcurrentHashMap<>();
+
+    public record Entry(long agentId, double latitude, double longitude, long cell, long seenAtMillis) {
+    }
+
+    public record Candidate(long agentId, double latitude, double longitude, double distanceKm) {
+    }
+
+    public AgentGridIndex(double cellKm) {
+        this.cellDeg = Math.max(cellKm, 0.1) / KM_PER_DEGREE;
+    }
+
+    public void update(long agentId, double latitude, double longitude, long seenAtMillis) {
+        long cell = cellOf(latitude, longitude);
+        Entry previous = agents.put(agentId, new Entry(agentId, latitude, longitude, cell, seenAtMillis));
+        if (previous == null || previous.cell() != cell) {
+            cells.compute(cell, (key, members) -> {
+                Set<Long> set = members != null ? members : ConcurrentHashMap.newKeySet();
+                set.add(agentId);
+                return set;
+            });
+            if (previous != null) {
+                removeFromCell(previous.cell(), agentId);
+            }
+        }
+    }
+
+    public void remove(long agentId) {
+        Entry previous = agents.remove(agentId);
+        if (previous != null) {
+            removeFromCell(previous.cell(), agentId);
+        }
+    }
+
+    /**
+     * Drops agents last seen before {@code cutoffMillis}; returns how many were removed.
+     */
+    public int removeSeenBefore(long cutoffMillis) {
+        int removed = 0;
+        for (Entry entry : agents.values()) {
+            if (entry.seenAtMillis() < cutoffMillis && agents.remove(entry.agentId(), entry)) {
+                removeFromCell(entry.cell(), entry.agentId());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public Iterable<Entry> entries() {
+        return agents.values();
+    }
+
+    public int size() {
+        return agents.size();
+    }
+
+    /**
+     * Up to {@code k} agents within {@code maxRadiusKm} that pass {@code filter}, nearest first.
+     */
+    public List<Candidate> nearest(double latitude, double longitude, int k, double maxRadiusKm, Predicate<Entry> filter) {
+        PriorityQueue<Candidate> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Candidate::distanceKm).reversed());
+        if (k <= 0 || agents.isEmpty()) {
+            return List.of();
+        }
+        long row = row(latitude);
+        long col = col(longitude);
+        for (int ring = 0; ; ring++) {
+            double bound = ringLowerBoundKm(ring, latitude);
+            if (bound > maxRadiusKm || (best.size() == k && bound > best.peek().distanceKm())) {
+                break;
+            }
+            for (long r = row - ring; r <= row + ring; r++) {
+                boolean edgeRow = r == row - ring || r == row + ring;
+                long step = edgeRow ? 1 : 2L * ring;
+                for (long c = col - ring; c <= col + ring; c += Math.max(step, 1)) {
+                    scanCell(key(r, c), latitude, longitude, k, maxRadiusKm, filter, best);
+                }
+            }
+        }
+        List<Candidate> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Candidate::distanceKm));
+        return result;
+    }
+
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void scanCell(long cell, double latitude, double longitude, int k, double maxRadiusKm,
+                          Predicate<Entry> filter, PriorityQueue<Candidate> best) {
+        Set<Long> members = cells.get(cell);
+        if (members == null) {
+            return;
+        }
+        for (Long agentId : members) {
+            Entry entry = agents.get(agentId);
+            // Skip memberships left behind by a concurrent move
+            if (entry == null || entry.cell() != cell || !filter.test(entry)) {
+                continue;
+            }
+            double distance = distanceKm(latitude, longitude, entry.latitude(), entry.longitude());
+            if (distance > maxRadiusKm) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(new Candidate(agentId, entry.latitude(), entry.longitude(), distance));
+            } else if (distance < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Candidate(agentId, entry.latitude(), entry.longitude(), distance));
+            }
+        }
+    }
+
+    // Anything in ring r is at least r - 1 whole cells away in one axis; longitude cells are the
+    // narrower ones, so bound with them at the ring's most poleward latitude
+    private double ringLowerBoundKm(int ring, double latitude) {
+        if (ring <= 1) {
+            return 0;
+        }
+        double poleward = Math.min(89.9, Math.abs(latitude) + (ring + 1) * cellDeg);
+        return (ring - 1) * cellDeg * KM_PER_DEGREE * Math.cos(Math.toRadians(poleward));
+    }
+
+    private void removeFromCell(long cell, long agentId) {
+        cells.computeIfPresent(cell, (key, members) -> {
+            members.remove(agentId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(row(latitude), col(longitude));
+    }
+
+    private long row(double latitude) {
+        return (long) Math.floor((latitude + 90) / cellDeg);
+    }
+
+    private long col(double longitude) {
+        return (long) Math.floor((longitude + 180) / cellDeg);
+    }
+
+    private static long key(long row, long col) {
+        return row * ROW_FACTOR + col;
+    }
+}
@@ -0,0 +1,186 @@
+package com.revcart.deliveryservice.service;
+
+import com.revcart.deliveryservice.client.NotificationServiceClient;
+import com.revcart.deliveryservice.dto.AgentLocationDto;
+import com.revcart.deliveryservice.dto.LocationPing;
+import com.revcart.deliveryservice.entity.AgentLocation;
+import com.revcart.deliveryservice.entity.Delivery;
+import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
+import com.revcart.deliveryservice.exception.AccessDeniedException;
+import com.revcart.deliveryservice.exception.BadRequestException;
+import com.revcart.deliveryservice.exception.ResourceNotFoundException;
+import com.revcart.deliveryservice.repository.DeliveryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingests agent GPS pings.
+ * <p>
+ * A ping only replaces the agent's entry in two maps: the latest known positions, served to
+ * readers, and the positions not yet written. Every {@code delivery.location.flush-interval-ms}
+ * the pending positions are written as one unordered bulk upsert (one document per agent) and
+ * pushed to the customers of the agents' active deliveries through notification-service. Mongo
+ * and push traffic therefore depend on the number of moving agents, not on the ping rate.
+ */
+@Service
+@Slf4j
+public class AgentLocationService {
+
+    static final List<DeliveryStatus> ACTIVE_STATUSES = List.of(
+            DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT, DeliveryStatus.OUT_FOR_DELIVERY);
+
+    private final MongoTemplate mongoTemplate;
+    private final DeliveryRepository deliveryRepository;
+    private final NotificationServiceClient notificationServiceClient;
+    private final DispatchService dispatchService;
+    private final int maxFlushSize;
+    private final Map<Long, AgentLocation> latest = new ConcurrentHashMap<>();
+    private final Map<Long, AgentLocation> pending = new ConcurrentHashMap<>();
+
+    public AgentLocationService(MongoTemplate mongoTemplate,
+                                DeliveryRepository deliveryRepository,
+                                NotificationServiceClient notificationServiceClient,
+                                DispatchService dispatchService,
+                                @Value("${delivery.location.max-flush-size:5000}") int maxFlushSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.deliveryRepository = deliveryRepository;
+        this.notificationServiceClient = notificationServiceClient;
+        this.dispatchService = dispatchService;
+        this.maxFlushSize = maxFlushSize;
+    }
+
+    public void record(Long agentId, LocationPing ping) {
+        if (ping.getLatitude() == null || ping.getLongitude() == null
+                || Math.abs(ping.getLatitude()) > 90 || Math.abs(ping.getLongitude()) > 180) {
+            throw new BadRequestException("Valid latitude and longitude are required");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        AgentLocation location = AgentLocation.builder()
+                .agentId(agentId)
+                .position(new GeoJsonPoint(ping.getLongitude(), ping.getLatitude()))
+                .heading(ping.getHeading())
+                .speed(ping.getSpeed())
+                .accuracy(ping.getAccuracy())
+                .recordedAt(ping.getRecordedAt() != null ? ping.getRecordedAt() : now)
+                .updatedAt(now)
+                .build();
+        // Pings can arrive out of order; keep the newest fix
+        if (latest.merge(agentId, location, AgentLocationService::newer) == location) {
+            dispatchService.onLocation(location);
+        }
+        pending.merge(agentId, location, AgentLocationService::newer);
+    }
+
+    public Optional<AgentLocation> getLatest(Long agentId) {
+        AgentLocation location = latest.get(agentId);
+        if (location != null) {
+            return Optional.of(location);
+        }
+        return Optional.ofNullable(mongoTemplate.findById(agentId, AgentLocation.class));
+    }
+
+    /**
+     * Current position of the agent carrying an order, for a customer's tracking page before
+     * live updates arrive on {@code /topic/delivery/{orderId}/location}. Only the order's customer
+     * and its assigned agent may see where the agent is.
+     */
+    public AgentLocationDto getLocationForOrder(Long orderId, Long requesterId) {
+        Delivery delivery = deliveryRepository.findByOrderId(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Delivery not found for order: " + orderId));
+        if (!requesterId.equals(delivery.getUserId()) && !requesterId.equals(delivery.getAgentId())) {
+            throw new AccessDeniedException("Not allowed to track order: " + orderId);
+        }
+        if (delivery.getAgentId() == null) {
+            throw new ResourceNotFoundException("No agent assigned for order: " + orderId);
+        }
+        AgentLocation location = getLatest(delivery.getAgentId())
+                .orElseThrow(() -> new ResourceNotFoundException("No location reported for order: " + orderId));
+        AgentLocationDto dto = AgentLocationDto.fromEntity(location);
+        dto.setOrderId(orderId);
+        return dto;
+    }
+
+    /**
+     * Current position of an agent, for the agent and for customers whose open delivery the agent
+     * is carrying.
+     */
+    public AgentLocationDto getLocationForAgent(Long agentId, Long requesterId) {
+        if (!requesterId.equals(agentId)
+                && !deliveryRepository.existsByAgentIdAndUserIdAndStatusIn(agentId, requesterId, DispatchService.OPEN_STATUSES)) {
+            throw new AccessDeniedException("Not allowed to see the location of agent: " + agentId);
+        }
+        return getLatest(agentId)
+                .map(AgentLocationDto::fromEntity)
+                .orElseThrow(() -> new ResourceNotFoundException("No location reported for agent: " + agentId));
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.location.flush-interval-ms:2000}")
+    public void flush() {
+        List<AgentLocation> batch = new ArrayList<>();
+        for (Map.Entry<Long, AgentLocation> entry : pending.entrySet()) {
+            if (batch.size() >= maxFlushSize) {
+                break;
+            }
+            // Conditional remove: a ping that lands meanwhile stays pending for the next flush
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AgentLocation.class);
+            batch.forEach(location -> ops.replaceOne(Query.query(Criteria.where("_id").is(location.getAgentId())),
+                    location, FindAndReplaceOptions.options().upsert()));
+            ops.execute();
+        } catch (Exception e) {
+            log.error("❌ Failed to write {} agent locations: {}", batch.size(), e.getMessage());
+            // Put them back unless a newer ping already has
+            batch.forEach(location -> pending.merge(location.getAgentId(), location, AgentLocationService::newer));
+            return;
+        }
+        push(batch);
+        log.debug("Flushed {} agent locations", batch.size());
+    }
+
+    private void push(List<AgentLocation> batch) {
+        Map<Long, AgentLocation> byAgent = new HashMap<>();
+        batch.forEach(location -> byAgent.put(location.getAgentId(), location));
+        List<AgentLocationDto> updates = new ArrayList<>();
+        try {
+            for (Delivery delivery : deliveryRepository.findActiveByAgentIds(byAgent.keySet(), ACTIVE_STATUSES)) {
+                AgentLocationDto update = AgentLocationDto.fromEntity(byAgent.get(delivery.getAgentId()));
+                update.setOrderId(delivery.getOrderId());
+                updates.add(update);
+            }
+            if (!updates.isEmpty()) {
+                notificationServiceClient.pushAgentLocations(updates);
+            }
+        } catch (Exception e) {
+            // Positions are already stored and the next flush carries newer ones
+            log.warn("Failed to push {} agent locations: {}", updates.size(), e.getMessage());
+        }
+    }
+
+    private static AgentLocation newer(AgentLocation current, AgentLocation candidate) {
+        return candidate.getRecordedAt().isBefore(current.getRecordedAt()) ? current : candidate;
+    }
+}
@@ -0,0 +1,90 @@
+package com.revcart.deliveryservice.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel of delivery deadlines. A deadline goes into the slot of its tick; advancing
+ * the wheel visits only the slots of the ticks that passed and takes out what is due. Deadlines
+ * further away than one turn of the wheel share a slot with nearer ones and stay until their time.
+ * <p>
+ * Adding and advancing are O(1) per deadline, removing is linear in the size of one slot. Thread-safe.
+ */
+class DeadlineWheel {
+
+    record Deadline(String deliveryId, long deadlineMillis) {
+    }
+
+    private final long tickMillis;
+    private final List<Set<Deadline>> slots;
+    // Slot each deadline was put in
+    private final Map<String, Integer> slotById = new HashMap<>();
+    // Last tick whose slot has been visited; a tick is visited once it has fully passed
+    private long cursor;
+
+    DeadlineWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new LinkedHashSet<>());
+        }
+        this.cursor = nowMillis / tickMillis - 1;
+    }
+
+    /**
+     * Adds or moves a deadline; one that is already due fires on the next advance.
+     */
+    synchronized void add(Deadline deadline) {
+        remove(deadline.deliveryId());
+        // Past ticks are not visited again, so an overdue deadline goes to the next one
+        int slot = index(Math.max(deadline.deadlineMillis() / tickMillis, cursor + 1));
+        slots.get(slot).add(deadline);
+        slotById.put(deadline.deliveryId(), slot);
+    }
+
+    synchronized boolean remove(String deliveryId) {
+        Integer slot = slotById.remove(deliveryId);
+        if (slot == null) {
+            return false;
+        }
+        slots.get(slot).removeIf(deadline -> deadline.deliveryId().equals(deliveryId));
+        return true;
+    }
+
+    /**
+     * Removes and returns the deadlines in every tick that ended by {@code nowMillis}, i.e. at most
+     * one tick late.
+     */
+    synchronized List<Deadline> advance(long nowMillis) {
+        long target = nowMillis / tickMillis - 1;
+        List<Deadline> due = new ArrayList<>();
+        // After a long pause every slot is visited once
+        long first = Math.max(cursor + 1, target - slots.size() + 1);
+        for (long tick = first; tick <= target; tick++) {
+            Iterator<Deadline> iterator = slots.get(index(tick)).iterator();
+            while (iterator.hasNext()) {
+                Deadline deadline = iterator.next();
+                if (deadline.deadlineMillis() <= nowMillis) {
+                    iterator.remove();
+                    slotById.remove(deadline.deliveryId());
+                    due.add(deadline);
+                }
+            }
+        }
+        cursor = Math.max(cursor, target);
+        return due;
+    }
+
+    synchronized int size() {
+        return slotById.size();
+    }
+
+    private int index(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+}
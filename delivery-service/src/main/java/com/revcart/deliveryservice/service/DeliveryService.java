@@ -5,13 +5,13 @@ import com.revcart.deliveryservice.client.OrderServiceClient;
 import com.revcart.deliveryservice.dto.*;
 import com.revcart.deliveryservice.entity.Delivery;
 import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
-import com.revcart.deliveryservice.entity.DeliveryTrackingLog;
 import com.revcart.deliveryservice.exception.BadRequestException;
 import com.revcart.deliveryservice.exception.ResourceNotFoundException;
 import com.revcart.deliveryservice.repository.DeliveryRepository;
-import com.revcart.deliveryservice.repository.DeliveryTrackingLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,9 +25,15 @@ import java.util.stream.Collectors;
 public class DeliveryService {
 
     private final DeliveryRepository deliveryRepository;
-    private final DeliveryTrackingLogRepository trackingLogRepository;
+    private final TrackingHistoryService trackingHistoryService;
     private final OrderServiceClient orderServiceClient;
     private final NotificationServiceClient notificationServiceClient;
+    private final DispatchService dispatchService;
+    private final Geocoder geocoder;
+    private final RouteService routeService;
+    private final AgentEventStream agentEventStream;
+    private final SlaMonitor slaMonitor;
+    private final EtaService etaService;
 
     // ---------------- CORE OPERATIONS ----------------
 
@@ -37,24 +43,51 @@ public class DeliveryService {
             throw new BadRequestException("Delivery already assigned for order: " + request.getOrderId());
         }
 
+        GeoJsonPoint destination = geocoder.locate(request.getLatitude(), request.getLongitude(),
+                request.getZipCode(), request.getCity());
+        Long agentId = request.getAgentId();
+        if (agentId == null) {
+            agentId = dispatchService.assign(destination).orElse(null);
+            if (agentId == null) {
+                log.warn("No delivery agent available for order: {}", request.getOrderId());
+            }
+        } else {
+            dispatchService.reserved(agentId);
+        }
+
         Delivery delivery = new Delivery();
         delivery.setOrderId(request.getOrderId());
         delivery.setUserId(request.getUserId());
-        delivery.setAgentId(request.getAgentId());
+        delivery.setAgentId(agentId);
         delivery.setStatus(DeliveryStatus.ASSIGNED);
-        delivery.setEstimatedDeliveryDate(request.getEstimatedDeliveryDate());
+        delivery.setCity(request.getCity());
+        delivery.setZipCode(request.getZipCode());
+        delivery.setDestination(destination);
+        // Promise the learned p90 transit time unless the caller set a date
+        delivery.setEstimatedDeliveryDate(request.getEstimatedDeliveryDate() != null
+                ? request.getEstimatedDeliveryDate()
+                : etaService.estimate(request.getZipCode(), request.getCity()).getP90DeliveryDate());
         delivery.setCreatedAt(LocalDateTime.now());
         delivery.setUpdatedAt(LocalDateTime.now());
 
-        delivery = deliveryRepository.save(delivery);
+        try {
+            delivery = deliveryRepository.save(delivery);
+        } catch (DuplicateKeyException e) {
+            dispatchService.release(agentId);
+            throw new BadRequestException("Delivery already assigned for order: " + request.getOrderId());
+        }
 
         addTrackingLog(delivery, DeliveryStatus.ASSIGNED, null, "Delivery agent assigned");
+        routeService.onAssigned(delivery);
+        slaMonitor.track(delivery);
 
         // Notify customer that a delivery agent has been assigned
         sendNotification(request.getOrderId(), request.getUserId(), "ASSIGNED");
 
         log.info("Delivery assigned: {} for order: {}", delivery.getId(), request.getOrderId());
-        return DeliveryDto.fromEntity(delivery);
+        DeliveryDto dto = DeliveryDto.fromEntity(delivery);
+        agentEventStream.publish(agentId, "assigned", dto);
+        return dto;
     }
 
     @Transactional
@@ -63,6 +96,9 @@ public class DeliveryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found for order: " + orderId));
 
         DeliveryStatus newStatus = DeliveryStatus.valueOf(request.getStatus());
+        if (DispatchService.OPEN_STATUSES.contains(delivery.getStatus()) && !DispatchService.OPEN_STATUSES.contains(newStatus)) {
+            dispatchService.release(delivery.getAgentId());
+        }
         delivery.setStatus(newStatus);
         delivery.setUpdatedAt(LocalDateTime.now());
 
@@ -74,9 +110,18 @@ public class DeliveryService {
 
         delivery = deliveryRepository.save(delivery);
         addTrackingLog(delivery, newStatus, request.getLocation(), request.getMessage());
+        routeService.onStatusChanged(delivery.getAgentId(), orderId, newStatus);
+        if (!DispatchService.OPEN_STATUSES.contains(newStatus)) {
+            slaMonitor.onClosed(delivery);
+        }
+        if (newStatus == DeliveryStatus.DELIVERED) {
+            etaService.onDelivered(delivery);
+        }
 
         log.info("Delivery status updated: order={}, status={}", orderId, newStatus);
-        return DeliveryDto.fromEntity(delivery);
+        DeliveryDto dto = DeliveryDto.fromEntity(delivery);
+        agentEventStream.publish(delivery.getAgentId(), "status", dto);
+        return dto;
     }
 
     public DeliveryDto getDeliveryByOrderId(Long orderId) {
@@ -89,10 +134,7 @@ public class DeliveryService {
         Delivery delivery = deliveryRepository.findByOrderId(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found for order: " + orderId));
 
-        return trackingLogRepository.findByDeliveryIdOrderByTimestampDesc(delivery.getId())
-                .stream()
-                .map(TrackingLogDto::fromEntity)
-                .collect(Collectors.toList());
+        return trackingHistoryService.getHistory(delivery.getId());
     }
 
     public List<DeliveryDto> getUserDeliveries(Long userId) {
@@ -150,13 +192,7 @@ public class DeliveryService {
     // ---------------- INTERNAL HELPERS ----------------
 
     private void addTrackingLog(Delivery delivery, DeliveryStatus status, String location, String message) {
-        DeliveryTrackingLog log = new DeliveryTrackingLog();
-        log.setDelivery(delivery);
-        log.setStatus(status);
-        log.setLocation(location);
-        log.setMessage(message);
-        log.setTimestamp(LocalDateTime.now());
-        trackingLogRepository.save(log);
+        trackingHistoryService.append(delivery.getId(), status, location, message);
     }
 
     private void notifyOrderService(Long orderId, String status) {
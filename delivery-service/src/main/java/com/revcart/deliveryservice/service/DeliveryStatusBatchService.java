@@ -0,0 +1,296 @@
+package com.revcart.deliveryservice.service;
+
+import com.revcart.deliveryservice.client.NotificationServiceClient;
+import com.revcart.deliveryservice.client.OrderServiceClient;
+import com.revcart.deliveryservice.dto.BatchStatusUpdateResult;
+import com.revcart.deliveryservice.dto.DeliveryDto;
+import com.revcart.deliveryservice.dto.NotificationRequest;
+import com.revcart.deliveryservice.dto.StatusUpdateItem;
+import com.revcart.deliveryservice.dto.StatusUpdateResult;
+import com.revcart.deliveryservice.entity.Delivery;
+import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
+import com.revcart.deliveryservice.entity.TrackingEvent;
+import com.revcart.deliveryservice.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies many delivery status changes at once, e.g. a warehouse handing hundreds of parcels to
+ * agents.
+ * <p>
+ * All deliveries are read with one query and changed in memory in request order, so an order
+ * listed twice ends in its last status and gets a tracking event for each item. Deliveries are then
+ * written with one unordered bulk update and tracking events with one bulk upsert. Completed
+ * deliveries go to order-service as one status batch and to notification-service as one
+ * notification batch. Every item gets its own result; an invalid item or a failed write affects
+ * only the items of that delivery.
+ * <p>
+ * Each delivery is only written if its status and updatedAt are still those that were read, so a
+ * change made meanwhile (e.g. a single status update) is not overwritten; the items of that
+ * delivery fail with a conflict and can be sent again.
+ */
+@Service
+@Slf4j
+public class DeliveryStatusBatchService {
+
+    private final MongoTemplate mongoTemplate;
+    private final TrackingHistoryService trackingHistoryService;
+    private final OrderServiceClient orderServiceClient;
+    private final NotificationServiceClient notificationServiceClient;
+    private final DispatchService dispatchService;
+    private final RouteService routeService;
+    private final SlaMonitor slaMonitor;
+    private final AgentEventStream agentEventStream;
+    private final EtaService etaService;
+    private final int maxSize;
+
+    public DeliveryStatusBatchService(MongoTemplate mongoTemplate,
+                                      TrackingHistoryService trackingHistoryService,
+                                      OrderServiceClient orderServiceClient,
+                                      NotificationServiceClient notificationServiceClient,
+                                      DispatchService dispatchService,
+                                      RouteService routeService,
+                                      SlaMonitor slaMonitor,
+                                      AgentEventStream agentEventStream,
+                                      EtaService etaService,
+                                      @Value("${delivery.batch.max-size:1000}") int maxSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.trackingHistoryService = trackingHistoryService;
+        this.orderServiceClient = orderServiceClient;
+        this.notificationServiceClient = notificationServiceClient;
+        this.dispatchService = dispatchService;
+        this.routeService = routeService;
+        this.slaMonitor = slaMonitor;
+        this.agentEventStream = agentEventStream;
+        this.etaService = etaService;
+        this.maxSize = maxSize;
+    }
+
+    public BatchStatusUpdateResult apply(List<StatusUpdateItem> items) {
+        if (items.size() > maxSize) {
+            throw new BadRequestException("At most " + maxSize + " status updates per batch");
+        }
+        StatusUpdateResult[] results = new StatusUpdateResult[items.size()];
+        List<Long> orderIds = items.stream().map(StatusUpdateItem::getOrderId).filter(Objects::nonNull).distinct().toList();
+        Map<Long, Delivery> deliveries = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            mongoTemplate.find(Query.query(Criteria.where("orderId").in(orderIds)), Delivery.class)
+                    .forEach(delivery -> deliveries.put(delivery.getOrderId(), delivery));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Change> changes = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            StatusUpdateItem item = items.get(i);
+            DeliveryStatus status = parseStatus(item.getStatus());
+            Delivery delivery = item.getOrderId() != null ? deliveries.get(item.getOrderId()) : null;
+            if (item.getOrderId() == null) {
+                results[i] = failure(item, "orderId is required");
+            } else if (status == null) {
+                results[i] = failure(item, "Invalid status: " + item.getStatus());
+            } else if (delivery == null) {
+                results[i] = failure(item, "Delivery not found for order: " + item.getOrderId());
+            } else {
+                Change change = changes.computeIfAbsent(delivery.getId(),
+                        id -> new Change(delivery, delivery.getStatus(), delivery.getUpdatedAt()));
+                delivery.setStatus(status);
+                delivery.setUpdatedAt(now);
+                if (status == DeliveryStatus.DELIVERED) {
+                    delivery.setActualDeliveryDate(now);
+                }
+                change.events.add(new TrackingEvent(status, item.getLocation(), item.getMessage(), now));
+                change.items.add(i);
+            }
+        }
+
+        Map<String, String> writeErrors = write(new ArrayList<>(changes.values()), now);
+
+        Map<String, List<TrackingEvent>> events = new LinkedHashMap<>();
+        List<Long> delivered = new ArrayList<>();
+        List<NotificationRequest> notifications = new ArrayList<>();
+        for (Change change : changes.values()) {
+            Delivery delivery = change.delivery;
+            String error = writeErrors.get(delivery.getId());
+            for (int index : change.items) {
+                results[index] = error != null
+                        ? failure(items.get(index), error)
+                        : StatusUpdateResult.builder()
+                                .orderId(delivery.getOrderId())
+                                .status(items.get(index).getStatus())
+                                .success(true)
+                                .trackingRecorded(true)
+                                .build();
+            }
+            if (error != null) {
+                continue;
+            }
+            events.put(delivery.getId(), change.events);
+            afterWrite(change.before, delivery);
+            if (delivery.getStatus() == DeliveryStatus.DELIVERED && change.before != DeliveryStatus.DELIVERED) {
+                delivered.add(delivery.getOrderId());
+                etaService.onDelivered(delivery);
+                if (delivery.getUserId() != null) {
+                    notifications.add(new NotificationRequest(delivery.getUserId(), "ORDER_DELIVERED",
+                            "Your order #" + delivery.getOrderId() + " has been delivered"));
+                }
+            }
+        }
+
+        try {
+            trackingHistoryService.appendAll(events);
+        } catch (Exception e) {
+            // The statuses are written; the items still succeed but say their history is missing
+            log.error("❌ Failed to record tracking events for {} deliveries: {}", events.size(), e.getMessage());
+            String warning = "Status updated but tracking history not recorded: " + e.getMessage();
+            for (StatusUpdateResult result : results) {
+                if (result.isSuccess()) {
+                    result.setTrackingRecorded(false);
+                    result.setError(warning);
+                }
+            }
+        }
+        notifyDownstream(delivered, notifications);
+
+        int updated = (int) Arrays.stream(results).filter(StatusUpdateResult::isSuccess).count();
+        log.info("Delivery status batch applied: {} of {} items, {} deliveries completed", updated, items.size(), delivered.size());
+        return BatchStatusUpdateResult.builder()
+                .updated(updated)
+                .failed(items.size() - updated)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    // Returns the write error per delivery id
+    private Map<String, String> write(List<Change> changes, LocalDateTime now) {
+        Map<String, String> errors = new HashMap<>();
+        if (changes.isEmpty()) {
+            return errors;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Delivery.class);
+        for (Change change : changes) {
+            Delivery delivery = change.delivery;
+            Update update = new Update()
+                    .set("status", delivery.getStatus())
+                    .set("updatedAt", delivery.getUpdatedAt());
+            if (delivery.getStatus() == DeliveryStatus.DELIVERED) {
+                update.set("actualDeliveryDate", delivery.getActualDeliveryDate());
+            }
+            bulk.updateOne(Query.query(Criteria.where("id").is(delivery.getId())
+                    .and("status").is(change.before)
+                    .and("updatedAt").is(change.beforeUpdatedAt)), update);
+        }
+        int matched;
+        try {
+            matched = bulk.execute().getMatchedCount();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> errors.put(changes.get(error.getIndex()).delivery.getId(), error.getMessage()));
+            log.error("❌ {} of {} delivery updates failed", e.getErrors().size(), changes.size());
+            matched = e.getResult().getMatchedCount();
+        }
+        if (matched + errors.size() < changes.size()) {
+            markConflicts(changes, now, errors);
+        }
+        return errors;
+    }
+
+    // The bulk result only has counts, so the deliveries that did not take this batch's write are looked up
+    private void markConflicts(List<Change> changes, LocalDateTime now, Map<String, String> errors) {
+        List<String> ids = changes.stream().map(change -> change.delivery.getId()).filter(id -> !errors.containsKey(id)).toList();
+        Query written = Query.query(Criteria.where("id").in(ids).and("updatedAt").is(now));
+        written.fields().include("id");
+        Set<String> applied = new HashSet<>();
+        mongoTemplate.find(written, Delivery.class).forEach(delivery -> applied.add(delivery.getId()));
+        int conflicts = 0;
+        for (String id : ids) {
+            if (!applied.contains(id)) {
+                errors.put(id, "Conflict: delivery was changed concurrently, send the item again");
+                conflicts++;
+            }
+        }
+        log.warn("{} of {} delivery updates lost to concurrent changes", conflicts, changes.size());
+    }
+
+    // Same bookkeeping as DeliveryService.updateStatus
+    private void afterWrite(DeliveryStatus before, Delivery delivery) {
+        boolean closed = !DispatchService.OPEN_STATUSES.contains(delivery.getStatus());
+        if (DispatchService.OPEN_STATUSES.contains(before) && closed) {
+            dispatchService.release(delivery.getAgentId());
+        }
+        routeService.onStatusChanged(delivery.getAgentId(), delivery.getOrderId(), delivery.getStatus());
+        if (closed) {
+            slaMonitor.onClosed(delivery);
+        }
+        agentEventStream.publish(delivery.getAgentId(), "status", DeliveryDto.fromEntity(delivery));
+    }
+
+    private void notifyDownstream(List<Long> delivered, List<NotificationRequest> notifications) {
+        if (!delivered.isEmpty()) {
+            try {
+                orderServiceClient.updateOrderStatuses("DELIVERED", delivered);
+                log.info("Order service notified: {} orders DELIVERED", delivered.size());
+            } catch (Exception e) {
+                log.error("Failed to notify order service for {} orders: {}", delivered.size(), e.getMessage());
+            }
+        }
+        if (!notifications.isEmpty()) {
+            try {
+                notificationServiceClient.createNotifications(notifications);
+            } catch (Exception e) {
+                log.error("Failed to send {} notifications: {}", notifications.size(), e.getMessage());
+            }
+        }
+    }
+
+    private static DeliveryStatus parseStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return DeliveryStatus.valueOf(status.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static StatusUpdateResult failure(StatusUpdateItem item, String error) {
+        return StatusUpdateResult.builder()
+                .orderId(item.getOrderId())
+                .status(item.getStatus())
+                .success(false)
+                .error(error)
+                .build();
+    }
+
+    private static final class Change {
+        private final Delivery delivery;
+        private final DeliveryStatus before;
+        private final LocalDateTime beforeUpdatedAt;
+        private final List<TrackingEvent> events = new ArrayList<>();
+        private final List<Integer> items = new ArrayList<>();
+
+        Change(Delivery delivery, DeliveryStatus before, LocalDateTime beforeUpdatedAt) {
+            this.delivery = delivery;
+            this.before = before;
+            this.beforeUpdatedAt = beforeUpdatedAt;
+        }
+    }
+}
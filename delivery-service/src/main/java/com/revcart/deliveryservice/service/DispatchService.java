@@ -0,0 +1,288 @@
+package com.revcart.deliveryservice.service;
+
+import com.revcart.deliveryservice.client.UserServiceClient;
+import com.revcart.deliveryservice.dto.DispatchCandidateDto;
+import com.revcart.deliveryservice.dto.UserDto;
+import com.revcart.deliveryservice.entity.AgentLocation;
+import com.revcart.deliveryservice.entity.Delivery;
+import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks a delivery agent for a new delivery.
+ * <p>
+ * Candidates are the k nearest agents to the destination in an {@link AgentGridIndex} fed by
+ * agent location pings, limited to agents seen within {@code delivery.dispatch.max-location-age}
+ * and below {@code max-load} active deliveries. They are ranked by distance plus
+ * {@code load-penalty-km} per active delivery, and the best one whose load can still be raised is
+ * reserved. When the in-memory index has no candidate (e.g. right after a restart) the same
+ * search runs against the 2dsphere index on {@code agent_locations}.
+ * <p>
+ * Anyone can post a location, so only users whose role in user-service is DELIVERY_AGENT are
+ * indexed or returned. Roles are cached for {@code role-cache-ttl}; a failed lookup is not cached
+ * and keeps the user out until a later ping succeeds. Expired roles are dropped with stale agents.
+ * <p>
+ * Loads are counted in memory and re-read from {@code deliveries} periodically, which also
+ * corrects drift from assignments made by other instances.
+ */
+@Service
+@Slf4j
+public class DispatchService {
+
+    static final List<DeliveryStatus> OPEN_STATUSES = List.of(
+            DeliveryStatus.ASSIGNED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT, DeliveryStatus.OUT_FOR_DELIVERY);
+
+    private static final String AGENT_ROLE = "DELIVERY_AGENT";
+
+    private final MongoTemplate mongoTemplate;
+    private final UserServiceClient userServiceClient;
+    private final AgentGridIndex index;
+    private final int candidates;
+    private final double maxRadiusKm;
+    private final int maxLoad;
+    private final double loadPenaltyKm;
+    private final Duration maxLocationAge;
+    private final Duration roleCacheTtl;
+    private final Map<Long, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private final Map<Long, RoleCheck> roles = new ConcurrentHashMap<>();
+
+    private record RoleCheck(boolean agent, long expiresAtMillis) {
+    }
+
+    public DispatchService(MongoTemplate mongoTemplate,
+                           UserServiceClient userServiceClient,
+                           @Value("${delivery.dispatch.cell-km:1.0}") double cellKm,
+                           @Value("${delivery.dispatch.candidates:8}") int candidates,
+                           @Value("${delivery.dispatch.max-radius-km:25}") double maxRadiusKm,
+                           @Value("${delivery.dispatch.max-load:10}") int maxLoad,
+                           @Value("${delivery.dispatch.load-penalty-km:2.0}") double loadPenaltyKm,
+                           @Value("${delivery.dispatch.max-location-age:PT10M}") Duration maxLocationAge,
+                           @Value("${delivery.dispatch.role-cache-ttl:PT10M}") Duration roleCacheTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.userServiceClient = userServiceClient;
+        this.index = new AgentGridIndex(cellKm);
+        this.candidates = candidates;
+        this.maxRadiusKm = maxRadiusKm;
+        this.maxLoad = maxLoad;
+        this.loadPenaltyKm = loadPenaltyKm;
+        this.maxLocationAge = maxLocationAge;
+        this.roleCacheTtl = roleCacheTtl;
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            Query recent = Query.query(Criteria.where("updatedAt").gte(LocalDateTime.now().minus(maxLocationAge)));
+            mongoTemplate.find(recent, AgentLocation.class).forEach(this::onLocation);
+            refreshLoads();
+            log.info("✅ Dispatch index loaded with {} agents", index.size());
+        } catch (Exception e) {
+            log.error("❌ Failed to warm up dispatch index: {}", e.getMessage());
+        }
+    }
+
+    public void onLocation(AgentLocation location) {
+        if (!isDeliveryAgent(location.getAgentId())) {
+            // Also drops an agent whose role was taken away since it was indexed
+            if (location.getAgentId() != null) {
+                index.remove(location.getAgentId());
+            }
+            return;
+        }
+        index.update(location.getAgentId(), location.getPosition().getY(), location.getPosition().getX(),
+                toMillis(location.getUpdatedAt()));
+    }
+
+    /**
+     * Chooses and reserves an agent for a delivery to {@code destination} (null if the address
+     * could not be placed, in which case the least loaded active agent is used).
+     */
+    public Optional<Long> assign(GeoJsonPoint destination) {
+        List<DispatchCandidateDto> ranked = destination != null
+                ? rank(destination.getY(), destination.getX(), candidates)
+                : leastLoaded();
+        for (DispatchCandidateDto candidate : ranked) {
+            if (tryReserve(candidate.getAgentId())) {
+                return Optional.of(candidate.getAgentId());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Counts a delivery whose agent was chosen by the caller.
+     */
+    public void reserved(Long agentId) {
+        if (agentId != null) {
+            loads.computeIfAbsent(agentId, id -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    public void release(Long agentId) {
+        if (agentId != null) {
+            AtomicInteger load = loads.get(agentId);
+            if (load != null) {
+                load.updateAndGet(value -> Math.max(0, value - 1));
+            }
+        }
+    }
+
+    /**
+     * Candidates for a point, best first; falls back to Mongo when the in-memory index has none.
+     */
+    public List<DispatchCandidateDto> rank(double latitude, double longitude, int k) {
+        long freshAfter = System.currentTimeMillis() - maxLocationAge.toMillis();
+        List<AgentGridIndex.Candidate> nearest = index.nearest(latitude, longitude, k, maxRadiusKm,
+                entry -> entry.seenAtMillis() >= freshAfter && load(entry.agentId()) < maxLoad);
+        if (nearest.isEmpty()) {
+            nearest = nearestFromStore(latitude, longitude, k);
+        }
+        return nearest.stream()
+                .map(this::toCandidate)
+                .sorted(Comparator.comparingDouble(DispatchCandidateDto::getScore))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.dispatch.load-refresh-interval-ms:60000}",
+            initialDelayString = "${delivery.dispatch.load-refresh-interval-ms:60000}")
+    public void refreshLoads() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("agentId").ne(null).and("status").in(OPEN_STATUSES)),
+                Aggregation.group("agentId").count().as("load"));
+        Map<Long, Integer> counted = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Delivery.class, Document.class)) {
+            counted.put(((Number) row.get("_id")).longValue(), ((Number) row.get("load")).intValue());
+        }
+        // Assignments racing with this refresh may be off by one until the next one
+        loads.forEach((agentId, load) -> load.set(counted.getOrDefault(agentId, 0)));
+        counted.forEach((agentId, load) -> loads.computeIfAbsent(agentId, id -> new AtomicInteger()).set(load));
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.dispatch.sweep-interval-ms:60000}")
+    public void sweepStaleAgents() {
+        int removed = index.removeSeenBefore(System.currentTimeMillis() - maxLocationAge.toMillis());
+        if (removed > 0) {
+            log.debug("Removed {} stale agents from the dispatch index", removed);
+        }
+        long now = System.currentTimeMillis();
+        roles.values().removeIf(check -> check.expiresAtMillis() <= now);
+    }
+
+    private List<AgentGridIndex.Candidate> nearestFromStore(double latitude, double longitude, int k) {
+        Query query = Query.query(Criteria.where("position")
+                        .nearSphere(new GeoJsonPoint(longitude, latitude))
+                        .maxDistance(maxRadiusKm * 1000)
+                        .and("updatedAt").gte(LocalDateTime.now().minus(maxLocationAge)))
+                .limit(k * 4);
+        List<AgentGridIndex.Candidate> result = new ArrayList<>();
+        for (AgentLocation location : mongoTemplate.find(query, AgentLocation.class)) {
+            if (!isDeliveryAgent(location.getAgentId())) {
+                continue;
+            }
+            onLocation(location);
+            if (result.size() < k && load(location.getAgentId()) < maxLoad) {
+                double lat = location.getPosition().getY();
+                double lng = location.getPosition().getX();
+                result.add(new AgentGridIndex.Candidate(location.getAgentId(), lat, lng,
+                        AgentGridIndex.distanceKm(latitude, longitude, lat, lng)));
+            }
+        }
+        return result;
+    }
+
+    private List<DispatchCandidateDto> leastLoaded() {
+        long freshAfter = System.currentTimeMillis() - maxLocationAge.toMillis();
+        List<DispatchCandidateDto> result = new ArrayList<>();
+        for (AgentGridIndex.Entry entry : index.entries()) {
+            int load = load(entry.agentId());
+            if (entry.seenAtMillis() >= freshAfter && load < maxLoad) {
+                result.add(DispatchCandidateDto.builder()
+                        .agentId(entry.agentId())
+                        .latitude(entry.latitude())
+                        .longitude(entry.longitude())
+                        .load(load)
+                        .score((double) load)
+                        .build());
+            }
+        }
+        result.sort(Comparator.comparingDouble(DispatchCandidateDto::getScore));
+        return result.size() > candidates ? result.subList(0, candidates) : result;
+    }
+
+    private DispatchCandidateDto toCandidate(AgentGridIndex.Candidate candidate) {
+        int load = load(candidate.agentId());
+        return DispatchCandidateDto.builder()
+                .agentId(candidate.agentId())
+                .latitude(candidate.latitude())
+                .longitude(candidate.longitude())
+                .distanceKm(candidate.distanceKm())
+                .load(load)
+                .score(candidate.distanceKm() + loadPenaltyKm * load)
+                .build();
+    }
+
+    private boolean tryReserve(long agentId) {
+        AtomicInteger load = loads.computeIfAbsent(agentId, id -> new AtomicInteger());
+        while (true) {
+            int current = load.get();
+            if (current >= maxLoad) {
+                return false;
+            }
+            if (load.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean isDeliveryAgent(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        RoleCheck cached = roles.get(userId);
+        if (cached != null && cached.expiresAtMillis() > now) {
+            return cached.agent();
+        }
+        UserDto user;
+        try {
+            user = userServiceClient.getUserById(userId).getData();
+        } catch (Exception e) {
+            log.warn("Could not check role of user {}: {}", userId, e.getMessage());
+            return false;
+        }
+        boolean agent = user != null && AGENT_ROLE.equals(user.getRole());
+        roles.put(userId, new RoleCheck(agent, now + roleCacheTtl.toMillis()));
+        return agent;
+    }
+
+    private int load(long agentId) {
+        AtomicInteger load = loads.get(agentId);
+        return load != null ? load.get() : 0;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : System.currentTimeMillis();
+    }
+}
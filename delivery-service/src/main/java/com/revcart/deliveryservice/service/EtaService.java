@@ -0,0 +1,311 @@
+package com.revcart.deliveryservice.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.revcart.deliveryservice.dto.EtaDto;
+import com.revcart.deliveryservice.entity.Delivery;
+import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
+import com.revcart.deliveryservice.entity.EtaSketch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Estimates delivery times from the transit times (assignment to delivery) of completed
+ * deliveries.
+ * <p>
+ * Each zip code, each city and all deliveries together have a {@link QuantileSketch}, updated
+ * once per delivered order. The p50/p90 of a sketch are recomputed on that update and read from a
+ * volatile field, so an estimate costs a few map lookups. An estimate uses the zip code when it
+ * has {@code delivery.eta.min-samples} deliveries, else the city, else everything, else
+ * {@code default-transit}.
+ * <p>
+ * Every {@code flush-interval-ms} the deliveries counted since the last flush are added to
+ * {@code eta_sketches} with {@code $inc} on their buckets, so instances sum their counts instead of
+ * overwriting each other; the flushed sketches are then read back with the other instances'
+ * counts included. All sketches are read back every {@code reload-interval-ms} and on startup. If
+ * none exist yet they are built once from the delivered orders on record.
+ */
+@Service
+@Slf4j
+public class EtaService {
+
+    private static final String ALL = "all";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final double relativeAccuracy;
+    private final int minSamples;
+    private final Duration defaultTransit;
+    private final Map<String, Model> models = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public EtaService(MongoTemplate mongoTemplate,
+                      @Value("${delivery.eta.relative-accuracy:0.01}") double relativeAccuracy,
+                      @Value("${delivery.eta.min-samples:20}") int minSamples,
+                      @Value("${delivery.eta.default-transit:P3D}") Duration defaultTransit) {
+        this.mongoTemplate = mongoTemplate;
+        this.relativeAccuracy = relativeAccuracy;
+        this.minSamples = minSamples;
+        this.defaultTransit = defaultTransit;
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            long dropped = mongoTemplate.remove(
+                    Query.query(Criteria.where("relativeAccuracy").ne(relativeAccuracy)), EtaSketch.class).getDeletedCount();
+            if (!mongoTemplate.exists(new Query(), EtaSketch.class)) {
+                rebuildFromHistory();
+            }
+            reload();
+            log.info("✅ ETA sketches loaded: {} ({} dropped for a different accuracy)", models.size(), dropped);
+        } catch (Exception e) {
+            log.error("❌ Failed to load ETA sketches: {}", e.getMessage());
+        }
+    }
+
+    public void onDelivered(Delivery delivery) {
+        if (delivery.getCreatedAt() == null || delivery.getActualDeliveryDate() == null) {
+            return;
+        }
+        double minutes = Duration.between(delivery.getCreatedAt(), delivery.getActualDeliveryDate()).toSeconds() / 60.0;
+        if (minutes < 0) {
+            return;
+        }
+        record(zipKey(delivery.getZipCode()), minutes);
+        record(cityKey(delivery.getCity()), minutes);
+        record(ALL, minutes);
+    }
+
+    public EtaDto estimate(String zipCode, String city) {
+        String basis = "DEFAULT";
+        Estimate estimate = null;
+        for (String key : new String[]{zipKey(zipCode), cityKey(city), ALL}) {
+            Model model = key != null ? models.get(key) : null;
+            if (model != null && model.estimate.samples() >= minSamples) {
+                estimate = model.estimate;
+                basis = key.equals(ALL) ? "ALL" : key.substring(0, key.indexOf(':')).toUpperCase(Locale.ROOT);
+                break;
+            }
+        }
+        double p50 = estimate != null ? estimate.p50() : defaultTransit.toMinutes();
+        double p90 = estimate != null ? estimate.p90() : defaultTransit.toMinutes();
+        LocalDateTime now = LocalDateTime.now();
+        return EtaDto.builder()
+                .zipCode(zipCode)
+                .city(city)
+                .basis(basis)
+                .samples(estimate != null ? estimate.samples() : 0)
+                .p50Minutes(p50)
+                .p90Minutes(p90)
+                .p50DeliveryDate(now.plusSeconds((long) (p50 * 60)))
+                .p90DeliveryDate(now.plusSeconds((long) (p90 * 60)))
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.eta.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        List<String> keys = new ArrayList<>(dirty);
+        if (keys.isEmpty()) {
+            return;
+        }
+        keys.forEach(dirty::remove);
+        List<String> written = new ArrayList<>(keys.size());
+        List<Map<Integer, Long>> deltas = new ArrayList<>(keys.size());
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EtaSketch.class);
+        for (String key : keys) {
+            Map<Integer, Long> delta = models.get(key).drain();
+            if (delta.isEmpty()) {
+                continue;
+            }
+            Update update = new Update()
+                    .setOnInsert("relativeAccuracy", relativeAccuracy)
+                    .set("updatedAt", now);
+            delta.forEach((bucket, n) -> update.inc("buckets." + bucket, n));
+            update.inc("samples", delta.values().stream().mapToLong(Long::longValue).sum());
+            // An upsert that races another instance's insert of the same key fails and is retried next flush
+            ops.upsert(Query.query(Criteria.where("_id").is(key).and("relativeAccuracy").is(relativeAccuracy)), update);
+            written.add(key);
+            deltas.add(delta);
+        }
+        if (written.isEmpty()) {
+            return;
+        }
+        try {
+            ops.execute();
+            log.debug("Flushed {} ETA sketches", written.size());
+        } catch (BulkOperationException e) {
+            Set<String> failed = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(written.get(error.getIndex()));
+                restore(written.get(error.getIndex()), deltas.get(error.getIndex()));
+            }
+            written.removeAll(failed);
+            log.error("❌ Failed to write {} of {} ETA sketches: {}", failed.size(), failed.size() + written.size(),
+                    e.getErrors().get(0).getMessage());
+        } catch (Exception e) {
+            for (int i = 0; i < written.size(); i++) {
+                restore(written.get(i), deltas.get(i));
+            }
+            log.error("❌ Failed to write {} ETA sketches: {}", written.size(), e.getMessage());
+            return;
+        }
+        load(Query.query(Criteria.where("_id").in(written)));
+    }
+
+    /**
+     * Replaces every sketch with the stored one, so counts flushed by other instances show up even
+     * for keys this instance never writes.
+     */
+    @Scheduled(initialDelayString = "${delivery.eta.reload-interval-ms:300000}",
+            fixedDelayString = "${delivery.eta.reload-interval-ms:300000}")
+    public synchronized void reload() {
+        try {
+            load(new Query());
+        } catch (Exception e) {
+            log.error("❌ Failed to reload ETA sketches: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void rebuildFromHistory() {
+        Query delivered = Query.query(Criteria.where("status").is(DeliveryStatus.DELIVERED));
+        delivered.fields().include("zipCode", "city", "createdAt", "actualDeliveryDate");
+        try (Stream<Delivery> deliveries = mongoTemplate.stream(delivered, Delivery.class)) {
+            deliveries.forEach(this::onDelivered);
+        }
+        // Only inserts, so an instance rebuilding at the same time cannot double the counts
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EtaSketch.class);
+        models.forEach((key, model) -> {
+            Map<Integer, Long> counts = model.drain();
+            ops.upsert(Query.query(Criteria.where("_id").is(key)), new Update()
+                    .setOnInsert("relativeAccuracy", relativeAccuracy)
+                    .setOnInsert("buckets", bucketsDocument(counts))
+                    .setOnInsert("samples", counts.values().stream().mapToLong(Long::longValue).sum())
+                    .setOnInsert("updatedAt", now));
+        });
+        dirty.clear();
+        if (models.isEmpty()) {
+            return;
+        }
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+        log.info("Built {} ETA sketches from delivery history", models.size());
+    }
+
+    private void load(Query query) {
+        for (EtaSketch stored : mongoTemplate.find(query, EtaSketch.class)) {
+            QuantileSketch sketch = new QuantileSketch(relativeAccuracy);
+            if (stored.getBuckets() != null) {
+                stored.getBuckets().forEach((bucket, n) -> sketch.add(Integer.parseInt(bucket), n));
+            }
+            models.computeIfAbsent(stored.getId(), k -> new Model(new QuantileSketch(relativeAccuracy))).reset(sketch);
+        }
+    }
+
+    private void restore(String key, Map<Integer, Long> delta) {
+        models.get(key).restore(delta);
+        dirty.add(key);
+    }
+
+    private void record(String key, double minutes) {
+        if (key == null) {
+            return;
+        }
+        models.computeIfAbsent(key, k -> new Model(new QuantileSketch(relativeAccuracy))).add(minutes);
+        dirty.add(key);
+    }
+
+    private static String zipKey(String zipCode) {
+        return zipCode != null && !zipCode.isBlank() ? "zip:" + zipCode.trim() : null;
+    }
+
+    private static String cityKey(String city) {
+        return city != null && !city.isBlank() ? "city:" + city.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private record Estimate(long samples, double p50, double p90) {
+    }
+
+    private static Document bucketsDocument(Map<Integer, Long> counts) {
+        Document buckets = new Document();
+        counts.forEach((bucket, n) -> buckets.put(String.valueOf(bucket), n));
+        return buckets;
+    }
+
+    /**
+     * The sketch as last read from {@code eta_sketches} plus the deliveries counted here since,
+     * which are also kept per bucket until a flush has added them to the stored sketch.
+     */
+    private static final class Model {
+        private QuantileSketch sketch;
+        private Map<Integer, Long> pending = new HashMap<>();
+        private volatile Estimate estimate = new Estimate(0, Double.NaN, Double.NaN);
+
+        Model(QuantileSketch sketch) {
+            this.sketch = sketch;
+            refresh();
+        }
+
+        synchronized void add(double minutes) {
+            int bucket = sketch.bucket(minutes);
+            sketch.add(bucket, 1);
+            pending.merge(bucket, 1L, Long::sum);
+            refresh();
+        }
+
+        synchronized Map<Integer, Long> drain() {
+            Map<Integer, Long> drained = pending;
+            pending = new HashMap<>();
+            return drained;
+        }
+
+        // Counts that failed to flush; the sketch already includes them
+        synchronized void restore(Map<Integer, Long> delta) {
+            delta.forEach((bucket, n) -> pending.merge(bucket, n, Long::sum));
+        }
+
+        synchronized void reset(QuantileSketch stored) {
+            pending.forEach(stored::add);
+            sketch = stored;
+            refresh();
+        }
+
+        private void refresh() {
+            estimate = new Estimate(sketch.count(), sketch.quantile(0.5), sketch.quantile(0.9));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.revcart.deliveryservice.service;
+
+import com.revcart.deliveryservice.dto.PostalZoneDto;
+import com.revcart.deliveryservice.entity.PostalZone;
+import com.revcart.deliveryservice.exception.BadRequestException;
+import com.revcart.deliveryservice.repository.PostalZoneRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Places delivery addresses on the map from the {@code postal_zones} reference data: by zip code,
+ * else by the centroid of the city's zones. The table is small and held in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class Geocoder {
+
+    private final PostalZoneRepository postalZoneRepository;
+
+    private volatile Map<String, GeoJsonPoint> byZipCode = Map.of();
+    private volatile Map<String, GeoJsonPoint> byCity = Map.of();
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${delivery.geocoding.refresh-interval-ms:600000}",
+            initialDelayString = "${delivery.geocoding.refresh-interval-ms:600000}")
+    public void reload() {
+        try {
+            List<PostalZone> zones = postalZoneRepository.findAll();
+            Map<String, GeoJsonPoint> zips = new HashMap<>();
+            Map<String, double[]> citySums = new HashMap<>();
+            for (PostalZone zone : zones) {
+                if (zone.getPosition() == null) {
+                    continue;
+                }
+                zips.put(zone.getZipCode(), zone.getPosition());
+                if (zone.getCity() != null) {
+                    double[] sum = citySums.computeIfAbsent(normalize(zone.getCity()), city -> new double[3]);
+                    sum[0] += zone.getPosition().getX();
+                    sum[1] += zone.getPosition().getY();
+                    sum[2]++;
+                }
+            }
+            Map<String, GeoJsonPoint> cities = new HashMap<>();
+            citySums.forEach((city, sum) -> cities.put(city, new GeoJsonPoint(sum[0] / sum[2], sum[1] / sum[2])));
+            byZipCode = zips;
+            byCity = cities;
+            log.debug("Geocoder loaded {} zones in {} cities", zips.size(), cities.size());
+        } catch (Exception e) {
+            log.error("❌ Failed to load postal zones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Explicit coordinates win; returns null if the address cannot be placed.
+     */
+    public GeoJsonPoint locate(Double latitude, Double longitude, String zipCode, String city) {
+        if (latitude != null && longitude != null) {
+            return new GeoJsonPoint(longitude, latitude);
+        }
+        GeoJsonPoint point = zipCode != null ? byZipCode.get(zipCode.trim()) : null;
+        if (point == null && city != null) {
+            point = byCity.get(normalize(city));
+        }
+        return point;
+    }
+
+    public int saveZones(List<PostalZoneDto> zones) {
+        List<PostalZone> entities = zones.stream()
+                .map(zone -> {
+                    if (zone.getZipCode() == null || zone.getLatitude() == null || zone.getLongitude() == null) {
+                        throw new BadRequestException("zipCode, latitude and longitude are required for every zone");
+                    }
+                    return new PostalZone(zone.getZipCode().trim(), zone.getCity(),
+                            new GeoJsonPoint(zone.getLongitude(), zone.getLatitude()));
+                })
+                .toList();
+        postalZoneRepository.saveAll(entities);
+        reload();
+        return entities.size();
+    }
+
+    private static String normalize(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,77 @@
+package com.revcart.deliveryservice.service;
+
+import java.util.Arrays;
+
+/**
+ * Streaming quantile sketch over logarithmic buckets: bucket {@code i} counts the values in
+ * {@code (gamma^(i-1), gamma^i]}, so any quantile comes back within {@code relativeAccuracy} of
+ * an actual value. Adding a value is O(1) and never revisits earlier ones; the bucket array only
+ * grows to span the range seen so far, which for transit times is a few hundred buckets at most.
+ * <p>
+ * Values below 1 are counted as 1. Not thread-safe.
+ */
+class QuantileSketch {
+
+    private final double gamma;
+    private final double logGamma;
+    // Bucket index of counts[0]
+    private int offset;
+    private long[] counts;
+    private long count;
+
+    QuantileSketch(double relativeAccuracy) {
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.counts = new long[0];
+    }
+
+    /**
+     * Index of the bucket counting {@code value}; never negative.
+     */
+    int bucket(double value) {
+        return (int) Math.ceil(Math.log(Math.max(1, value)) / logGamma);
+    }
+
+    void add(int bucket, long n) {
+        grow(bucket);
+        counts[bucket - offset] += n;
+        count += n;
+    }
+
+    /**
+     * Value at quantile {@code q} (0..1), or NaN when empty.
+     */
+    double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (Math.min(1, Math.max(0, q)) * (count - 1));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                // Midpoint of the bucket in relative terms
+                return 2 * Math.pow(gamma, i + offset) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, offset + counts.length - 1) / (gamma + 1);
+    }
+
+    long count() {
+        return count;
+    }
+
+    private void grow(int index) {
+        if (counts.length == 0) {
+            offset = index;
+            counts = new long[1];
+        } else if (index < offset) {
+            long[] grown = new long[counts.length + offset - index];
+            System.arraycopy(counts, 0, grown, offset - index, counts.length);
+            counts = grown;
+            offset = index;
+        } else if (index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, index - offset + 1);
+        }
+    }
+}
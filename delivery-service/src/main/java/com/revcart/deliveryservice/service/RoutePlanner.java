@@ -0,0 +1,125 @@
+package com.revcart.deliveryservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders stops into a short open path from a fixed start: nearest neighbour to build the path,
+ * then 2-opt segment reversals until no reversal helps or the time budget runs out. The budget is
+ * checked between passes over the path, so the result is always a complete, valid ordering.
+ * <p>
+ * Points are {latitude, longitude} pairs; index 0 of every array is the start.
+ */
+@Component
+public class RoutePlanner {
+
+    /**
+     * Returns the visiting order of {@code points[1..]} as indexes into {@code points}.
+     */
+    public List<Integer> plan(double[][] points, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        double[][] distances = distanceMatrix(points);
+        int n = points.length;
+        int[] path = new int[n];
+        boolean[] visited = new boolean[n];
+        visited[0] = true;
+        for (int position = 1; position < n; position++) {
+            int from = path[position - 1];
+            int next = -1;
+            for (int candidate = 1; candidate < n; candidate++) {
+                if (!visited[candidate] && (next < 0 || distances[from][candidate] < distances[from][next])) {
+                    next = candidate;
+                }
+            }
+            path[position] = next;
+            visited[next] = true;
+        }
+        twoOpt(path, distances, deadline);
+        return toStops(path);
+    }
+
+    /**
+     * Adds {@code points[points.length - 1]} to an existing order of the other points at its
+     * cheapest position, then improves the result within the budget.
+     */
+    public List<Integer> insert(double[][] points, List<Integer> order, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        double[][] distances = distanceMatrix(points);
+        int added = points.length - 1;
+        int[] path = new int[points.length];
+        for (int i = 0; i < order.size(); i++) {
+            path[i + 1] = order.get(i);
+        }
+        int length = order.size() + 1;
+
+        // Cost of putting the new point between path[i] and path[i + 1], or after the last stop
+        int bestAfter = length - 1;
+        double bestCost = distances[path[length - 1]][added];
+        for (int i = 0; i < length - 1; i++) {
+            double cost = distances[path[i]][added] + distances[added][path[i + 1]] - distances[path[i]][path[i + 1]];
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestAfter = i;
+            }
+        }
+        System.arraycopy(path, bestAfter + 1, path, bestAfter + 2, length - bestAfter - 1);
+        path[bestAfter + 1] = added;
+
+        twoOpt(path, distances, deadline);
+        return toStops(path);
+    }
+
+    // Reversing path[i..j] replaces edges (i-1, i) and (j, j+1) with (i-1, j) and (i, j+1);
+    // the path is open, so there is no edge after the last stop
+    private static void twoOpt(int[] path, double[][] d, long deadline) {
+        int n = path.length;
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = false;
+            for (int i = 1; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    double before = d[path[i - 1]][path[i]] + (j + 1 < n ? d[path[j]][path[j + 1]] : 0);
+                    double after = d[path[i - 1]][path[j]] + (j + 1 < n ? d[path[i]][path[j + 1]] : 0);
+                    if (after < before - 1e-9) {
+                        reverse(path, i, j);
+                        improved = true;
+                    }
+                }
+                if (System.nanoTime() >= deadline) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void reverse(int[] path, int from, int to) {
+        while (from < to) {
+            int swap = path[from];
+            path[from++] = path[to];
+            path[to--] = swap;
+        }
+    }
+
+    private static double[][] distanceMatrix(double[][] points) {
+        int n = points.length;
+        double[][] distances = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double distance = AgentGridIndex.distanceKm(points[i][0], points[i][1], points[j][0], points[j][1]);
+                distances[i][j] = distance;
+                distances[j][i] = distance;
+            }
+        }
+        return distances;
+    }
+
+    private static List<Integer> toStops(int[] path) {
+        List<Integer> stops = new ArrayList<>(path.length - 1);
+        for (int i = 1; i < path.length; i++) {
+            stops.add(path[i]);
+        }
+        return stops;
+    }
+}
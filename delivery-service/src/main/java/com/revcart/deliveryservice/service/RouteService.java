@@ -0,0 +1,219 @@
+package com.revcart.deliveryservice.service;
+
+import com.revcart.deliveryservice.dto.AgentRouteDto;
+import com.revcart.deliveryservice.dto.DeliveryDto;
+import com.revcart.deliveryservice.dto.RouteDto;
+import com.revcart.deliveryservice.dto.RouteStopDto;
+import com.revcart.deliveryservice.entity.AgentLocation;
+import com.revcart.deliveryservice.entity.Delivery;
+import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
+import com.revcart.deliveryservice.repository.DeliveryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a multi-stop route plan per agent over the agent's open deliveries.
+ * <p>
+ * A plan is built on first request (and when older than {@code delivery.routing.max-age}) from the
+ * agent's last known position, within {@code delivery.routing.budget-ms}. After that it is
+ * maintained incrementally: a new assignment is inserted at its cheapest position and locally
+ * improved within {@code incremental-budget-ms}, a delivered or cancelled stop is dropped. The
+ * ordered stops are cut into routes of at most {@code max-stops-per-route}.
+ * <p>
+ * Plans live in this instance only; an update handled by another instance shows up once the plan
+ * expires or is refreshed.
+ */
+@Service
+@Slf4j
+public class RouteService {
+
+    private final DeliveryRepository deliveryRepository;
+    private final AgentLocationService agentLocationService;
+    private final RoutePlanner routePlanner;
+    private final long budgetNanos;
+    private final long incrementalBudgetNanos;
+    private final int maxStopsPerRoute;
+    private final Duration maxAge;
+    private final Map<Long, Plan> plans = new ConcurrentHashMap<>();
+
+    public RouteService(DeliveryRepository deliveryRepository,
+                        AgentLocationService agentLocationService,
+                        RoutePlanner routePlanner,
+                        @Value("${delivery.routing.budget-ms:20}") long budgetMs,
+                        @Value("${delivery.routing.incremental-budget-ms:2}") long incrementalBudgetMs,
+                        @Value("${delivery.routing.max-stops-per-route:12}") int maxStopsPerRoute,
+                        @Value("${delivery.routing.max-age:PT15M}") Duration maxAge) {
+        this.deliveryRepository = deliveryRepository;
+        this.agentLocationService = agentLocationService;
+        this.routePlanner = routePlanner;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        this.incrementalBudgetNanos = TimeUnit.MILLISECONDS.toNanos(incrementalBudgetMs);
+        this.maxStopsPerRoute = Math.max(1, maxStopsPerRoute);
+        this.maxAge = maxAge;
+    }
+
+    public AgentRouteDto getRoute(Long agentId, boolean refresh) {
+        // Built inside compute so assignments and status changes for the agent wait for the new plan
+        // and apply to it instead of being overwritten by it
+        Plan plan = plans.compute(agentId, (id, current) ->
+                refresh || current == null || current.plannedAt.isBefore(LocalDateTime.now().minus(maxAge))
+                        ? buildPlan(id)
+                        : current);
+        return toDto(agentId, plan);
+    }
+
+    public void onAssigned(Delivery delivery) {
+        if (delivery.getAgentId() == null) {
+            return;
+        }
+        // The caller keeps its instance, so the plan holds a copy
+        Delivery stop = delivery.toBuilder().build();
+        plans.computeIfPresent(delivery.getAgentId(), (agentId, plan) -> {
+            // A plan built after the assignment was saved already has it
+            if (contains(plan.stops, stop.getOrderId()) || contains(plan.unrouted, stop.getOrderId())) {
+                return plan;
+            }
+            if (stop.getDestination() == null) {
+                List<Delivery> unrouted = new ArrayList<>(plan.unrouted);
+                unrouted.add(stop);
+                return new Plan(plan.start, plan.stops, List.copyOf(unrouted), plan.plannedAt, plan.planningNanos);
+            }
+            long start = System.nanoTime();
+            List<Delivery> candidates = new ArrayList<>(plan.stops);
+            candidates.add(stop);
+            double[][] points = points(plan.start, candidates);
+            List<Integer> current = new ArrayList<>();
+            for (int i = 1; i <= plan.stops.size(); i++) {
+                current.add(i);
+            }
+            List<Integer> order = routePlanner.insert(points, current, incrementalBudgetNanos);
+            return new Plan(points[0], List.copyOf(reorder(candidates, order)), plan.unrouted, plan.plannedAt, System.nanoTime() - start);
+        });
+    }
+
+    public void onStatusChanged(Long agentId, Long orderId, DeliveryStatus status) {
+        if (agentId == null) {
+            return;
+        }
+        plans.computeIfPresent(agentId, (id, plan) -> {
+            if (DispatchService.OPEN_STATUSES.contains(status)) {
+                // Readers may be rendering the published stops, so the changed one is replaced by a copy
+                return new Plan(plan.start, withStatus(plan.stops, orderId, status), withStatus(plan.unrouted, orderId, status),
+                        plan.plannedAt, plan.planningNanos);
+            }
+            // Remaining stops keep their order
+            return new Plan(plan.start,
+                    plan.stops.stream().filter(stop -> !stop.getOrderId().equals(orderId)).toList(),
+                    plan.unrouted.stream().filter(stop -> !stop.getOrderId().equals(orderId)).toList(),
+                    plan.plannedAt, plan.planningNanos);
+        });
+    }
+
+    private Plan buildPlan(Long agentId) {
+        long started = System.nanoTime();
+        List<Delivery> open = new ArrayList<>(
+                deliveryRepository.findByAgentIdAndStatusInOrderByCreatedAtDesc(agentId, DispatchService.OPEN_STATUSES));
+        open.sort(Comparator.comparing(Delivery::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        List<Delivery> routable = new ArrayList<>();
+        List<Delivery> unrouted = new ArrayList<>();
+        open.forEach(delivery -> (delivery.getDestination() != null ? routable : unrouted).add(delivery));
+
+        // Without a known agent position the route starts at the oldest stop
+        Optional<AgentLocation> location = agentLocationService.getLatest(agentId);
+        double[] start = location
+                .map(l -> new double[]{l.getPosition().getY(), l.getPosition().getX()})
+                .orElseGet(() -> routable.isEmpty() ? null
+                        : new double[]{routable.get(0).getDestination().getY(), routable.get(0).getDestination().getX()});
+
+        List<Delivery> stops = routable;
+        if (routable.size() > 1) {
+            stops = reorder(routable, routePlanner.plan(points(start, routable), budgetNanos));
+        }
+        long elapsed = System.nanoTime() - started;
+        log.debug("Planned {} stops for agent {} in {} µs", stops.size(), agentId, elapsed / 1000);
+        return new Plan(start, List.copyOf(stops), List.copyOf(unrouted), LocalDateTime.now(), elapsed);
+    }
+
+    private AgentRouteDto toDto(Long agentId, Plan plan) {
+        List<RouteDto> routes = new ArrayList<>();
+        double total = 0;
+        double[] previous = plan.start;
+        RouteDto route = null;
+        for (int i = 0; i < plan.stops.size(); i++) {
+            if (i % maxStopsPerRoute == 0) {
+                route = RouteDto.builder().sequence(routes.size() + 1).stops(new ArrayList<>()).build();
+                routes.add(route);
+            }
+            Delivery stop = plan.stops.get(i);
+            double[] here = {stop.getDestination().getY(), stop.getDestination().getX()};
+            double leg = previous != null ? AgentGridIndex.distanceKm(previous[0], previous[1], here[0], here[1]) : 0;
+            route.getStops().add(RouteStopDto.builder()
+                    .orderId(stop.getOrderId())
+                    .deliveryId(stop.getId())
+                    .status(stop.getStatus() != null ? stop.getStatus().name() : null)
+                    .city(stop.getCity())
+                    .zipCode(stop.getZipCode())
+                    .latitude(here[0])
+                    .longitude(here[1])
+                    .legDistanceKm(leg)
+                    .build());
+            route.setDistanceKm(route.getDistanceKm() + leg);
+            total += leg;
+            previous = here;
+        }
+        return AgentRouteDto.builder()
+                .agentId(agentId)
+                .startLatitude(plan.start != null ? plan.start[0] : null)
+                .startLongitude(plan.start != null ? plan.start[1] : null)
+                .totalDistanceKm(total)
+                .routes(routes)
+                .unrouted(plan.unrouted.stream().map(DeliveryDto::fromEntity).toList())
+                .plannedAt(plan.plannedAt)
+                .planningMicros(plan.planningNanos / 1000)
+                .build();
+    }
+
+    private static double[][] points(double[] start, List<Delivery> stops) {
+        double[][] points = new double[stops.size() + 1][];
+        points[0] = start != null ? start
+                : new double[]{stops.get(0).getDestination().getY(), stops.get(0).getDestination().getX()};
+        for (int i = 0; i < stops.size(); i++) {
+            points[i + 1] = new double[]{stops.get(i).getDestination().getY(), stops.get(i).getDestination().getX()};
+        }
+        return points;
+    }
+
+    private static boolean contains(List<Delivery> stops, Long orderId) {
+        return stops.stream().anyMatch(stop -> stop.getOrderId().equals(orderId));
+    }
+
+    private static List<Delivery> withStatus(List<Delivery> stops, Long orderId, DeliveryStatus status) {
+        return stops.stream()
+                .map(stop -> stop.getOrderId().equals(orderId) ? stop.toBuilder().status(status).build() : stop)
+                .toList();
+    }
+
+    // order holds 1-based indexes into points, i.e. stop i is stops.get(i - 1)
+    private static List<Delivery> reorder(List<Delivery> stops, List<Integer> order) {
+        List<Delivery> ordered = new ArrayList<>(order.size());
+        order.forEach(index -> ordered.add(stops.get(index - 1)));
+        return ordered;
+    }
+
+    // Neither the lists nor the Delivery objects in them are modified once a plan is published;
+    // updates replace the plan and copy any stop they change
+    private record Plan(double[] start, List<Delivery> stops, List<Delivery> unrouted,
+                        LocalDateTime plannedAt, long planningNanos) {
+    }
+}
@@ -0,0 +1,244 @@
+package com.revcart.deliveryservice.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.revcart.deliveryservice.client.NotificationServiceClient;
+import com.revcart.deliveryservice.dto.DeliveryDto;
+import com.revcart.deliveryservice.dto.NotificationRequest;
+import com.revcart.deliveryservice.entity.Delivery;
+import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Detects deliveries still open after their estimated delivery date.
+ * <p>
+ * A periodic scan reads open deliveries due within {@code delivery.sla.horizon} into a
+ * {@link DeadlineWheel}, one open status at a time, in keyset pages of {@code page-size} walked in
+ * order of the {@code (status, estimatedDeliveryDate, _id)} index, so no page is sorted in memory;
+ * new assignments are added directly. The wheel fires each deadline within {@code tick-ms} of it
+ * passing. Due deliveries are claimed in batches with one conditional update,
+ * so a delivery that was closed meanwhile, or already claimed by another instance, is skipped. Each
+ * claimed batch is sent as one notification batch and as events on the agents' streams.
+ * <p>
+ * The first scan after startup looks back {@code catch-up} and so picks up anything missed while
+ * the service was down; later scans look back {@code lookback} only.
+ */
+@Service
+@Slf4j
+public class SlaMonitor {
+
+    private static final String BREACH_NOTIFICATION_TYPE = "DELIVERY_DELAYED";
+
+    private final MongoTemplate mongoTemplate;
+    private final NotificationServiceClient notificationServiceClient;
+    private final AgentEventStream agentEventStream;
+    private final DeadlineWheel wheel;
+    private final Duration horizon;
+    private final Duration lookback;
+    private final Duration catchUp;
+    private final int pageSize;
+    private final int batchSize;
+    private final Counter breaches;
+    private final Timer detectedLateness;
+    private final Timer deliveredLateness;
+    private final Counter deliveredOnTime;
+    private final Counter deliveredLate;
+    private volatile boolean caughtUp;
+
+    public SlaMonitor(MongoTemplate mongoTemplate,
+                      NotificationServiceClient notificationServiceClient,
+                      AgentEventStream agentEventStream,
+                      MeterRegistry meterRegistry,
+                      @Value("${delivery.sla.horizon:PT10M}") Duration horizon,
+                      @Value("${delivery.sla.lookback:PT1H}") Duration lookback,
+                      @Value("${delivery.sla.catch-up:P7D}") Duration catchUp,
+                      @Value("${delivery.sla.tick-ms:1000}") long tickMs,
+                      @Value("${delivery.sla.page-size:500}") int pageSize,
+                      @Value("${delivery.sla.batch-size:100}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.notificationServiceClient = notificationServiceClient;
+        this.agentEventStream = agentEventStream;
+        this.horizon = horizon;
+        this.lookback = lookback;
+        this.catchUp = catchUp;
+        this.pageSize = pageSize;
+        this.batchSize = batchSize;
+        // One turn of the wheel covers the horizon, so scanned deadlines never wait for a second turn
+        int slots = (int) Math.max(64, horizon.toMillis() / tickMs + 1);
+        this.wheel = new DeadlineWheel(tickMs, slots, System.currentTimeMillis());
+
+        this.breaches = Counter.builder("delivery.sla.breaches")
+                .description("Deliveries found open after their estimated delivery date")
+                .register(meterRegistry);
+        this.detectedLateness = latenessTimer(meterRegistry, "detected");
+        this.deliveredLateness = latenessTimer(meterRegistry, "delivered");
+        this.deliveredOnTime = Counter.builder("delivery.sla.delivered").tag("outcome", "on_time").register(meterRegistry);
+        this.deliveredLate = Counter.builder("delivery.sla.delivered").tag("outcome", "late").register(meterRegistry);
+        meterRegistry.gauge("delivery.sla.tracked", wheel, DeadlineWheel::size);
+    }
+
+    // ---------------- HOOKS ----------------
+
+    public void track(Delivery delivery) {
+        if (delivery.getEstimatedDeliveryDate() != null
+                && delivery.getEstimatedDeliveryDate().isBefore(LocalDateTime.now().plus(horizon))) {
+            wheel.add(toDeadline(delivery));
+        }
+    }
+
+    /**
+     * Stops watching a delivery that left the open statuses, and records how late a delivered one was.
+     */
+    public void onClosed(Delivery delivery) {
+        wheel.remove(delivery.getId());
+        if (delivery.getStatus() != DeliveryStatus.DELIVERED
+                || delivery.getEstimatedDeliveryDate() == null || delivery.getActualDeliveryDate() == null) {
+            return;
+        }
+        Duration late = Duration.between(delivery.getEstimatedDeliveryDate(), delivery.getActualDeliveryDate());
+        if (late.isNegative() || late.isZero()) {
+            deliveredOnTime.increment();
+        } else {
+            deliveredLate.increment();
+            deliveredLateness.record(late);
+        }
+    }
+
+    // ---------------- SCHEDULED ----------------
+
+    @Scheduled(fixedDelayString = "${delivery.sla.scan-interval-ms:60000}",
+            initialDelayString = "${delivery.sla.initial-delay-ms:10000}")
+    public void scan() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = now.minus(caughtUp ? lookback : catchUp);
+        LocalDateTime to = now.plus(horizon);
+        int loaded = 0;
+        try {
+            // One status at a time: with $in on status the index could not return the pages in order
+            for (DeliveryStatus status : DispatchService.OPEN_STATUSES) {
+                LocalDateTime lastDate = null;
+                String lastId = null;
+                while (true) {
+                    List<Delivery> page = mongoTemplate.find(pageQuery(status, from, to, lastDate, lastId), Delivery.class);
+                    page.forEach(delivery -> wheel.add(toDeadline(delivery)));
+                    loaded += page.size();
+                    if (page.size() < pageSize) {
+                        break;
+                    }
+                    Delivery last = page.get(page.size() - 1);
+                    lastDate = last.getEstimatedDeliveryDate();
+                    lastId = last.getId();
+                }
+            }
+            if (!caughtUp) {
+                log.info("✅ SLA monitor caught up, {} deadlines due by {}", loaded, to);
+            }
+            caughtUp = true;
+        } catch (Exception e) {
+            log.error("❌ SLA scan failed after {} deliveries: {}", loaded, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${delivery.sla.tick-ms:1000}")
+    public void tick() {
+        List<DeadlineWheel.Deadline> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<DeadlineWheel.Deadline> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            try {
+                raise(batch);
+            } catch (Exception e) {
+                // Left unclaimed, so the next scan picks them up again
+                log.error("❌ Failed to record {} SLA breaches: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    // ---------------- INTERNAL HELPERS ----------------
+
+    private void raise(List<DeadlineWheel.Deadline> due) {
+        LocalDateTime now = LocalDateTime.now();
+        String claim = UUID.randomUUID().toString();
+        List<String> ids = due.stream().map(DeadlineWheel.Deadline::deliveryId).toList();
+        UpdateResult result = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("id").in(ids)
+                        .and("status").in(DispatchService.OPEN_STATUSES)
+                        .and("slaBreachedAt").is(null)),
+                new Update().set("slaBreachedAt", now).set("slaClaim", claim),
+                Delivery.class);
+        if (result.getModifiedCount() == 0) {
+            return;
+        }
+
+        List<Delivery> claimed = mongoTemplate.find(
+                Query.query(Criteria.where("id").in(ids).and("slaClaim").is(claim)), Delivery.class);
+        List<NotificationRequest> notifications = new ArrayList<>(claimed.size());
+        for (Delivery delivery : claimed) {
+            breaches.increment();
+            detectedLateness.record(Duration.between(delivery.getEstimatedDeliveryDate(), now));
+            if (delivery.getUserId() != null) {
+                notifications.add(new NotificationRequest(delivery.getUserId(), BREACH_NOTIFICATION_TYPE,
+                        "Your order #" + delivery.getOrderId() + " is running late. We are working to deliver it as soon as possible"));
+            }
+            agentEventStream.publish(delivery.getAgentId(), "sla_breach", DeliveryDto.fromEntity(delivery));
+        }
+        log.warn("SLA breached for {} deliveries", claimed.size());
+
+        if (!notifications.isEmpty()) {
+            try {
+                notificationServiceClient.createNotifications(notifications);
+            } catch (Exception e) {
+                log.error("Failed to send {} SLA breach notifications: {}", notifications.size(), e.getMessage());
+            }
+        }
+    }
+
+    private Query pageQuery(DeliveryStatus status, LocalDateTime from, LocalDateTime to,
+                            LocalDateTime lastDate, String lastId) {
+        List<Criteria> bounds = new ArrayList<>();
+        bounds.add(Criteria.where("estimatedDeliveryDate").gte(from).lt(to));
+        if (lastDate != null) {
+            bounds.add(new Criteria().orOperator(
+                    Criteria.where("estimatedDeliveryDate").gt(lastDate),
+                    Criteria.where("estimatedDeliveryDate").is(lastDate).and("id").gt(lastId)));
+        }
+        Query query = Query.query(Criteria.where("status").is(status)
+                        .and("slaBreachedAt").is(null)
+                        .andOperator(bounds))
+                .with(Sort.by(Sort.Direction.ASC, "estimatedDeliveryDate", "id"))
+                .limit(pageSize);
+        query.fields().include("estimatedDeliveryDate");
+        return query;
+    }
+
+    private static DeadlineWheel.Deadline toDeadline(Delivery delivery) {
+        return new DeadlineWheel.Deadline(delivery.getId(),
+                delivery.getEstimatedDeliveryDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static Timer latenessTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("delivery.sla.lateness")
+                .description("Time past the estimated delivery date")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofSeconds(1))
+                .maximumExpectedValue(Duration.ofDays(7))
+                .register(meterRegistry);
+    }
+}
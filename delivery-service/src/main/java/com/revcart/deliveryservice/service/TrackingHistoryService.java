@@ -0,0 +1,146 @@
+package com.revcart.deliveryservice.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.revcart.deliveryservice.dto.TrackingLogDto;
+import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
+import com.revcart.deliveryservice.entity.DeliveryTrackingBucket;
+import com.revcart.deliveryservice.entity.TrackingEvent;
+import com.revcart.deliveryservice.repository.DeliveryTrackingBucketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only tracking history stored as buckets of events per delivery.
+ * <p>
+ * An append is one upsert that pushes the event onto the delivery's open bucket or starts a new
+ * one, so a write carries only the event itself; the append that fills a bucket to
+ * {@code delivery.tracking.bucket-size} events closes it. A history read is a single
+ * (deliveryId, startTime) index range scan; with the default bucket size a delivery's whole
+ * history usually sits in one document. A bucket size of 1 stores one document per event.
+ */
+@Service
+public class TrackingHistoryService {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final DeliveryTrackingBucketRepository bucketRepository;
+    private final int bucketSize;
+
+    public TrackingHistoryService(MongoTemplate mongoTemplate,
+                                  DeliveryTrackingBucketRepository bucketRepository,
+                                  @Value("${delivery.tracking.bucket-size:50}") int bucketSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketRepository = bucketRepository;
+        this.bucketSize = bucketSize;
+    }
+
+    public void append(String deliveryId, DeliveryStatus status, String location, String message) {
+        append(deliveryId, new TrackingEvent(status, location, message, LocalDateTime.now()));
+    }
+
+    public void append(String deliveryId, TrackingEvent event) {
+        Query openBucket = openBucket(deliveryId);
+        openBucket.fields().include("count");
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        DeliveryTrackingBucket bucket;
+        try {
+            bucket = mongoTemplate.findAndModify(openBucket, appendUpdate(List.of(event)), options, DeliveryTrackingBucket.class);
+        } catch (DuplicateKeyException e) {
+            // a concurrent append opened the bucket first; it matches now
+            bucket = mongoTemplate.findAndModify(openBucket, appendUpdate(List.of(event)), options, DeliveryTrackingBucket.class);
+        }
+        if (bucket != null && bucket.getCount() >= bucketSize) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(bucket.getId())),
+                    new Update().unset("open"), DeliveryTrackingBucket.class);
+        }
+    }
+
+    /**
+     * Appends events of many deliveries in one unordered bulk write, one upsert per delivery,
+     * then closes the buckets that are full with one more write. A delivery's events all go to its
+     * open bucket, which may then hold up to that many events more than the bucket size.
+     */
+    public void appendAll(Map<String, List<TrackingEvent>> eventsByDelivery) {
+        if (eventsByDelivery.isEmpty()) {
+            return;
+        }
+        bulkAppend(new ArrayList<>(eventsByDelivery.keySet()), eventsByDelivery, true);
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("deliveryId").in(eventsByDelivery.keySet())
+                        .and("open").is(true)
+                        .and("count").gte(bucketSize)),
+                new Update().unset("open"), DeliveryTrackingBucket.class);
+    }
+
+    private void bulkAppend(List<String> deliveryIds, Map<String, List<TrackingEvent>> eventsByDelivery,
+                            boolean retryDuplicates) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DeliveryTrackingBucket.class);
+        deliveryIds.forEach(deliveryId ->
+                bulk.upsert(openBucket(deliveryId), appendUpdate(eventsByDelivery.get(deliveryId))));
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // upserts that lost the race to open a bucket are retried once against the winner's bucket
+            List<String> raced = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (!retryDuplicates || error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                raced.add(deliveryIds.get(error.getIndex()));
+            }
+            bulkAppend(raced, eventsByDelivery, false);
+        }
+    }
+
+    /**
+     * The delivery's open bucket. At most one exists per delivery (unique partial index on
+     * deliveryId where open is true), so concurrent upserts cannot each start a bucket.
+     */
+    private static Query openBucket(String deliveryId) {
+        return Query.query(Criteria.where("deliveryId").is(deliveryId).and("open").is(true));
+    }
+
+    private static Update appendUpdate(List<TrackingEvent> events) {
+        Update update = new Update()
+                .inc("count", events.size())
+                .min("startTime", events.get(0).getTimestamp())
+                .max("endTime", events.get(events.size() - 1).getTimestamp());
+        update.push("events").each(events.toArray());
+        return update;
+    }
+
+    /**
+     * Newest first.
+     */
+    public List<TrackingLogDto> getHistory(String deliveryId) {
+        List<TrackingLogDto> history = new ArrayList<>();
+        for (DeliveryTrackingBucket bucket : bucketRepository.findByDeliveryIdOrderByStartTimeDesc(deliveryId)) {
+            List<TrackingEvent> events = bucket.getEvents();
+            for (int i = 0; i < events.size(); i++) {
+                history.add(TrackingLogDto.fromEvent(bucket.getId() + "-" + i, events.get(i)));
+            }
+        }
+        history.sort(Comparator.comparing(TrackingLogDto::getTimestamp,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return history;
+    }
+
+    public int getBucketSize() {
+        return bucketSize;
+    }
+}
@@ -0,0 +1,158 @@
+package com.revcart.deliveryservice.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoNamespace;
+import com.revcart.deliveryservice.entity.Delivery.DeliveryStatus;
+import com.revcart.deliveryservice.entity.DeliveryTrackingBucket;
+import com.revcart.deliveryservice.entity.TrackingEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off copy of the old {@code delivery_tracking_logs} documents (one per event, each embedding
+ * the whole delivery) into {@code delivery_tracking} buckets.
+ * <p>
+ * Legacy events of a delivery go into a bucket with a fixed id via {@code $addToSet}, so an
+ * interrupted run can simply start over. The bucket is created full, which keeps live appends out
+ * of it (it never gets the {@code open} flag). When done, the legacy collection is renamed to {@code delivery_tracking_logs_migrated}
+ * and can be dropped once the result has been checked.
+ */
+@Component
+@Order(1)
+@Slf4j
+public class TrackingLogMigration implements ApplicationRunner {
+
+    private static final String LEGACY_COLLECTION = "delivery_tracking_logs";
+    private static final String LEGACY_BUCKET_PREFIX = "legacy-";
+    private static final int NAMESPACE_NOT_FOUND = 26;
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final MongoTemplate mongoTemplate;
+    private final TrackingHistoryService trackingHistoryService;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public TrackingLogMigration(MongoTemplate mongoTemplate,
+                                TrackingHistoryService trackingHistoryService,
+                                @Value("${delivery.tracking.migrate-legacy:true}") boolean enabled,
+                                @Value("${delivery.tracking.migration-batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.trackingHistoryService = trackingHistoryService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || !mongoTemplate.collectionExists(LEGACY_COLLECTION)) {
+            return;
+        }
+        log.info("Migrating {} to bucketed tracking history", LEGACY_COLLECTION);
+        long migrated = 0;
+        long skipped = 0;
+        Object lastId = null;
+        while (true) {
+            Query page = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+            if (lastId != null) {
+                page.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            List<Document> docs = mongoTemplate.find(page, Document.class, LEGACY_COLLECTION);
+            if (docs.isEmpty()) {
+                break;
+            }
+            lastId = docs.get(docs.size() - 1).get("_id");
+
+            Map<String, List<TrackingEvent>> byDelivery = new LinkedHashMap<>();
+            for (Document doc : docs) {
+                String deliveryId = legacyDeliveryId(doc);
+                if (deliveryId == null) {
+                    skipped++;
+                    continue;
+                }
+                byDelivery.computeIfAbsent(deliveryId, id -> new ArrayList<>()).add(toEvent(doc));
+            }
+            if (!byDelivery.isEmpty()) {
+                BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DeliveryTrackingBucket.class);
+                byDelivery.forEach((deliveryId, events) -> ops.upsert(
+                        Query.query(Criteria.where("_id").is(LEGACY_BUCKET_PREFIX + deliveryId)),
+                        legacyUpdate(deliveryId, events)));
+                ops.execute();
+            }
+            migrated += docs.size();
+        }
+
+        String target = LEGACY_COLLECTION + "_migrated";
+        try {
+            mongoTemplate.getCollection(LEGACY_COLLECTION)
+                    .renameCollection(new MongoNamespace(mongoTemplate.getDb().getName(), target));
+        } catch (MongoCommandException e) {
+            // instances starting together all copy (idempotently); only one rename can win
+            if (e.getErrorCode() == NAMESPACE_NOT_FOUND) {
+                log.info("Legacy tracking logs already renamed by another instance");
+            } else if (e.getErrorCode() == NAMESPACE_EXISTS) {
+                log.warn("⚠️ {} already exists, {} left in place; drop one of them by hand", target, LEGACY_COLLECTION);
+            } else {
+                throw e;
+            }
+        }
+        log.info("✅ Tracking log migration done: {} legacy documents, {} without a delivery skipped, legacy kept as {}",
+                migrated, skipped, target);
+    }
+
+    private Update legacyUpdate(String deliveryId, List<TrackingEvent> events) {
+        Comparator<LocalDateTime> order = Comparator.nullsLast(Comparator.naturalOrder());
+        LocalDateTime start = events.stream().map(TrackingEvent::getTimestamp).min(order).orElse(null);
+        LocalDateTime end = events.stream().map(TrackingEvent::getTimestamp).max(order).orElse(null);
+        Update update = new Update()
+                .setOnInsert("deliveryId", deliveryId)
+                .setOnInsert("count", trackingHistoryService.getBucketSize())
+                .addToSet("events").each(events.toArray());
+        if (start != null) {
+            update.min("startTime", start).max("endTime", end);
+        }
+        return update;
+    }
+
+    private static String legacyDeliveryId(Document doc) {
+        Object delivery = doc.get("delivery");
+        if (!(delivery instanceof Document embedded)) {
+            return null;
+        }
+        Object id = embedded.get("_id") != null ? embedded.get("_id") : embedded.get("id");
+        if (id instanceof ObjectId objectId) {
+            return objectId.toHexString();
+        }
+        return id != null ? id.toString() : null;
+    }
+
+    private static TrackingEvent toEvent(Document doc) {
+        String status = doc.getString("status");
+        Date timestamp = doc.getDate("timestamp");
+        return new TrackingEvent(
+                status != null ? DeliveryStatus.valueOf(status) : null,
+                doc.getString("location"),
+                doc.getString("message"),
+                timestamp != null ? LocalDateTime.ofInstant(timestamp.toInstant(), ZoneId.systemDefault()) : null);
+    }
+}
@@ -0,0 +1,102 @@
+package com.revcart.deliveryservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AgentGridIndexTest {
+
+    private static final double[] CELL_KMS = {0.25, 1.0, 5.0};
+    private static final double[] LATITUDES = {0.0, 12.9716, 60.0, -75.0};
+    private static final int[] KS = {1, 8, 50};
+    private static final double[] RADII_KM = {3, 25};
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(7);
+        for (double cellKm : CELL_KMS) {
+            for (double latitude : LATITUDES) {
+                double[] center = {latitude, 77.5946};
+                AgentGridIndex index = new AgentGridIndex(cellKm);
+                List<AgentGridIndex.Entry> agents = new ArrayList<>();
+                for (int i = 0; i < 400; i++) {
+                    // Half clustered, half spread, so some cells are dense and some empty
+                    double[] point = random.nextBoolean() ? near(random, center, 2) : near(random, center, 20);
+                    index.update(i, point[0], point[1], i);
+                    agents.add(new AgentGridIndex.Entry(i, point[0], point[1], 0, i));
+                }
+                for (int k : KS) {
+                    for (double radiusKm : RADII_KM) {
+                        for (int q = 0; q < 40; q++) {
+                            double[] query = near(random, center, 25);
+                            // Odd queries also filter, as dispatch does with age and load
+                            Predicate<AgentGridIndex.Entry> filter = q % 2 == 0
+                                    ? entry -> true
+                                    : entry -> entry.seenAtMillis() % 3 != 0;
+                            assertSameDistances(
+                                    index.nearest(query[0], query[1], k, radiusKm, filter),
+                                    bruteForce(agents, query, k, radiusKm, filter),
+                                    String.format("cellKm=%s lat=%s k=%d radiusKm=%s query=%d", cellKm, latitude, k, radiusKm, q));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void movedAndRemovedAgentsAreFoundOnlyWhereTheyAre() {
+        AgentGridIndex index = new AgentGridIndex(1.0);
+        index.update(1, 12.97, 77.59, 100);
+        index.update(2, 12.98, 77.60, 100);
+        index.update(1, 13.20, 77.80, 200);
+
+        assertThat(index.nearest(12.97, 77.59, 1, 5, entry -> true))
+                .extracting(AgentGridIndex.Candidate::agentId)
+                .containsExactly(2L);
+        assertThat(index.nearest(13.20, 77.80, 1, 5, entry -> true))
+                .extracting(AgentGridIndex.Candidate::agentId)
+                .containsExactly(1L);
+
+        index.remove(2);
+        assertThat(index.nearest(12.97, 77.59, 5, 5, entry -> true)).isEmpty();
+
+        assertThat(index.removeSeenBefore(201)).isEqualTo(1);
+        assertThat(index.size()).isZero();
+    }
+
+    private static void assertSameDistances(List<AgentGridIndex.Candidate> actual, List<Double> expected, String description) {
+        // Compared by distance so that ties at the k-th place may resolve to either agent
+        assertThat(actual).as(description).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).distanceKm()).as(description).isCloseTo(expected.get(i), within(1e-9));
+        }
+    }
+
+    private static List<Double> bruteForce(List<AgentGridIndex.Entry> agents, double[] query, int k, double radiusKm,
+                                           Predicate<AgentGridIndex.Entry> filter) {
+        return agents.stream()
+                .filter(filter)
+                .map(entry -> AgentGridIndex.distanceKm(query[0], query[1], entry.latitude(), entry.longitude()))
+                .filter(distance -> distance <= radiusKm)
+                .sorted(Comparator.naturalOrder())
+                .limit(k)
+                .toList();
+    }
+
+    // Uniform over a disc of radiusKm around center
+    private static double[] near(Random random, double[] center, double radiusKm) {
+        double distance = radiusKm * Math.sqrt(random.nextDouble());
+        double angle = 2 * Math.PI * random.nextDouble();
+        double dLat = distance * Math.cos(angle) / 111.32;
+        double dLng = distance * Math.sin(angle) / (111.32 * Math.cos(Math.toRadians(center[0])));
+        return new double[]{center[0] + dLat, center[1] + dLng};
+    }
+}
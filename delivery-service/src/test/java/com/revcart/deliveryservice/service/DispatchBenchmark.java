@@ -0,0 +1,135 @@
+package com.revcart.deliveryservice.service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Offline benchmark of k-nearest lookups in {@link AgentGridIndex} on synthetic data: agents spread
+ * over a city disc with denser hotspots, queried from random points in the same disc. A sample of
+ * the queries is checked against a brute-force scan for recall and as the baseline; exactness is
+ * asserted by {@link AgentGridIndexTest} in the regular test run. Run it on a workstation, never
+ * inside the service:
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/test-classes:target/classes \
+ *     com.revcart.deliveryservice.service.DispatchBenchmark [agents=50000] [queries=100000] [k=8] [cityRadiusKm=25] [cellKm=1.0]
+ * </pre>
+ */
+public final class DispatchBenchmark {
+
+    private static final int BRUTE_FORCE_SAMPLE = 500;
+    // Somewhere to put the synthetic city; only the latitude matters for the cell geometry
+    private static final double CENTER_LAT = 12.9716;
+    private static final double CENTER_LNG = 77.5946;
+
+    private DispatchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int agents = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        double cityRadiusKm = args.length > 3 ? Double.parseDouble(args[3]) : 25;
+        double cellKm = args.length > 4 ? Double.parseDouble(args[4]) : 1.0;
+        if (agents <= 0 || queries <= 0 || k <= 0 || cityRadiusKm <= 0 || cellKm <= 0) {
+            throw new IllegalArgumentException("agents, queries, k, cityRadiusKm and cellKm must be positive");
+        }
+        run(agents, queries, k, cityRadiusKm, cellKm);
+    }
+
+    private static void run(int agents, int queries, int k, double cityRadiusKm, double cellKm) {
+        Random random = new Random(42);
+        double[][] hotspots = new double[8][];
+        for (int i = 0; i < hotspots.length; i++) {
+            hotspots[i] = randomPoint(random, cityRadiusKm);
+        }
+
+        double[] lats = new double[agents];
+        double[] lngs = new double[agents];
+        AgentGridIndex index = new AgentGridIndex(cellKm);
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < agents; i++) {
+            double[] point = random.nextDouble() < 0.5
+                    ? near(random, hotspots[random.nextInt(hotspots.length)], cityRadiusKm / 10)
+                    : randomPoint(random, cityRadiusKm);
+            lats[i] = point[0];
+            lngs[i] = point[1];
+            index.update(i, point[0], point[1], 0);
+        }
+        long buildMs = (System.nanoTime() - buildStart) / 1_000_000;
+
+        double searchRadiusKm = 2 * cityRadiusKm;
+        double[][] points = new double[queries][];
+        for (int i = 0; i < queries; i++) {
+            points[i] = randomPoint(random, cityRadiusKm);
+        }
+        long[] latencies = new long[queries];
+        long lookupStart = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            long start = System.nanoTime();
+            index.nearest(points[i][0], points[i][1], k, searchRadiusKm, entry -> true);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long lookupNanos = System.nanoTime() - lookupStart;
+        Arrays.sort(latencies);
+
+        int sample = Math.min(BRUTE_FORCE_SAMPLE, queries);
+        int found = 0;
+        int expected = 0;
+        long bruteStart = System.nanoTime();
+        for (int i = 0; i < sample; i++) {
+            Set<Long> exact = bruteForce(lats, lngs, points[i], k);
+            expected += exact.size();
+            for (AgentGridIndex.Candidate candidate : index.nearest(points[i][0], points[i][1], k, searchRadiusKm, entry -> true)) {
+                if (exact.contains(candidate.agentId())) {
+                    found++;
+                }
+            }
+        }
+        long bruteNanos = System.nanoTime() - bruteStart;
+
+        System.out.printf("agents=%d queries=%d k=%d cityRadiusKm=%.1f cellKm=%.2f%n", agents, queries, k, cityRadiusKm, cellKm);
+        System.out.printf("build %d ms, %.0f lookups/s, p50 %.1f us, p99 %.1f us%n",
+                buildMs,
+                queries / (lookupNanos / 1e9),
+                latencies[queries / 2] / 1000.0,
+                latencies[Math.min(queries - 1, (int) (queries * 0.99))] / 1000.0);
+        // Recall: share of the exact k nearest (brute force) that the index returned
+        System.out.printf("brute force %.0f lookups/s, recall %.4f%n",
+                sample / (bruteNanos / 1e9),
+                expected == 0 ? 1.0 : (double) found / expected);
+    }
+
+    private static Set<Long> bruteForce(double[] lats, double[] lngs, double[] point, int k) {
+        // Max-heap of {distance, agent} holding the k closest so far
+        PriorityQueue<double[]> closest = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(b[0], a[0]));
+        for (int i = 0; i < lats.length; i++) {
+            double distance = AgentGridIndex.distanceKm(point[0], point[1], lats[i], lngs[i]);
+            if (closest.size() < k) {
+                closest.add(new double[]{distance, i});
+            } else if (distance < closest.peek()[0]) {
+                closest.poll();
+                closest.add(new double[]{distance, i});
+            }
+        }
+        Set<Long> nearest = new HashSet<>();
+        closest.forEach(entry -> nearest.add((long) entry[1]));
+        return nearest;
+    }
+
+    private static double[] randomPoint(Random random, double radiusKm) {
+        return near(random, new double[]{CENTER_LAT, CENTER_LNG}, radiusKm);
+    }
+
+    // Uniform over a disc of radiusKm around center
+    private static double[] near(Random random, double[] center, double radiusKm) {
+        double distance = radiusKm * Math.sqrt(random.nextDouble());
+        double angle = 2 * Math.PI * random.nextDouble();
+        double dLat = distance * Math.cos(angle) / 111.32;
+        double dLng = distance * Math.sin(angle) / (111.32 * Math.cos(Math.toRadians(center[0])));
+        return new double[]{center[0] + dLat, center[1] + dLng};
+    }
+}
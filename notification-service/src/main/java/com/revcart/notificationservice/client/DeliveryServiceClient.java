@@ -0,0 +1,14 @@
+package com.revcart.notificationservice.client;
+
+import com.revcart.notificationservice.dto.ApiResponse;
+import com.revcart.notificationservice.dto.DeliveryParticipantsDto;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@FeignClient(name = "delivery-service", url = "${services.delivery-service.url:${DELIVERY_SERVICE_URL:http://localhost:8087}}")
+public interface DeliveryServiceClient {
+
+    @GetMapping("/api/delivery/{orderId}")
+    ApiResponse<DeliveryParticipantsDto> getDelivery(@PathVariable Long orderId);
+}
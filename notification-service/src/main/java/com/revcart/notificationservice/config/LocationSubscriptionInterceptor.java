@@ -0,0 +1,84 @@
+package com.revcart.notificationservice.config;
+
+import com.revcart.notificationservice.client.DeliveryServiceClient;
+import com.revcart.notificationservice.dto.DeliveryParticipantsDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Agent positions are only for the order's customer and agent. The client names itself with an
+ * {@code X-User-Id} header on CONNECT (as on the REST API); a SUBSCRIBE to
+ * {@code /topic/delivery/{orderId}/location} is refused unless delivery-service lists that user
+ * on the order's delivery.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String USER_ID_ATTRIBUTE = "userId";
+    private static final Pattern LOCATION_TOPIC = Pattern.compile("^/topic/delivery/(\\d+)/location$");
+
+    private final DeliveryServiceClient deliveryServiceClient;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        Map<String, Object> session = accessor.getSessionAttributes();
+        if (accessor.getCommand() == StompCommand.CONNECT && session != null) {
+            String userId = accessor.getFirstNativeHeader(USER_ID_HEADER);
+            if (userId != null) {
+                session.put(USER_ID_ATTRIBUTE, userId);
+            }
+        } else if (accessor.getCommand() == StompCommand.SUBSCRIBE && accessor.getDestination() != null) {
+            Matcher topic = LOCATION_TOPIC.matcher(accessor.getDestination());
+            if (topic.matches()) {
+                Long orderId = Long.valueOf(topic.group(1));
+                Long userId = session != null ? parse((String) session.get(USER_ID_ATTRIBUTE)) : null;
+                if (!isParticipant(orderId, userId)) {
+                    log.warn("Refused location subscription to order {} for user {}", orderId, userId);
+                    throw new MessageDeliveryException("Not allowed to track order " + orderId);
+                }
+            }
+        }
+        return message;
+    }
+
+    private boolean isParticipant(Long orderId, Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        try {
+            DeliveryParticipantsDto delivery = deliveryServiceClient.getDelivery(orderId).getData();
+            return delivery != null && delivery.isParticipant(userId);
+        } catch (Exception e) {
+            // fail closed: without delivery-service nobody can be checked
+            log.warn("Could not check delivery of order {}: {}", orderId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Long parse(String value) {
+        try {
+            return value != null ? Long.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.revcart.notificationservice.config;
+
+import com.revcart.notificationservice.entity.Notification;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes the inbox queries rely on; Spring Boot leaves auto index creation off.
+ * A failure is logged rather than stopping the service.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Inbox pages: newest first, _id breaks ties between equal timestamps
+        ensure(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("user_created"));
+        // Unread counts touch unread notifications only
+        ensure(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("read").is(false)))
+                .named("user_unread"));
+    }
+
+    private void ensure(IndexDefinition index) {
+        try {
+            mongoTemplate.indexOps(Notification.class).ensureIndex(index);
+        } catch (Exception e) {
+            log.error("❌ Could not create index {} on notifications: {}", index.getIndexOptions().get("name"), e.getMessage());
+        }
+    }
+}
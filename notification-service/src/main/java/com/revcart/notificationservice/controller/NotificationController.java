@@ -1,10 +1,13 @@
 package com.revcart.notificationservice.controller;
 
+import com.revcart.notificationservice.dto.AgentLocationUpdate;
 import com.revcart.notificationservice.dto.ApiResponse;
+import com.revcart.notificationservice.dto.InboxPage;
 import com.revcart.notificationservice.dto.NotificationDto;
 import com.revcart.notificationservice.dto.NotificationRequest;
 import com.revcart.notificationservice.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -30,7 +33,7 @@ public class NotificationController {
             default -> throw new IllegalArgumentException("Invalid event type: " + eventType);
         };
         
-        return ResponseEntity.ok(ApiResponse.success("Notification sent successfully", notification));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Notification accepted", notification));
     }
 
     @PostMapping("/payment/{paymentId}")
@@ -45,13 +48,25 @@ public class NotificationController {
                 ? notificationService.notifyPaymentSuccess(paymentId, userId, orderId)
                 : notificationService.notifyPaymentFailed(paymentId, userId, orderId, reason);
         
-        return ResponseEntity.ok(ApiResponse.success("Notification sent successfully", notification));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Notification accepted", notification));
     }
 
     @PostMapping
     public ResponseEntity<ApiResponse<NotificationDto>> createNotification(@RequestBody NotificationRequest request) {
         NotificationDto notification = notificationService.createNotification(request);
-        return ResponseEntity.ok(ApiResponse.success("Notification created successfully", notification));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Notification accepted", notification));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<NotificationDto>>> createNotifications(@RequestBody List<NotificationRequest> requests) {
+        List<NotificationDto> notifications = notificationService.createNotifications(requests);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Notifications accepted", notifications));
+    }
+
+    @PostMapping("/agent-locations")
+    public ResponseEntity<ApiResponse<Integer>> pushAgentLocations(@RequestBody List<AgentLocationUpdate> updates) {
+        int pushed = notificationService.pushAgentLocations(updates);
+        return ResponseEntity.ok(ApiResponse.success("Agent locations pushed successfully", pushed));
     }
 
     @GetMapping("/user/{userId}")
@@ -60,6 +75,33 @@ public class NotificationController {
         return ResponseEntity.ok(ApiResponse.success("Notifications retrieved successfully", notifications));
     }
 
+    @GetMapping("/user/{userId}/inbox")
+    public ResponseEntity<ApiResponse<InboxPage>> getInbox(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        InboxPage page = notificationService.getInbox(userId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success("Inbox retrieved successfully", page));
+    }
+
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<ApiResponse<Long>> getUnreadCount(@PathVariable Long userId) {
+        long unread = notificationService.getUnreadCount(userId);
+        return ResponseEntity.ok(ApiResponse.success("Unread count retrieved successfully", unread));
+    }
+
+    @PutMapping("/user/{userId}/read-all")
+    public ResponseEntity<ApiResponse<Long>> markAllAsRead(@PathVariable Long userId) {
+        long marked = notificationService.markAllAsRead(userId);
+        return ResponseEntity.ok(ApiResponse.success("Notifications marked as read", marked));
+    }
+
+    @PutMapping("/{id}/read")
+    public ResponseEntity<ApiResponse<NotificationDto>> markAsRead(@PathVariable String id) {
+        NotificationDto notification = notificationService.markAsRead(id);
+        return ResponseEntity.ok(ApiResponse.success("Notification marked as read", notification));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<NotificationDto>> getNotificationById(@PathVariable Long id) {
         NotificationDto notification = notificationService.getNotificationById(id);
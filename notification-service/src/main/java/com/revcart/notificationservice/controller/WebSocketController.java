@@ -1,5 +1,6 @@
 package com.revcart.notificationservice.controller;
 
+import com.revcart.notificationservice.dto.AgentLocationUpdate;
 import com.revcart.notificationservice.dto.NotificationDto;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
@@ -17,6 +18,10 @@ public class WebSocketController {
         messagingTemplate.convertAndSend("/topic/orders/" + userId, notification);
     }
 
+    public void sendAgentLocation(AgentLocationUpdate update) {
+        messagingTemplate.convertAndSend("/topic/delivery/" + update.getOrderId() + "/location", update);
+    }
+
     @MessageMapping("/notification")
     @SendTo("/topic/notifications")
     public NotificationDto sendNotification(NotificationDto notification) {
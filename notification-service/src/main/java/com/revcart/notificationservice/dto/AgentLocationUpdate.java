@@ -0,0 +1,20 @@
+package com.revcart.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgentLocationUpdate {
+    private Long agentId;
+    private Long orderId;
+    private Double latitude;
+    private Double longitude;
+    private Double heading;
+    private Double speed;
+    private LocalDateTime recordedAt;
+}
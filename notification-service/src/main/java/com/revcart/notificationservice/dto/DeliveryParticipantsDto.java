@@ -0,0 +1,21 @@
+package com.revcart.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The parts of delivery-service's delivery that decide who may follow it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryParticipantsDto {
+    private Long orderId;
+    private Long userId;
+    private Long agentId;
+
+    public boolean isParticipant(Long id) {
+        return id != null && (id.equals(userId) || id.equals(agentId));
+    }
+}
@@ -0,0 +1,18 @@
+package com.revcart.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxPage {
+    // Newest first
+    private List<NotificationDto> items;
+    // Pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+    private long unreadCount;
+}
@@ -0,0 +1,25 @@
+package com.revcart.notificationservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of unread notifications of one user, adjusted with $inc as notifications are stored and read.
+ * {@code changes} counts those adjustments so a recount only replaces a count nothing touched meanwhile.
+ */
+@Document("unread_counts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCount {
+    @Id
+    private Long userId;
+    private long count;
+    private long changes;
+    private LocalDateTime countedAt;
+}
@@ -0,0 +1,7 @@
+package com.revcart.notificationservice.exception;
+
+public class QueueFullException extends RuntimeException {
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
@@ -8,5 +8,5 @@ import java.util.List;
 
 @Repository
 public interface NotificationRepository extends MongoRepository<Notification, String> {
-    List<Notification> findByUserId(Long userId);
+    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
 }
@@ -0,0 +1,196 @@
+package com.revcart.notificationservice.service;
+
+import com.revcart.notificationservice.controller.WebSocketController;
+import com.revcart.notificationservice.dto.NotificationDto;
+import com.revcart.notificationservice.entity.Notification;
+import com.revcart.notificationservice.exception.QueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores and pushes notifications off the caller's thread.
+ * <p>
+ * {@link #submit} only queues; callers get the notification (with its id already assigned) back
+ * immediately. {@code notifications.pipeline.workers} threads drain the queue in batches of up to
+ * {@code batch-size}, write each batch with one unordered bulk insert and only then add the stored
+ * notifications to {@link UnreadCounter} and push them over WebSocket. A batch that fails as a
+ * whole is retried with backoff {@code max-attempts} times; documents rejected individually are
+ * dropped and counted.
+ * <p>
+ * At most {@code queue-capacity} notifications are queued or being written at once. A submit that
+ * does not fit is refused as a whole with {@link QueueFullException}, so a batch is never half
+ * accepted.
+ */
+@Service
+@Slf4j
+public class NotificationPipeline {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final WebSocketController webSocketController;
+    private final UnreadCounter unreadCounter;
+    private final LinkedBlockingQueue<Notification> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final ExecutorService executor;
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter persisted;
+    private final Counter dropped;
+    private final Timer insertTimer;
+    private volatile boolean running = true;
+
+    public NotificationPipeline(MongoTemplate mongoTemplate,
+                                WebSocketController webSocketController,
+                                UnreadCounter unreadCounter,
+                                MeterRegistry meterRegistry,
+                                @Value("${notifications.pipeline.queue-capacity:100000}") int queueCapacity,
+                                @Value("${notifications.pipeline.workers:4}") int workers,
+                                @Value("${notifications.pipeline.batch-size:1000}") int batchSize,
+                                @Value("${notifications.pipeline.max-attempts:3}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.webSocketController = webSocketController;
+        this.unreadCounter = unreadCounter;
+        this.capacity = new Semaphore(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "notification-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.accepted = meterRegistry.counter("notifications.pipeline.accepted");
+        this.rejected = meterRegistry.counter("notifications.pipeline.rejected");
+        this.persisted = meterRegistry.counter("notifications.pipeline.persisted");
+        this.dropped = meterRegistry.counter("notifications.pipeline.dropped");
+        this.insertTimer = meterRegistry.timer("notifications.pipeline.insert");
+        meterRegistry.gauge("notifications.pipeline.queued", queue, LinkedBlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Queues notifications for storage and push, or refuses all of them when the queue is full.
+     */
+    public List<NotificationDto> submit(List<Notification> notifications) {
+        if (!capacity.tryAcquire(notifications.size())) {
+            rejected.increment(notifications.size());
+            throw new QueueFullException("Notification queue is full, retry later");
+        }
+        queue.addAll(notifications);
+        accepted.increment(notifications.size());
+        return notifications.stream().map(NotificationDto::fromEntity).toList();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Workers empty the queue before they stop
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Notification writers stopped with {} notifications unsaved", queue.size());
+        }
+    }
+
+    private void drain() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("❌ Notification writer failed on {} notifications: {}", batch.size(), e.getMessage());
+            } finally {
+                // Capacity covers queued and in-flight notifications, so it is only freed once the batch is done
+                capacity.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Notification> batch) throws InterruptedException {
+        Set<Integer> failed = new HashSet<>();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insertTimer.record(() -> mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class)
+                        .insert(batch)
+                        .execute());
+                break;
+            } catch (BulkOperationException e) {
+                // Other documents of the batch were written; on a retry, duplicates were written by the failed attempt
+                int tried = attempt;
+                e.getErrors().stream()
+                        .filter(error -> tried == 1 || error.getCode() != DUPLICATE_KEY)
+                        .forEach(error -> failed.add(error.getIndex()));
+                if (!failed.isEmpty()) {
+                    log.error("❌ {} of {} notifications rejected: {}", failed.size(), batch.size(), e.getErrors().get(0).getMessage());
+                }
+                break;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    dropped.increment(batch.size());
+                    log.error("❌ Dropped {} notifications after {} attempts: {}", batch.size(), attempt, e.getMessage());
+                    return;
+                }
+                Thread.sleep(100L << attempt);
+            }
+        }
+        dropped.increment(failed.size());
+        persisted.increment(batch.size() - failed.size());
+
+        Map<Long, Integer> storedByUser = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed.contains(i)) {
+                storedByUser.merge(batch.get(i).getUserId(), 1, Integer::sum);
+            }
+        }
+        unreadCounter.added(storedByUser);
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed.contains(i)) {
+                Notification notification = batch.get(i);
+                webSocketController.sendNotificationToUser(notification.getUserId(), NotificationDto.fromEntity(notification));
+            }
+        }
+    }
+}
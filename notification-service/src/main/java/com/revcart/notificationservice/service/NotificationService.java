@@ -1,15 +1,28 @@
 package com.revcart.notificationservice.service;
 
 import com.revcart.notificationservice.controller.WebSocketController;
+import com.revcart.notificationservice.dto.AgentLocationUpdate;
+import com.revcart.notificationservice.dto.InboxPage;
 import com.revcart.notificationservice.dto.NotificationDto;
 import com.revcart.notificationservice.dto.NotificationRequest;
 import com.revcart.notificationservice.entity.Notification;
+import com.revcart.notificationservice.exception.BadRequestException;
+import com.revcart.notificationservice.exception.ResourceNotFoundException;
 import com.revcart.notificationservice.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,32 +31,114 @@ import java.util.stream.Collectors;
 @Slf4j
 public class NotificationService {
 
+    private static final int MAX_INBOX_PAGE = 100;
+
     private final NotificationRepository notificationRepository;
+    private final MongoTemplate mongoTemplate;
+    private final UnreadCounter unreadCounter;
     private final WebSocketController webSocketController;
+    private final NotificationPipeline notificationPipeline;
 
+    /**
+     * Queued for storage and push; the returned notification already carries its id.
+     */
     public NotificationDto createNotification(NotificationRequest request) {
-        Notification notification = new Notification();
-        notification.setUserId(request.getUserId());
-        notification.setType(request.getType());
-        notification.setMessage(request.getMessage());
-        notification.setRead(false);
-        notification.setCreatedAt(LocalDateTime.now());
-
-        Notification saved = notificationRepository.save(notification);
-        log.info("Notification created: {}", saved.getId());
-        
-        NotificationDto dto = NotificationDto.fromEntity(saved);
-        webSocketController.sendNotificationToUser(request.getUserId(), dto);
-        
-        return dto;
+        return notificationPipeline.submit(List.of(toEntity(request, LocalDateTime.now()))).get(0);
+    }
+
+    /**
+     * Queues a batch as a whole; it is stored with bulk inserts and then pushed to each user.
+     */
+    public List<NotificationDto> createNotifications(List<NotificationRequest> requests) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationDto> accepted = notificationPipeline.submit(requests.stream()
+                .map(request -> toEntity(request, now))
+                .collect(Collectors.toList()));
+        log.debug("Notification batch accepted: {}", accepted.size());
+        return accepted;
+    }
+
+    /**
+     * Relays agent positions to the customers tracking those orders. Positions are transient and not stored.
+     */
+    public int pushAgentLocations(List<AgentLocationUpdate> updates) {
+        updates.stream()
+                .filter(update -> update.getOrderId() != null)
+                .forEach(webSocketController::sendAgentLocation);
+        return updates.size();
     }
 
     public List<NotificationDto> getUserNotifications(Long userId) {
-        return notificationRepository.findByUserId(userId).stream()
+        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
                 .map(NotificationDto::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of a user's notifications, newest first, read from the {@code user_created} index.
+     * The cursor holds the position of the last notification returned, so later pages cost the same
+     * as the first and are not shifted by notifications arriving in between.
+     */
+    public InboxPage getInbox(Long userId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_INBOX_PAGE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_INBOX_PAGE);
+        }
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (cursor != null && !cursor.isBlank()) {
+            Position after = decodeCursor(cursor);
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(after.createdAt()),
+                    Criteria.where("createdAt").is(after.createdAt()).and("id").lt(after.id()));
+        }
+        // One extra to tell whether another page follows
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .limit(limit + 1);
+        List<Notification> found = mongoTemplate.find(query, Notification.class);
+
+        String nextCursor = null;
+        if (found.size() > limit) {
+            found = found.subList(0, limit);
+            nextCursor = encodeCursor(found.get(limit - 1));
+        }
+        List<NotificationDto> items = found.stream().map(NotificationDto::fromEntity).collect(Collectors.toList());
+        return new InboxPage(items, nextCursor, unreadCounter.get(userId));
+    }
+
+    public long getUnreadCount(Long userId) {
+        return unreadCounter.get(userId);
+    }
+
+    /**
+     * Marks one notification read. Only the call that actually flips it lowers the unread count.
+     */
+    public NotificationDto markAsRead(String id) {
+        Notification notification = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(id).and("read").is(false)),
+                new Update().set("read", true),
+                FindAndModifyOptions.options().returnNew(true),
+                Notification.class);
+        if (notification != null) {
+            unreadCounter.read(notification.getUserId(), 1);
+            return NotificationDto.fromEntity(notification);
+        }
+        return notificationRepository.findById(id)
+                .map(NotificationDto::fromEntity)
+                .orElseThrow(() -> new ResourceNotFoundException("Notification not found: " + id));
+    }
+
+    /**
+     * Marks all of a user's unread notifications read with a single update; returns how many changed.
+     * The unread count drops by exactly that many, so notifications stored meanwhile stay counted.
+     */
+    public long markAllAsRead(Long userId) {
+        long modified = mongoTemplate.updateMulti(UnreadCounter.unread(userId), new Update().set("read", true), Notification.class)
+                .getModifiedCount();
+        unreadCounter.read(userId, modified);
+        log.debug("Marked {} notifications read for user {}", modified, userId);
+        return modified;
+    }
+
     public NotificationDto getNotificationById(Long id) {
         Notification notification = notificationRepository.findById(String.valueOf(id))
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
@@ -89,4 +184,27 @@ public class NotificationService {
         request.setMessage("Payment failed for order #" + orderId + ". Reason: " + reason);
         return createNotification(request);
     }
+
+    private static String encodeCursor(Notification last) {
+        String position = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            return new Position(LocalDateTime.parse(parts[0]), parts[1]);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private record Position(LocalDateTime createdAt, String id) {
+    }
+
+    // The id is assigned here so it can be returned before the notification is stored
+    private static Notification toEntity(NotificationRequest request, LocalDateTime createdAt) {
+        return new Notification(new ObjectId().toHexString(), request.getUserId(), request.getType(), request.getMessage(),
+                false, createdAt);
+    }
 }
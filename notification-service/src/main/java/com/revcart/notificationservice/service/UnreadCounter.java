@@ -0,0 +1,124 @@
+package com.revcart.notificationservice.service;
+
+import com.revcart.notificationservice.entity.Notification;
+import com.revcart.notificationservice.entity.UnreadCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Unread notification count per user, kept in {@code unread_counts} so the inbox badge does not
+ * count documents on every request and every instance sees the same count.
+ * <p>
+ * A user's count is created with one count on the {@code user_unread} partial index the first time
+ * it is asked for. After that every change is an {@code $inc}: stored notifications add to it, and
+ * each notification that a read actually flips subtracts one, including those flipped by read-all.
+ * Counting and adjusting are not atomic together: a notification stored or read while its user's
+ * count is being taken may be counted and adjusted, or neither, so a count can drift by the few
+ * notifications in flight at that moment. Counts are therefore retaken on the first request after
+ * {@code notifications.unread.recount-interval}. A recount only replaces the stored count if no
+ * adjustment landed while it ran, otherwise the next request tries again. Counts are never reported
+ * below 0. Adjustments for users without a count are skipped. If an add fails, the affected counts
+ * are deleted and counted afresh on the next request.
+ */
+@Component
+@Slf4j
+public class UnreadCounter {
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration recountInterval;
+
+    public UnreadCounter(MongoTemplate mongoTemplate,
+                         @Value("${notifications.unread.recount-interval:PT10M}") Duration recountInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.recountInterval = recountInterval;
+    }
+
+    public long get(Long userId) {
+        UnreadCount stored = mongoTemplate.findById(userId, UnreadCount.class);
+        if (stored == null) {
+            stored = create(userId);
+        } else if (stored.getCountedAt() == null
+                || stored.getCountedAt().isBefore(LocalDateTime.now().minus(recountInterval))) {
+            stored = recount(stored);
+        }
+        return Math.max(0, stored.getCount());
+    }
+
+    /**
+     * Adds stored notifications, given as the number stored per user, with one bulk write.
+     */
+    public void added(Map<Long, Integer> countsByUser) {
+        if (countsByUser.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UnreadCount.class);
+        countsByUser.forEach((userId, count) -> ops.updateOne(byUser(userId), adjust(count)));
+        try {
+            ops.execute();
+        } catch (Exception e) {
+            log.error("❌ Failed to add to {} unread counts, recounting them: {}", countsByUser.size(), e.getMessage());
+            mongoTemplate.remove(Query.query(Criteria.where("userId").in(countsByUser.keySet())), UnreadCount.class);
+        }
+    }
+
+    public void read(Long userId, long count) {
+        if (count > 0) {
+            mongoTemplate.updateFirst(byUser(userId), adjust(-count), UnreadCount.class);
+        }
+    }
+
+    static Query unread(Long userId) {
+        return Query.query(Criteria.where("userId").is(userId).and("read").is(false));
+    }
+
+    private UnreadCount create(Long userId) {
+        UnreadCount counted = new UnreadCount(userId, mongoTemplate.count(unread(userId), Notification.class), 0,
+                LocalDateTime.now());
+        try {
+            mongoTemplate.insert(counted);
+            return counted;
+        } catch (DuplicateKeyException e) {
+            // Another request created it first, and adjustments may have landed since
+            UnreadCount stored = mongoTemplate.findById(userId, UnreadCount.class);
+            return stored != null ? stored : counted;
+        }
+    }
+
+    private UnreadCount recount(UnreadCount stored) {
+        long counted = mongoTemplate.count(unread(stored.getUserId()), Notification.class);
+        LocalDateTime now = LocalDateTime.now();
+        // Counts written before adjustments were tracked have no changes field yet
+        Criteria changes = stored.getChanges() == 0
+                ? Criteria.where("changes").in(0L, null)
+                : Criteria.where("changes").is(stored.getChanges());
+        Query unchanged = Query.query(Criteria.where("userId").is(stored.getUserId()).andOperator(changes));
+        boolean replaced = mongoTemplate.updateFirst(unchanged,
+                new Update().set("count", counted).set("countedAt", now), UnreadCount.class).getMatchedCount() > 0;
+        if (!replaced) {
+            return stored;
+        }
+        if (counted != stored.getCount()) {
+            log.info("Corrected unread count of user {} from {} to {}", stored.getUserId(), stored.getCount(), counted);
+        }
+        return new UnreadCount(stored.getUserId(), counted, stored.getChanges(), now);
+    }
+
+    private static Update adjust(long delta) {
+        return new Update().inc("count", delta).inc("changes", 1);
+    }
+
+    private static Query byUser(Long userId) {
+        return Query.query(Criteria.where("userId").is(userId));
+    }
+}
@@ -8,7 +8,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 
-@FeignClient(name = "cart-service", url = "${services.cart-service.url}")
+@FeignClient(name = "cart-service")
 public interface CartServiceClient {
     
     @GetMapping("/api/cart")
@@ -7,7 +7,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "delivery-service", url = "${services.delivery-service.url}")
+@FeignClient(name = "delivery-service")
 public interface DeliveryServiceClient {
     
     @PostMapping("/api/delivery/assign")
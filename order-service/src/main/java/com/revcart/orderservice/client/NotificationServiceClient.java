@@ -1,12 +1,15 @@
 package com.revcart.orderservice.client;
 
+import com.revcart.orderservice.config.NotificationFeignConfig;
 import com.revcart.orderservice.dto.ApiResponse;
+import com.revcart.orderservice.dto.NotificationRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "notification-service", url = "${services.notification-service.url}")
+@FeignClient(name = "notification-service", configuration = NotificationFeignConfig.class)
 public interface NotificationServiceClient {
     
     @PostMapping("/api/notifications/order/{orderId}")
@@ -15,4 +18,7 @@ public interface NotificationServiceClient {
             @RequestParam Long userId,
             @RequestParam String eventType
     );
+
+    @PostMapping("/api/notifications/batch")
+    ApiResponse<Object> createNotifications(@RequestBody java.util.List<NotificationRequest> requests);
 }
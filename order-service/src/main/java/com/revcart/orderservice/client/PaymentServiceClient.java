@@ -7,7 +7,7 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "payment-service", url = "${services.payment-service.url}")
+@FeignClient(name = "payment-service")
 public interface PaymentServiceClient {
     
     @PostMapping("/api/payments/initiate")
@@ -7,7 +7,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestHeader;
 
-@FeignClient(name = "user-service", url = "${services.user-service.url}")
+@FeignClient(name = "user-service")
 public interface UserServiceClient {
     
     @GetMapping("/api/users/{id}")
@@ -16,9 +16,15 @@ public interface UserServiceClient {
     @GetMapping("/api/users/addresses")
     ApiResponse<java.util.List<AddressDto>> getAddresses(@RequestHeader("X-User-Id") Long userId);
     
+    @GetMapping("/internal/users/{userId}/addresses/{addressId}")
+    ApiResponse<AddressDto> getAddress(@PathVariable("userId") Long userId, @PathVariable("addressId") Long addressId);
+    
     @GetMapping("/api/admin/users")
     ApiResponse<Object> getAllUsers();
     
+    @GetMapping("/internal/users/counts")
+    ApiResponse<java.util.Map<String, Object>> getUserCounts();
+    
     @GetMapping("/api/admin/count/active")
     Long getActiveUsersCount();
     
@@ -3,6 +3,8 @@ package com.revcart.orderservice.config;
 import feign.Logger;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
+import feign.codec.ErrorDecoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -11,11 +13,18 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 @Configuration
 public class FeignConfig {
 
+    // user-service requires it on /internal/** calls
+    @Value("${security.internal.token:${INTERNAL_API_TOKEN:}}")
+    private String internalToken;
+
     @Bean
     public RequestInterceptor requestInterceptor() {
         return new RequestInterceptor() {
             @Override
             public void apply(RequestTemplate template) {
+                if (!internalToken.isEmpty() && template.path().startsWith("/internal/")) {
+                    template.header("X-Internal-Token", internalToken);
+                }
                 ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
                 if (attributes != null) {
                     String authorization = attributes.getRequest().getHeader("Authorization");
@@ -34,6 +43,20 @@ public class FeignConfig {
         };
     }
 
+    // A refused /internal/** call means this service and user-service do not share INTERNAL_API_TOKEN
+    @Bean
+    public ErrorDecoder internalTokenErrorDecoder() {
+        ErrorDecoder defaults = new ErrorDecoder.Default();
+        return (methodKey, response) -> {
+            int status = response.status();
+            if ((status == 401 || status == 403) && response.request().url().contains("/internal/")) {
+                return new IllegalStateException("user-service refused " + methodKey + " with " + status
+                        + ": INTERNAL_API_TOKEN is missing here or differs from user-service's");
+            }
+            return defaults.decode(methodKey, response);
+        };
+    }
+
     @Bean
     Logger.Level feignLoggerLevel() {
         return Logger.Level.FULL;
@@ -0,0 +1,22 @@
+package com.revcart.orderservice.config;
+
+import com.revcart.orderservice.registry.LoadBalancerConfig;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+@EnableScheduling
+@LoadBalancerClients(defaultConfiguration = LoadBalancerConfig.class)
+public class ServiceRegistryConfig {
+
+    /**
+     * Plain (not load-balanced) client used by the LoadBalancer health checks.
+     */
+    @Bean
+    public RestTemplate healthCheckRestTemplate() {
+        return new RestTemplate();
+    }
+}
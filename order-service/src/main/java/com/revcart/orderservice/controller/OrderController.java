@@ -3,8 +3,13 @@ package com.revcart.orderservice.controller;
 import com.revcart.orderservice.dto.ApiResponse;
 import com.revcart.orderservice.dto.CheckoutRequest;
 import com.revcart.orderservice.dto.OrderDto;
+import com.revcart.orderservice.dto.OrderPaymentStateDto;
+import com.revcart.orderservice.dto.OrderSummaryDto;
+import com.revcart.orderservice.dto.PaymentStatusBatchResult;
+import com.revcart.orderservice.dto.PaymentStatusUpdate;
 import com.revcart.orderservice.entity.Order;
 import com.revcart.orderservice.service.OrderService;
+import com.revcart.orderservice.service.PaymentStatusBatchService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -18,6 +23,7 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final PaymentStatusBatchService paymentStatusBatchService;
 
     @PostMapping("/checkout")
     public ResponseEntity<ApiResponse<OrderDto>> checkout(
@@ -46,6 +52,12 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(order, "Order retrieved successfully"));
     }
 
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<ApiResponse<OrderSummaryDto>> getOrderSummary(@PathVariable Long id) {
+        OrderSummaryDto summary = orderService.getOrderSummary(id);
+        return ResponseEntity.ok(ApiResponse.success(summary, "Order summary retrieved"));
+    }
+
     @PutMapping("/{id}/status")
     public ResponseEntity<ApiResponse<OrderDto>> updateOrderStatus(
             @PathVariable Long id,
@@ -54,6 +66,14 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(order, "Order status updated"));
     }
 
+    @PutMapping("/status/batch")
+    public ResponseEntity<ApiResponse<Integer>> updateOrderStatuses(
+            @RequestParam Order.OrderStatus status,
+            @RequestBody List<Long> orderIds) {
+        int updated = orderService.updateOrderStatuses(orderIds, status);
+        return ResponseEntity.ok(ApiResponse.success(updated, "Order statuses updated"));
+    }
+
     @PostMapping("/{id}/cancel")
     public ResponseEntity<ApiResponse<Void>> cancelOrder(
             @PathVariable Long id,
@@ -81,4 +101,20 @@ public class OrderController {
         orderService.updatePaymentStatus(id, status);
         return ResponseEntity.ok(ApiResponse.success(null, "Payment status updated"));
     }
+
+    @GetMapping("/payment-states")
+    public ResponseEntity<ApiResponse<List<OrderPaymentStateDto>>> getPaymentStates(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "9223372036854775807") Long toId,
+            @RequestParam(defaultValue = "2000") int limit) {
+        List<OrderPaymentStateDto> states = orderService.getPaymentStates(afterId, toId, limit);
+        return ResponseEntity.ok(ApiResponse.success(states, "Order payment states retrieved"));
+    }
+
+    @PutMapping("/payment-status/batch")
+    public ResponseEntity<ApiResponse<PaymentStatusBatchResult>> updatePaymentStatuses(
+            @RequestBody List<PaymentStatusUpdate> updates) {
+        PaymentStatusBatchResult result = paymentStatusBatchService.apply(updates);
+        return ResponseEntity.ok(ApiResponse.success(result, "Payment statuses updated"));
+    }
 }
@@ -14,4 +14,16 @@ public class AssignDeliveryRequest {
     private Long userId;
     private Long agentId;
     private LocalDateTime estimatedDeliveryDate;
+    private String street;
+    private String city;
+    private String state;
+    private String zipCode;
+    private String country;
+
+    public AssignDeliveryRequest(Long orderId, Long userId, Long agentId, LocalDateTime estimatedDeliveryDate) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.agentId = agentId;
+        this.estimatedDeliveryDate = estimatedDeliveryDate;
+    }
 }
@@ -0,0 +1,14 @@
+package com.revcart.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationRequest {
+    private Long userId;
+    private String type;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package com.revcart.orderservice.dto;
+
+import com.revcart.orderservice.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPaymentStateDto {
+    private Long id;
+    private Order.PaymentStatus paymentStatus;
+    private String paymentMethod;
+    private LocalDateTime updatedAt;
+}
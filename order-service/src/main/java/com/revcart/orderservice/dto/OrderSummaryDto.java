@@ -0,0 +1,21 @@
+package com.revcart.orderservice.dto;
+
+import com.revcart.orderservice.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order fields other services need to validate against, read from the orders row alone
+ * (no customer lookup, unlike {@link OrderDto}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+    private Long id;
+    private Long userId;
+    private Double totalAmount;
+    private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
+}
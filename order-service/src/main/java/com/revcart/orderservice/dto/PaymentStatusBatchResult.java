@@ -0,0 +1,16 @@
+package com.revcart.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusBatchResult {
+    private int applied;
+    private List<Long> unknownOrderIds;
+    // Updates carrying a status this service does not recognise
+    private List<Long> rejectedOrderIds;
+}
@@ -0,0 +1,13 @@
+package com.revcart.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusUpdate {
+    private Long orderId;
+    private String status;
+}
@@ -0,0 +1,26 @@
+package com.revcart.orderservice.registry;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-client LoadBalancer configuration: instances come from {@link ServiceRegistry} and are
+ * filtered by periodic {@code /actuator/health} checks, so a dead instance drops out of rotation.
+ * Deliberately not a {@code @Configuration} - it is only loaded into each client's child context.
+ */
+public class LoadBalancerConfig {
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                   Environment environment,
+                                                                   ServiceRegistry registry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return ServiceInstanceListSupplier.builder()
+                .withBase(new RegistryServiceInstanceListSupplier(serviceId, registry))
+                .withBlockingHealthChecks()
+                .build(context);
+    }
+}
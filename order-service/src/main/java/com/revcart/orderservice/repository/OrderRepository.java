@@ -1,9 +1,14 @@
 package com.revcart.orderservice.repository;
 
+import com.revcart.orderservice.dto.OrderPaymentStateDto;
 import com.revcart.orderservice.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +22,30 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT DISTINCT o.userId FROM Order o")
     List<Long> findDistinctUserIds();
-}
 
+    @Query("SELECT o.id, o.userId FROM Order o WHERE o.id IN :ids")
+    List<Object[]> findUserIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.paymentStatus = :paymentStatus, o.updatedAt = CURRENT_TIMESTAMP WHERE o.id IN :ids")
+    int updatePaymentStatus(@Param("ids") Collection<Long> ids,
+                            @Param("paymentStatus") Order.PaymentStatus paymentStatus);
+
+    // The order status only moves forward from PENDING, so a late or replayed callback cannot pull back a shipped order
+    @Modifying
+    @Query("UPDATE Order o SET o.paymentStatus = :paymentStatus, " +
+            "o.status = CASE WHEN o.status = com.revcart.orderservice.entity.Order.OrderStatus.PENDING THEN :status ELSE o.status END, " +
+            "o.updatedAt = CURRENT_TIMESTAMP WHERE o.id IN :ids")
+    int updatePaymentAndOrderStatus(@Param("ids") Collection<Long> ids,
+                                    @Param("paymentStatus") Order.PaymentStatus paymentStatus,
+                                    @Param("status") Order.OrderStatus status);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = CURRENT_TIMESTAMP WHERE o.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Order.OrderStatus status);
+
+    // Keyset page over the primary key for payment reconciliation
+    @Query("SELECT new com.revcart.orderservice.dto.OrderPaymentStateDto(o.id, o.paymentStatus, o.paymentMethod, o.updatedAt) " +
+            "FROM Order o WHERE o.id > :afterId AND o.id <= :toId ORDER BY o.id")
+    List<OrderPaymentStateDto> findPaymentStates(@Param("afterId") Long afterId, @Param("toId") Long toId, Pageable pageable);
+}
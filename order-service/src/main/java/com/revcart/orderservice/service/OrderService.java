@@ -13,6 +13,7 @@ import com.revcart.orderservice.entity.OrderItem;
 import com.revcart.orderservice.exception.BadRequestException;
 import com.revcart.orderservice.exception.ResourceNotFoundException;
 import com.revcart.orderservice.repository.OrderRepository;
+import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -79,11 +80,13 @@ public class OrderService {
 
         // 4. Get delivery address
         log.info("Fetching address: {}", request.getAddressId());
-        ApiResponse<List<AddressDto>> addressResponse = userServiceClient.getAddresses(userId);
-        AddressDto address = addressResponse.getData().stream()
-                .filter(a -> a.getId().equals(request.getAddressId()))
-                .findFirst()
-                .orElseThrow(() -> new BadRequestException("Address not found"));
+        // Single-address lookup, served from user-service's per-user address cache
+        AddressDto address;
+        try {
+            address = userServiceClient.getAddress(userId, request.getAddressId()).getData();
+        } catch (FeignException.NotFound e) {
+            throw new BadRequestException("Address not found");
+        }
         log.info("Address found: {}, {}", address.getCity(), address.getState());
 
         // 5. Reserve stock (non-blocking)
@@ -187,8 +190,17 @@ public class OrderService {
                     order.getId(),
                     userId,
                     null,
-                    java.time.LocalDateTime.now().plusDays(3)
+                    null
             );
+            // Agent and estimated delivery date are chosen by delivery-service from the address
+            DeliveryAddress address = order.getDeliveryAddress();
+            if (address != null) {
+                deliveryRequest.setStreet(address.getStreet());
+                deliveryRequest.setCity(address.getCity());
+                deliveryRequest.setState(address.getState());
+                deliveryRequest.setZipCode(address.getZipCode());
+                deliveryRequest.setCountry(address.getCountry());
+            }
             deliveryServiceClient.assignDelivery(deliveryRequest);
             log.info("Delivery assigned for order: {}", order.getId());
         } catch (Exception e) {
@@ -274,6 +286,20 @@ public class OrderService {
         }
     }
 
+    /**
+     * Sets one status on many orders with a single update, for delivery-service batch handoffs.
+     * Unlike {@link #updateOrderStatus} it sends no notifications; the caller batches its own.
+     */
+    @Transactional
+    public int updateOrderStatuses(List<Long> orderIds, Order.OrderStatus status) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        int updated = orderRepository.updateStatus(orderIds, status);
+        log.info("Order statuses updated: {} of {} orders -> {}", updated, orderIds.size(), status);
+        return updated;
+    }
+
     @Transactional
     public void cancelOrder(Long id, Long userId) {
         Order order = orderRepository.findById(id)
@@ -310,6 +336,20 @@ public class OrderService {
         log.info("Order cancelled: {}", id);
     }
 
+    public OrderSummaryDto getOrderSummary(Long id) {
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        return new OrderSummaryDto(order.getId(), order.getUserId(), order.getTotalAmount(),
+                order.getStatus(), order.getPaymentStatus());
+    }
+
+    public List<OrderPaymentStateDto> getPaymentStates(Long afterId, Long toId, int limit) {
+        if (limit < 1 || limit > 10000) {
+            throw new BadRequestException("limit must be between 1 and 10000");
+        }
+        return orderRepository.findPaymentStates(afterId, toId, org.springframework.data.domain.PageRequest.of(0, limit));
+    }
+
     public boolean validateOrder(Long orderId) {
         return orderRepository.existsById(orderId);
     }
@@ -363,12 +403,10 @@ public class OrderService {
                 log.warn("Active users count is null");
             }
             
-            log.info("Fetching all users from user service...");
-            ApiResponse<Object> usersResponse = userServiceClient.getAllUsers();
-            if (usersResponse.isSuccess() && usersResponse.getData() != null) {
-                @SuppressWarnings("unchecked")
-                java.util.List<java.util.Map<String, Object>> users = (java.util.List<java.util.Map<String, Object>>) usersResponse.getData();
-                totalUsers = users.size();
+            log.info("Fetching user counts from user service...");
+            ApiResponse<java.util.Map<String, Object>> countsResponse = userServiceClient.getUserCounts();
+            if (countsResponse.isSuccess() && countsResponse.getData() != null) {
+                totalUsers = ((Number) countsResponse.getData().getOrDefault("total", 0)).longValue();
                 log.info("Total users count: {}", totalUsers);
             } else {
                 log.warn("Failed to get users response or data is null");
@@ -0,0 +1,140 @@
+package com.revcart.orderservice.service;
+
+import com.revcart.orderservice.client.NotificationServiceClient;
+import com.revcart.orderservice.dto.NotificationRequest;
+import com.revcart.orderservice.dto.PaymentStatusBatchResult;
+import com.revcart.orderservice.dto.PaymentStatusUpdate;
+import com.revcart.orderservice.entity.Order;
+import com.revcart.orderservice.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a batch of payment-status callbacks from payment-service in one transaction.
+ * <p>
+ * Updates are applied in rounds: round N holds the N-th update of each order in batch order, so
+ * an order that changed twice within one batch (e.g. COMPLETED then REFUNDED) ends up in its
+ * latest state. Within a round every distinct target status is one {@code UPDATE ... WHERE id IN}.
+ * Order confirmations are sent to notification-service as one batch after commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentStatusBatchService {
+
+    private final OrderRepository orderRepository;
+    private final NotificationServiceClient notificationServiceClient;
+
+    @Transactional
+    public PaymentStatusBatchResult apply(List<PaymentStatusUpdate> updates) {
+        List<Long> orderIds = updates.stream().map(PaymentStatusUpdate::getOrderId).distinct().collect(Collectors.toList());
+        Map<Long, Long> userIds = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            for (Object[] row : orderRepository.findUserIdsByIdIn(orderIds)) {
+                userIds.put((Long) row[0], (Long) row[1]);
+            }
+        }
+
+        List<Long> unknown = new ArrayList<>();
+        List<Long> rejected = new ArrayList<>();
+        List<List<Transition>> rounds = new ArrayList<>();
+        Map<Long, Integer> seen = new HashMap<>();
+        for (PaymentStatusUpdate update : updates) {
+            if (!userIds.containsKey(update.getOrderId())) {
+                unknown.add(update.getOrderId());
+                continue;
+            }
+            Transition transition = Transition.of(update);
+            if (transition == null) {
+                rejected.add(update.getOrderId());
+                continue;
+            }
+            int round = seen.merge(update.getOrderId(), 1, Integer::sum) - 1;
+            if (rounds.size() <= round) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(transition);
+        }
+
+        int applied = 0;
+        List<NotificationRequest> notifications = new ArrayList<>();
+        for (List<Transition> round : rounds) {
+            Map<Target, List<Long>> byTarget = new LinkedHashMap<>();
+            for (Transition transition : round) {
+                byTarget.computeIfAbsent(transition.target(), target -> new ArrayList<>()).add(transition.orderId());
+            }
+            for (Map.Entry<Target, List<Long>> entry : byTarget.entrySet()) {
+                Target target = entry.getKey();
+                List<Long> ids = entry.getValue();
+                applied += target.orderStatus() == null
+                        ? orderRepository.updatePaymentStatus(ids, target.paymentStatus())
+                        : orderRepository.updatePaymentAndOrderStatus(ids, target.paymentStatus(), target.orderStatus());
+                if (target.confirmsOrder()) {
+                    ids.forEach(id -> notifications.add(new NotificationRequest(userIds.get(id), "ORDER_CONFIRMED",
+                            "Your order #" + id + " has been confirmed")));
+                }
+            }
+        }
+
+        if (!unknown.isEmpty() || !rejected.isEmpty()) {
+            log.warn("Payment status batch: unknown orders {}, rejected updates for orders {}", unknown, rejected);
+        }
+        log.info("✅ Payment status batch applied: {} updates in {} rounds", applied, rounds.size());
+        sendAfterCommit(notifications);
+        return new PaymentStatusBatchResult(applied, unknown, rejected);
+    }
+
+    private void sendAfterCommit(List<NotificationRequest> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    notificationServiceClient.createNotifications(notifications);
+                } catch (Exception e) {
+                    log.error("Failed to send {} order confirmations: {}", notifications.size(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private record Target(Order.PaymentStatus paymentStatus, Order.OrderStatus orderStatus, boolean confirmsOrder) {
+    }
+
+    private record Transition(Long orderId, Target target) {
+
+        // Mirrors OrderService.updatePaymentStatus
+        static Transition of(PaymentStatusUpdate update) {
+            if (update.getStatus() == null) {
+                return null;
+            }
+            String status = update.getStatus().toUpperCase(Locale.ROOT);
+            if ("PAYMENT_SUCCESS".equals(status)) {
+                return new Transition(update.getOrderId(),
+                        new Target(Order.PaymentStatus.COMPLETED, Order.OrderStatus.PAYMENT_SUCCESS, true));
+            }
+            try {
+                Order.PaymentStatus paymentStatus = Order.PaymentStatus.valueOf(status);
+                Order.OrderStatus orderStatus = paymentStatus == Order.PaymentStatus.COMPLETED
+                        ? Order.OrderStatus.PAYMENT_SUCCESS : null;
+                return new Transition(update.getOrderId(), new Target(paymentStatus, orderStatus, false));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
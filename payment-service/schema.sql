@@ -13,12 +13,15 @@ CREATE TABLE IF NOT EXISTS payments (
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
     transaction_id VARCHAR(100),
     failure_reason VARCHAR(500),
+    upi_id VARCHAR(100),
+    order_verified BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_order (order_id),
     INDEX idx_user (user_id),
     INDEX idx_status (status),
-    INDEX idx_transaction (transaction_id)
+    INDEX idx_transaction (transaction_id),
+    INDEX idx_payments_unverified (order_verified, status, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Sample Data
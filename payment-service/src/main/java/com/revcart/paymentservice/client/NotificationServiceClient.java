@@ -1,12 +1,13 @@
 package com.revcart.paymentservice.client;
 
+import com.revcart.paymentservice.config.NotificationFeignConfig;
 import com.revcart.paymentservice.dto.ApiResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "notification-service", url = "${services.notification-service.url}")
+@FeignClient(name = "notification-service", url = "${services.notification-service.url}", configuration = NotificationFeignConfig.class)
 public interface NotificationServiceClient {
     
     @PostMapping("/api/notifications/payment/{paymentId}")
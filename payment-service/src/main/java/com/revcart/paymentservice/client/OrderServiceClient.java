@@ -1,18 +1,39 @@
 package com.revcart.paymentservice.client;
 
 import com.revcart.paymentservice.dto.ApiResponse;
+import com.revcart.paymentservice.dto.OrderPaymentStateDto;
+import com.revcart.paymentservice.dto.OrderSummaryDto;
+import com.revcart.paymentservice.dto.PaymentStatusUpdate;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+import java.util.Map;
+
 @FeignClient(name = "order-service", url = "${services.order-service.url}")
 public interface OrderServiceClient {
     
     @GetMapping("/api/orders/{id}")
     ApiResponse<Object> getOrderById(@PathVariable Long id);
     
+    // Reads only the orders row; no customer lookup on the order-service side
+    @GetMapping("/api/orders/{id}/summary")
+    ApiResponse<OrderSummaryDto> getOrderSummary(@PathVariable("id") Long id);
+    
     @PutMapping("/api/orders/{orderId}/payment-status")
     ApiResponse<Object> updatePaymentStatus(@PathVariable("orderId") Long orderId, @RequestParam("status") String status);
+
+    // Applied in list order per order; the response reports applied, unknown and rejected updates
+    @PutMapping("/api/orders/payment-status/batch")
+    ApiResponse<Map<String, Object>> updatePaymentStatuses(@RequestBody List<PaymentStatusUpdate> updates);
+
+    // Orders with afterId < id <= toId in id order, at most limit rows
+    @GetMapping("/api/orders/payment-states")
+    ApiResponse<List<OrderPaymentStateDto>> getPaymentStates(@RequestParam("afterId") Long afterId,
+                                                             @RequestParam("toId") Long toId,
+                                                             @RequestParam("limit") int limit);
 }
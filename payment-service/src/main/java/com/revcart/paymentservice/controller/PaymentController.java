@@ -1,6 +1,7 @@
 package com.revcart.paymentservice.controller;
 
 import com.revcart.paymentservice.dto.*;
+import com.revcart.paymentservice.service.PaymentReconciliationService;
 import com.revcart.paymentservice.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,7 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentReconciliationService paymentReconciliationService;
 
     @PostMapping("/initiate")
     public ResponseEntity<ApiResponse<PaymentDto>> initiatePayment(@Valid @RequestBody PaymentInitiateRequest request) {
@@ -52,4 +54,19 @@ public class PaymentController {
         DummyPaymentResponse response = paymentService.processDummyPayment(request);
         return ResponseEntity.ok(ApiResponse.success(response, "Payment processed successfully"));
     }
+
+    @PostMapping("/reconciliation/run")
+    public ResponseEntity<ApiResponse<ReconciliationReport>> runReconciliation(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        ReconciliationReport report = paymentReconciliationService.start(repair);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(report, "Reconciliation started"));
+    }
+
+    @GetMapping("/reconciliation/last")
+    public ResponseEntity<ApiResponse<ReconciliationReport>> getLastReconciliation() {
+        ReconciliationReport report = paymentReconciliationService.getLastReport();
+        return ResponseEntity.ok(ApiResponse.success(report,
+                report == null ? "No reconciliation has run yet" : "Reconciliation report retrieved successfully"));
+    }
 }
@@ -0,0 +1,24 @@
+package com.revcart.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Discrepancy {
+    private Long orderId;
+    private Type type;
+    private String paymentStatus;
+    private String orderPaymentStatus;
+
+    public enum Type {
+        // Payment status and order payment_status disagree
+        STATUS_MISMATCH,
+        // Payment exists but order-service has no such order
+        ORPHAN_PAYMENT,
+        // Order claims a completed or refunded payment that payment-service has no record of
+        MISSING_PAYMENT
+    }
+}
@@ -0,0 +1,16 @@
+package com.revcart.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPaymentStateDto {
+    private Long id;
+    private String paymentStatus;
+    private String paymentMethod;
+    private LocalDateTime updatedAt;
+}
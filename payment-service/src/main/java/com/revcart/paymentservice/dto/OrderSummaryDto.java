@@ -0,0 +1,16 @@
+package com.revcart.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+    private Long id;
+    private Long userId;
+    private Double totalAmount;
+    private String status;
+    private String paymentStatus;
+}
@@ -0,0 +1,26 @@
+package com.revcart.paymentservice.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class ReconciliationReport {
+    private String status = "RUNNING";
+    private boolean repair;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long durationMs;
+    private int chunks;
+    private long paymentsScanned;
+    private long ordersScanned;
+    private long skippedInFlight;
+    private long repairsQueued;
+    private Map<Discrepancy.Type, Long> discrepancies = new EnumMap<>(Discrepancy.Type.class);
+    // First discrepancies found, capped by payments.reconciliation.sample-size
+    private List<Discrepancy> sample = new ArrayList<>();
+    private List<String> errors = new ArrayList<>();
+}
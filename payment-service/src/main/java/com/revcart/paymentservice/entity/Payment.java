@@ -7,7 +7,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_unverified", columnList = "order_verified, status, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +18,8 @@ public class Payment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "order_id", nullable = false)
+    // Unique: initiation relies on it to deduplicate instead of checking first
+    @Column(name = "order_id", nullable = false, unique = true)
     private Long orderId;
 
     @Column(name = "user_id", nullable = false)
@@ -41,6 +44,10 @@ public class Payment {
     @Column(name = "upi_id")
     private String upiId;
 
+    // Set once the order has been checked against order-service (asynchronously after initiation)
+    @Column(name = "order_verified", nullable = false)
+    private Boolean orderVerified = false;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
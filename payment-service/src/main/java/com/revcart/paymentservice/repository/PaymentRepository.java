@@ -1,8 +1,14 @@
 package com.revcart.paymentservice.repository;
 
 import com.revcart.paymentservice.entity.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,5 +16,51 @@ import java.util.Optional;
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrderId(Long orderId);
     List<Payment> findByUserIdOrderByCreatedAtDesc(Long userId);
-    boolean existsByOrderId(Long orderId);
+
+    List<Payment> findByOrderVerifiedFalseAndStatusAndCreatedAtBeforeOrderByIdAsc(
+            Payment.PaymentStatus status, LocalDateTime createdBefore, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.orderVerified = true WHERE p.id = :id")
+    int markOrderVerified(@Param("id") Long id);
+
+    // Only a still-pending payment is failed; one already verified by the gateway callback is left alone
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.revcart.paymentservice.entity.Payment.PaymentStatus.FAILED, " +
+            "p.failureReason = :reason, p.orderVerified = true, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.status = com.revcart.paymentservice.entity.Payment.PaymentStatus.PENDING")
+    int failPendingPayment(@Param("id") Long id, @Param("reason") String reason);
+
+    // A success whose order check could not run at the time and turns out not to match its order
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.revcart.paymentservice.entity.Payment.PaymentStatus.FAILED, " +
+            "p.failureReason = :reason, p.orderVerified = true, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.status = com.revcart.paymentservice.entity.Payment.PaymentStatus.SUCCESS " +
+            "AND p.orderVerified = false")
+    int failUnverifiedSuccess(@Param("id") Long id, @Param("reason") String reason);
+
+    // Gateway outcome; conditional so it never overwrites a payment the order check has failed meanwhile
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.revcart.paymentservice.entity.Payment.PaymentStatus.SUCCESS, " +
+            "p.transactionId = :transactionId, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.status = com.revcart.paymentservice.entity.Payment.PaymentStatus.PENDING")
+    int completePendingPayment(@Param("id") Long id, @Param("transactionId") String transactionId);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.revcart.paymentservice.entity.Payment.PaymentStatus.FAILED, " +
+            "p.failureReason = :reason, p.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE p.id = :id AND p.status = com.revcart.paymentservice.entity.Payment.PaymentStatus.PENDING")
+    int declinePendingPayment(@Param("id") Long id, @Param("reason") String reason);
+
+    // Keyset page over the unique order_id index for reconciliation
+    List<PaymentStateView> findByOrderIdGreaterThanAndOrderIdLessThanEqualOrderByOrderIdAsc(
+            Long afterOrderId, Long toOrderId, Pageable pageable);
+
+    @Query("SELECT MAX(p.orderId) FROM Payment p")
+    Long findMaxOrderId();
 }
@@ -0,0 +1,13 @@
+package com.revcart.paymentservice.repository;
+
+import com.revcart.paymentservice.entity.Payment;
+import java.time.LocalDateTime;
+
+/**
+ * Columns reconciliation compares, fetched without materializing full {@code Payment} entities.
+ */
+public interface PaymentStateView {
+    Long getOrderId();
+    Payment.PaymentStatus getStatus();
+    LocalDateTime getUpdatedAt();
+}
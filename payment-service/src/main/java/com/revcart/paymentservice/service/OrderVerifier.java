@@ -0,0 +1,140 @@
+package com.revcart.paymentservice.service;
+
+import com.revcart.paymentservice.client.OrderServiceClient;
+import com.revcart.paymentservice.dto.ApiResponse;
+import com.revcart.paymentservice.dto.OrderSummaryDto;
+import com.revcart.paymentservice.entity.Payment;
+import com.revcart.paymentservice.repository.PaymentRepository;
+import feign.FeignException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks a freshly initiated payment against its order off the request path. A payment whose
+ * order is missing, belongs to another user or has a different total is failed; a payment whose
+ * check could not run (order-service down, queue full) stays unverified and is picked up by the
+ * periodic sweep, including one that has been marked SUCCESS meanwhile.
+ */
+@Component
+@Slf4j
+public class OrderVerifier {
+
+    private static final double AMOUNT_TOLERANCE = 0.01;
+
+    private final OrderServiceClient orderServiceClient;
+    private final PaymentRepository paymentRepository;
+    private final PaymentStatusPublisher paymentStatusPublisher;
+    private final ThreadPoolExecutor executor;
+    private final Duration sweepGrace;
+    private final int sweepBatchSize;
+
+    public OrderVerifier(OrderServiceClient orderServiceClient,
+                         PaymentRepository paymentRepository,
+                         PaymentStatusPublisher paymentStatusPublisher,
+                         @Value("${payments.verification.threads:4}") int threads,
+                         @Value("${payments.verification.queue-capacity:1000}") int queueCapacity,
+                         @Value("${payments.verification.sweep-grace:PT30S}") Duration sweepGrace,
+                         @Value("${payments.verification.sweep-batch-size:200}") int sweepBatchSize) {
+        this.orderServiceClient = orderServiceClient;
+        this.paymentRepository = paymentRepository;
+        this.paymentStatusPublisher = paymentStatusPublisher;
+        this.sweepGrace = sweepGrace;
+        this.sweepBatchSize = sweepBatchSize;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "order-verifier-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public void submit(Payment payment) {
+        try {
+            executor.execute(() -> verify(payment));
+        } catch (RejectedExecutionException e) {
+            log.warn("Verification queue full, payment {} left for the sweep", payment.getId());
+        }
+    }
+
+    /**
+     * Runs the check synchronously. Only {@link Outcome#VERIFIED} marks the payment verified; a
+     * mismatch fails it if it is still pending or an unverified success, and an order-service
+     * outage leaves it untouched for the sweep.
+     */
+    public Outcome verify(Payment payment) {
+        OrderSummaryDto order;
+        try {
+            ApiResponse<OrderSummaryDto> response = orderServiceClient.getOrderSummary(payment.getOrderId());
+            order = response.getData();
+        } catch (FeignException.NotFound e) {
+            order = null;
+        } catch (Exception e) {
+            log.warn("Could not verify order {} for payment {}: {}", payment.getOrderId(), payment.getId(), e.getMessage());
+            return Outcome.UNAVAILABLE;
+        }
+
+        String reason = mismatch(payment, order);
+        if (reason == null) {
+            paymentRepository.markOrderVerified(payment.getId());
+            log.debug("Payment {} verified against order {}", payment.getId(), payment.getOrderId());
+            return Outcome.VERIFIED;
+        }
+        if (paymentRepository.failPendingPayment(payment.getId(), reason) > 0) {
+            log.warn("❌ Payment {} failed verification: {}", payment.getId(), reason);
+        } else if (paymentRepository.failUnverifiedSuccess(payment.getId(), reason) > 0) {
+            // order-service was told COMPLETED when the payment succeeded
+            paymentStatusPublisher.publish(payment.getOrderId(), "FAILED");
+            log.error("❌ Successful payment {} failed verification: {}", payment.getId(), reason);
+        }
+        return Outcome.MISMATCH;
+    }
+
+    @Scheduled(fixedDelayString = "${payments.verification.sweep-interval-ms:30000}")
+    public void sweep() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(sweepGrace);
+        for (Payment.PaymentStatus status : List.of(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.SUCCESS)) {
+            List<Payment> unverified = paymentRepository.findByOrderVerifiedFalseAndStatusAndCreatedAtBeforeOrderByIdAsc(
+                    status, createdBefore, PageRequest.of(0, sweepBatchSize));
+            if (!unverified.isEmpty()) {
+                log.info("Verifying {} unverified {} payments", unverified.size(), status);
+                unverified.forEach(this::verify);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static String mismatch(Payment payment, OrderSummaryDto order) {
+        if (order == null) {
+            return "Order not found: " + payment.getOrderId();
+        }
+        if (!payment.getUserId().equals(order.getUserId())) {
+            return "Order " + payment.getOrderId() + " belongs to another user";
+        }
+        if (order.getTotalAmount() != null && Math.abs(order.getTotalAmount() - payment.getAmount()) > AMOUNT_TOLERANCE) {
+            return "Amount " + payment.getAmount() + " does not match order total " + order.getTotalAmount();
+        }
+        return null;
+    }
+
+    public enum Outcome {
+        VERIFIED, MISMATCH, UNAVAILABLE
+    }
+}
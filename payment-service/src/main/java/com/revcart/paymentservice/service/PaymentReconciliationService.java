@@ -0,0 +1,327 @@
+package com.revcart.paymentservice.service;
+
+import com.revcart.paymentservice.client.OrderServiceClient;
+import com.revcart.paymentservice.dto.ApiResponse;
+import com.revcart.paymentservice.dto.Discrepancy;
+import com.revcart.paymentservice.dto.OrderPaymentStateDto;
+import com.revcart.paymentservice.dto.ReconciliationReport;
+import com.revcart.paymentservice.entity.Payment;
+import com.revcart.paymentservice.exception.BadRequestException;
+import com.revcart.paymentservice.repository.PaymentRepository;
+import com.revcart.paymentservice.repository.PaymentStateView;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Compares {@code payments} with order-service's {@code orders.payment_status}.
+ * <p>
+ * The order id space is split into fixed-size ranges that are reconciled in parallel. Within a
+ * range both sides are streamed in order_id order through keyset pages (the unique order_id index
+ * here, the primary key there) and merge-joined, so memory per range is two pages regardless of
+ * table size. Rows touched within the grace window are skipped, since their status change may
+ * still be in flight on the batched callback channel.
+ * <p>
+ * Payments are the source of truth: with repair enabled, mismatches on settled payments are
+ * re-published through {@link PaymentStatusPublisher}. Orphan and missing payments are only reported.
+ */
+@Service
+@Slf4j
+public class PaymentReconciliationService {
+
+    private final PaymentRepository paymentRepository;
+    private final OrderServiceClient orderServiceClient;
+    private final PaymentStatusPublisher paymentStatusPublisher;
+    private final int pageSize;
+    private final long chunkSize;
+    private final int parallelism;
+    private final Duration grace;
+    private final int sampleSize;
+    private final boolean scheduledEnabled;
+    private final boolean scheduledRepair;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "payment-reconciliation"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationReport lastReport;
+
+    public PaymentReconciliationService(PaymentRepository paymentRepository,
+                                        OrderServiceClient orderServiceClient,
+                                        PaymentStatusPublisher paymentStatusPublisher,
+                                        @Value("${payments.reconciliation.page-size:2000}") int pageSize,
+                                        @Value("${payments.reconciliation.chunk-size:200000}") long chunkSize,
+                                        @Value("${payments.reconciliation.parallelism:4}") int parallelism,
+                                        @Value("${payments.reconciliation.grace:PT10M}") Duration grace,
+                                        @Value("${payments.reconciliation.sample-size:1000}") int sampleSize,
+                                        @Value("${payments.reconciliation.enabled:true}") boolean scheduledEnabled,
+                                        @Value("${payments.reconciliation.repair:false}") boolean scheduledRepair) {
+        this.paymentRepository = paymentRepository;
+        this.orderServiceClient = orderServiceClient;
+        this.paymentStatusPublisher = paymentStatusPublisher;
+        this.pageSize = pageSize;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.grace = grace;
+        this.sampleSize = sampleSize;
+        this.scheduledEnabled = scheduledEnabled;
+        this.scheduledRepair = scheduledRepair;
+    }
+
+    @Scheduled(cron = "${payments.reconciliation.cron:0 15 * * * *}")
+    public void scheduledRun() {
+        if (scheduledEnabled && !running.get()) {
+            start(scheduledRepair);
+        }
+    }
+
+    /**
+     * Starts a run in the background and returns its initial report.
+     */
+    public ReconciliationReport start(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("Reconciliation is already running");
+        }
+        ReconciliationReport report = new ReconciliationReport();
+        report.setRepair(repair);
+        report.setStartedAt(LocalDateTime.now());
+        lastReport = report;
+        coordinator.execute(() -> {
+            try {
+                lastReport = run(repair, report.getStartedAt());
+            } catch (Exception e) {
+                log.error("❌ Payment reconciliation failed", e);
+                ReconciliationReport failed = new ReconciliationReport();
+                failed.setRepair(repair);
+                failed.setStartedAt(report.getStartedAt());
+                failed.setFinishedAt(LocalDateTime.now());
+                failed.setStatus("FAILED");
+                failed.getErrors().add(e.getMessage());
+                lastReport = failed;
+            } finally {
+                running.set(false);
+            }
+        });
+        return report;
+    }
+
+    public ReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private ReconciliationReport run(boolean repair, LocalDateTime startedAt) throws InterruptedException {
+        LocalDateTime cutoff = startedAt.minus(grace);
+        Long maxPaymentOrderId = paymentRepository.findMaxOrderId();
+        long maxOrderId = maxPaymentOrderId == null ? 0 : maxPaymentOrderId;
+
+        // Ranges are (lo, hi]; the last one is open-ended to cover orders newer than any payment
+        List<long[]> ranges = new ArrayList<>();
+        for (long lo = 0; lo < maxOrderId; lo += chunkSize) {
+            ranges.add(new long[]{lo, Math.min(lo + chunkSize, maxOrderId)});
+        }
+        ranges.add(new long[]{maxOrderId, Long.MAX_VALUE});
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+                runnable -> new Thread(runnable, "payment-reconciliation-" + threadCount.incrementAndGet()));
+        ReconciliationReport report = new ReconciliationReport();
+        report.setRepair(repair);
+        report.setStartedAt(startedAt);
+        report.setChunks(ranges.size());
+        try {
+            List<Future<ChunkResult>> futures = new ArrayList<>();
+            for (long[] range : ranges) {
+                futures.add(workers.submit(() -> reconcileRange(range[0], range[1], cutoff, repair)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    merge(report, futures.get(i).get());
+                } catch (ExecutionException e) {
+                    String message = "Range (" + ranges.get(i)[0] + ", " + ranges.get(i)[1] + "]: " + e.getCause().getMessage();
+                    log.error("Reconciliation chunk failed: {}", message);
+                    report.getErrors().add(message);
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        report.setFinishedAt(LocalDateTime.now());
+        report.setDurationMs(Duration.between(startedAt, report.getFinishedAt()).toMillis());
+        report.setStatus(report.getErrors().isEmpty() ? "COMPLETED" : "COMPLETED_WITH_ERRORS");
+        log.info("✅ Payment reconciliation {}: {} payments, {} orders, discrepancies {}, {} repairs queued, {} ms",
+                report.getStatus(), report.getPaymentsScanned(), report.getOrdersScanned(),
+                report.getDiscrepancies(), report.getRepairsQueued(), report.getDurationMs());
+        return report;
+    }
+
+    private ChunkResult reconcileRange(long lo, long hi, LocalDateTime cutoff, boolean repair) {
+        ChunkResult result = new ChunkResult();
+        KeysetCursor<PaymentStateView> payments = new KeysetCursor<>(lo, PaymentStateView::getOrderId,
+                after -> paymentRepository.findByOrderIdGreaterThanAndOrderIdLessThanEqualOrderByOrderIdAsc(
+                        after, hi, PageRequest.of(0, pageSize)));
+        KeysetCursor<OrderPaymentStateDto> orders = new KeysetCursor<>(lo, OrderPaymentStateDto::getId,
+                after -> fetchOrders(after, hi));
+
+        PaymentStateView payment = payments.next();
+        OrderPaymentStateDto order = orders.next();
+        while (payment != null || order != null) {
+            if (order == null || (payment != null && payment.getOrderId() < order.getId())) {
+                result.payments++;
+                if (inFlight(payment.getUpdatedAt(), cutoff)) {
+                    result.skipped++;
+                } else {
+                    result.add(new Discrepancy(payment.getOrderId(), Discrepancy.Type.ORPHAN_PAYMENT,
+                            payment.getStatus().name(), null), sampleSize);
+                }
+                payment = payments.next();
+            } else if (payment == null || order.getId() < payment.getOrderId()) {
+                result.orders++;
+                if (expectsPayment(order.getPaymentStatus())) {
+                    if (inFlight(order.getUpdatedAt(), cutoff)) {
+                        result.skipped++;
+                    } else {
+                        result.add(new Discrepancy(order.getId(), Discrepancy.Type.MISSING_PAYMENT,
+                                null, order.getPaymentStatus()), sampleSize);
+                    }
+                }
+                order = orders.next();
+            } else {
+                result.payments++;
+                result.orders++;
+                String expected = expectedOrderStatus(payment.getStatus());
+                if (!expected.equals(order.getPaymentStatus())) {
+                    if (inFlight(payment.getUpdatedAt(), cutoff) || inFlight(order.getUpdatedAt(), cutoff)) {
+                        result.skipped++;
+                    } else {
+                        result.add(new Discrepancy(order.getId(), Discrepancy.Type.STATUS_MISMATCH,
+                                payment.getStatus().name(), order.getPaymentStatus()), sampleSize);
+                        if (repair && payment.getStatus() != Payment.PaymentStatus.PENDING) {
+                            paymentStatusPublisher.publish(order.getId(), expected);
+                            result.repairs++;
+                        }
+                    }
+                }
+                payment = payments.next();
+                order = orders.next();
+            }
+        }
+        return result;
+    }
+
+    private List<OrderPaymentStateDto> fetchOrders(long afterId, long toId) {
+        RuntimeException last = null;
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            try {
+                ApiResponse<List<OrderPaymentStateDto>> response = orderServiceClient.getPaymentStates(afterId, toId, pageSize);
+                return response.getData() == null ? List.of() : response.getData();
+            } catch (RuntimeException e) {
+                last = e;
+                log.warn("Order page after {} failed (attempt {}/3): {}", afterId, attempt, e.getMessage());
+            }
+        }
+        throw last;
+    }
+
+    private static boolean inFlight(LocalDateTime updatedAt, LocalDateTime cutoff) {
+        return updatedAt != null && updatedAt.isAfter(cutoff);
+    }
+
+    private static boolean expectsPayment(String orderPaymentStatus) {
+        return "COMPLETED".equals(orderPaymentStatus) || "REFUNDED".equals(orderPaymentStatus);
+    }
+
+    // Payment status as order-service records it, see PaymentStatusBatchService on that side
+    private static String expectedOrderStatus(Payment.PaymentStatus status) {
+        return switch (status) {
+            case SUCCESS -> "COMPLETED";
+            case FAILED -> "FAILED";
+            case REFUNDED -> "REFUNDED";
+            case PENDING -> "PENDING";
+        };
+    }
+
+    private void merge(ReconciliationReport report, ChunkResult result) {
+        report.setPaymentsScanned(report.getPaymentsScanned() + result.payments);
+        report.setOrdersScanned(report.getOrdersScanned() + result.orders);
+        report.setSkippedInFlight(report.getSkippedInFlight() + result.skipped);
+        report.setRepairsQueued(report.getRepairsQueued() + result.repairs);
+        result.counts.forEach((type, count) -> report.getDiscrepancies().merge(type, count, Long::sum));
+        for (Discrepancy discrepancy : result.sample) {
+            if (report.getSample().size() >= sampleSize) {
+                break;
+            }
+            report.getSample().add(discrepancy);
+        }
+    }
+
+    private static final class ChunkResult {
+        private long payments;
+        private long orders;
+        private long skipped;
+        private long repairs;
+        private final Map<Discrepancy.Type, Long> counts = new EnumMap<>(Discrepancy.Type.class);
+        private final List<Discrepancy> sample = new ArrayList<>();
+
+        void add(Discrepancy discrepancy, int sampleSize) {
+            counts.merge(discrepancy.getType(), 1L, Long::sum);
+            if (sample.size() < sampleSize) {
+                sample.add(discrepancy);
+            }
+        }
+    }
+
+    /**
+     * Iterates a keyset-paged source in key order, holding one page at a time.
+     */
+    private final class KeysetCursor<T> {
+        private final Function<T, Long> key;
+        private final Function<Long, List<T>> fetch;
+        private long after;
+        private List<T> page = List.of();
+        private int index;
+        private boolean exhausted;
+
+        KeysetCursor(long after, Function<T, Long> key, Function<Long, List<T>> fetch) {
+            this.after = after;
+            this.key = key;
+            this.fetch = fetch;
+        }
+
+        T next() {
+            if (index == page.size()) {
+                if (exhausted) {
+                    return null;
+                }
+                page = fetch.apply(after);
+                index = 0;
+                exhausted = page.size() < pageSize;
+                if (page.isEmpty()) {
+                    return null;
+                }
+                after = key.apply(page.get(page.size() - 1));
+            }
+            return page.get(index++);
+        }
+    }
+}
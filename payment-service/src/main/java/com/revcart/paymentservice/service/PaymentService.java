@@ -1,8 +1,6 @@
 package com.revcart.paymentservice.service;
 
 import com.revcart.paymentservice.client.NotificationServiceClient;
-import com.revcart.paymentservice.client.OrderServiceClient;
-import com.revcart.paymentservice.client.UserServiceClient;
 import com.revcart.paymentservice.dto.*;
 import com.revcart.paymentservice.entity.Payment;
 import com.revcart.paymentservice.exception.BadRequestException;
@@ -10,6 +8,7 @@ import com.revcart.paymentservice.exception.ResourceNotFoundException;
 import com.revcart.paymentservice.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -23,34 +22,17 @@ import java.util.stream.Collectors;
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
-    private final OrderServiceClient orderServiceClient;
-    private final UserServiceClient userServiceClient;
+    private final PaymentStatusPublisher paymentStatusPublisher;
+    private final OrderVerifier orderVerifier;
     private final NotificationServiceClient notificationServiceClient;
 
-    @Transactional
+    /**
+     * Inserts a pending payment in one round trip and returns it; the order is verified
+     * asynchronously by {@link OrderVerifier}. Repeated initiation for the same order returns the
+     * existing payment, relying on the unique order_id constraint rather than a prior lookup.
+     * Deliberately not transactional: a constraint violation must not poison an outer transaction.
+     */
     public PaymentDto initiatePayment(PaymentInitiateRequest request) {
-        // Check if payment already exists for this order
-        if (paymentRepository.existsByOrderId(request.getOrderId())) {
-            throw new BadRequestException("Payment already initiated for this order");
-        }
-
-        // Verify order exists
-        try {
-            orderServiceClient.getOrderById(request.getOrderId());
-        } catch (Exception e) {
-            throw new BadRequestException("Order not found: " + request.getOrderId());
-        }
-
-        // Verify user exists
-        try {
-            userServiceClient.getUserById(request.getUserId());
-            log.debug("User validated for payment: {}", request.getUserId());
-        } catch (Exception e) {
-            log.warn("Failed to validate user for payment: {}", request.getUserId());
-            // Continue with payment initiation even if user validation fails
-        }
-
-        // Create payment record
         Payment payment = new Payment();
         payment.setOrderId(request.getOrderId());
         payment.setUserId(request.getUserId());
@@ -59,12 +41,25 @@ public class PaymentService {
         payment.setStatus(Payment.PaymentStatus.PENDING);
         payment.setTransactionId("TXN-" + UUID.randomUUID().toString());
 
-        Payment saved = paymentRepository.save(payment);
+        Payment saved;
+        try {
+            saved = paymentRepository.saveAndFlush(payment);
+        } catch (DataIntegrityViolationException e) {
+            Payment existing = paymentRepository.findByOrderId(request.getOrderId()).orElseThrow(() -> e);
+            if (!existing.getUserId().equals(request.getUserId())) {
+                throw new BadRequestException("Payment already initiated for this order");
+            }
+            log.info("Payment already initiated: {} for order: {}", existing.getId(), request.getOrderId());
+            return toDto(existing);
+        }
+
+        orderVerifier.submit(saved);
         log.info("Payment initiated: {} for order: {}", saved.getId(), request.getOrderId());
         return toDto(saved);
     }
 
-    @Transactional
+    // A failed inline order check must stay committed
+    @Transactional(noRollbackFor = BadRequestException.class)
     public PaymentDto verifyPayment(PaymentVerifyRequest request) {
         Payment payment = paymentRepository.findByOrderId(request.getOrderId())
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found for order: " + request.getOrderId()));
@@ -73,39 +68,41 @@ public class PaymentService {
             throw new BadRequestException("Payment already processed");
         }
 
-        // Update payment status
-        if (Boolean.TRUE.equals(request.getSuccess())) {
-            payment.setStatus(Payment.PaymentStatus.SUCCESS);
-            payment.setTransactionId(request.getTransactionId());
+        // Normally verified within milliseconds of initiation; check inline if that has not happened yet.
+        // If order-service is down the payment goes through unverified and the sweep checks it later.
+        boolean success = Boolean.TRUE.equals(request.getSuccess());
+        if (success && !Boolean.TRUE.equals(payment.getOrderVerified())
+                && orderVerifier.verify(payment) == OrderVerifier.Outcome.MISMATCH) {
+            throw new BadRequestException("Payment does not match order: " + request.getOrderId());
+        }
+
+        // Applied only while still PENDING: the order check may have failed it since it was loaded
+        int changed = success
+                ? paymentRepository.completePendingPayment(payment.getId(), request.getTransactionId())
+                : paymentRepository.declinePendingPayment(payment.getId(), "Payment verification failed");
+        if (changed == 0) {
+            throw new BadRequestException("Payment already processed");
+        }
+
+        if (success) {
             log.info("Payment successful: {} for order: {}", payment.getId(), request.getOrderId());
 
-            // Notify order service
-            try {
-                orderServiceClient.updatePaymentStatus(request.getOrderId(), "COMPLETED");
-            } catch (Exception e) {
-                log.error("Failed to update order payment status: {}", e.getMessage());
-            }
+            // Notify order service (batched, sent after commit)
+            paymentStatusPublisher.publish(request.getOrderId(), "COMPLETED");
             
             // Send payment success notification
             sendPaymentNotification(payment.getId(), payment.getUserId(), request.getOrderId(), "SUCCESS", null);
         } else {
-            payment.setStatus(Payment.PaymentStatus.FAILED);
-            payment.setFailureReason("Payment verification failed");
             log.warn("Payment failed: {} for order: {}", payment.getId(), request.getOrderId());
 
-            // Notify order service
-            try {
-                orderServiceClient.updatePaymentStatus(request.getOrderId(), "FAILED");
-            } catch (Exception e) {
-                log.error("Failed to update order payment status: {}", e.getMessage());
-            }
+            // Notify order service (batched, sent after commit)
+            paymentStatusPublisher.publish(request.getOrderId(), "FAILED");
             
             // Send payment failed notification
             sendPaymentNotification(payment.getId(), payment.getUserId(), request.getOrderId(), "FAILED", "Payment verification failed");
         }
 
-        Payment updated = paymentRepository.save(payment);
-        return toDto(updated);
+        return toDto(paymentRepository.findById(payment.getId()).orElseThrow());
     }
 
     @Transactional
@@ -121,12 +118,8 @@ public class PaymentService {
         Payment updated = paymentRepository.save(payment);
         log.info("Payment refunded: {} for order: {}", payment.getId(), orderId);
 
-        // Notify order service
-        try {
-            orderServiceClient.updatePaymentStatus(orderId, "REFUNDED");
-        } catch (Exception e) {
-            log.error("Failed to update order payment status: {}", e.getMessage());
-        }
+        // Notify order service (batched, sent after commit)
+        paymentStatusPublisher.publish(orderId, "REFUNDED");
         
         // Send payment refunded notification
         sendPaymentNotification(payment.getId(), payment.getUserId(), orderId, "REFUNDED", null);
@@ -197,17 +190,8 @@ public class PaymentService {
             Payment saved = paymentRepository.save(payment);
             log.info("Dummy payment successful: {} for order: {}", saved.getId(), request.getOrderId());
 
-            // Notify order service about payment success - mark as PAYMENT_SUCCESS
-            try {
-                ApiResponse<Object> response = orderServiceClient.updatePaymentStatus(request.getOrderId(), "PAYMENT_SUCCESS");
-                if (response.isSuccess()) {
-                    log.info("✅ Order marked as PAYMENT_SUCCESS for order: {}", request.getOrderId());
-                } else {
-                    log.warn("⚠️ Order payment status update returned failure: {}", response.getMessage());
-                }
-            } catch (Exception e) {
-                log.error("❌ Failed to update order payment status for order: {}, error: {}", request.getOrderId(), e.getMessage());
-            }
+            // Notify order service about payment success - mark as PAYMENT_SUCCESS (batched, sent after commit)
+            paymentStatusPublisher.publish(request.getOrderId(), "PAYMENT_SUCCESS");
 
             // Send payment success notification
             sendPaymentNotification(saved.getId(), request.getUserId(), request.getOrderId(), "SUCCESS", null);
@@ -0,0 +1,157 @@
+package com.revcart.paymentservice.service;
+
+import com.revcart.paymentservice.client.OrderServiceClient;
+import com.revcart.paymentservice.dto.ApiResponse;
+import com.revcart.paymentservice.dto.PaymentStatusUpdate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers order payment-status changes and sends them to order-service in batches: a batch goes
+ * out after {@code payments.status-batch.linger-ms} or as soon as {@code max-size} updates are
+ * waiting, whichever comes first.
+ * <p>
+ * A single sender thread sends batches one at a time and retries a failed batch before moving
+ * on, so updates for the same order reach order-service in the order they were published.
+ * A batch that still fails after {@code max-attempts} is dropped with an error; the payment row
+ * remains the source of truth for reconciliation.
+ */
+@Component
+@Slf4j
+public class PaymentStatusPublisher {
+
+    private final OrderServiceClient orderServiceClient;
+    private final BlockingQueue<PaymentStatusUpdate> queue;
+    private final int maxBatchSize;
+    private final long lingerMs;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long enqueueTimeoutMs;
+    private volatile boolean running = true;
+    private Thread sender;
+
+    public PaymentStatusPublisher(OrderServiceClient orderServiceClient,
+                                  @Value("${payments.status-batch.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${payments.status-batch.max-size:200}") int maxBatchSize,
+                                  @Value("${payments.status-batch.linger-ms:5}") long lingerMs,
+                                  @Value("${payments.status-batch.max-attempts:5}") int maxAttempts,
+                                  @Value("${payments.status-batch.initial-backoff-ms:200}") long initialBackoffMs,
+                                  @Value("${payments.status-batch.enqueue-timeout-ms:100}") long enqueueTimeoutMs) {
+        this.orderServiceClient = orderServiceClient;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMs = lingerMs;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+    }
+
+    @PostConstruct
+    void start() {
+        sender = new Thread(this::run, "payment-status-sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /**
+     * Queues the update once the surrounding transaction commits (immediately if there is none),
+     * so order-service never sees a status that was rolled back here.
+     */
+    public void publish(Long orderId, String status) {
+        PaymentStatusUpdate update = new PaymentStatusUpdate(orderId, status);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(update);
+                }
+            });
+        } else {
+            enqueue(update);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        sender.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void enqueue(PaymentStatusUpdate update) {
+        try {
+            if (!queue.offer(update, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.error("❌ Payment status queue full, dropped {} for order {}", update.getStatus(), update.getOrderId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while queueing payment status for order {}", update.getOrderId());
+        }
+    }
+
+    private void run() {
+        List<PaymentStatusUpdate> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PaymentStatusUpdate first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PaymentStatusUpdate next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<PaymentStatusUpdate> batch) throws InterruptedException {
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                ApiResponse<Map<String, Object>> response = orderServiceClient.updatePaymentStatuses(batch);
+                Map<String, Object> result = response.getData();
+                if (result != null && (!isEmpty(result.get("unknownOrderIds")) || !isEmpty(result.get("rejectedOrderIds")))) {
+                    log.warn("Order service skipped payment statuses: unknown {}, rejected {}",
+                            result.get("unknownOrderIds"), result.get("rejectedOrderIds"));
+                }
+                log.debug("Sent {} payment status updates", batch.size());
+                return;
+            } catch (Exception e) {
+                log.warn("Payment status batch of {} failed (attempt {}/{}): {}", batch.size(), attempt, maxAttempts, e.getMessage());
+                if (attempt < maxAttempts) {
+                    Thread.sleep(backoff);
+                    backoff *= 2;
+                }
+            }
+        }
+        log.error("❌ Dropped payment status batch after {} attempts: {}", maxAttempts, batch);
+    }
+
+    private static boolean isEmpty(Object list) {
+        return list == null || (list instanceof List<?> values && values.isEmpty());
+    }
+}
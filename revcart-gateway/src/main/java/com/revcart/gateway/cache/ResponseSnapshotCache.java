@@ -0,0 +1,48 @@
+package com.revcart.gateway.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Last-known-good response bodies for read-only catalog routes, keyed by path and query.
+ * Served by the circuit breaker fallback while product-service is unavailable.
+ */
+@Component
+public class ResponseSnapshotCache {
+
+    private final Map<String, Snapshot> snapshots;
+    private final Duration maxAge;
+
+    public ResponseSnapshotCache(@Value("${gateway.snapshot-cache.max-entries:500}") int maxEntries,
+                                 @Value("${gateway.snapshot-cache.max-age:PT6H}") Duration maxAge) {
+        this.maxAge = maxAge;
+        this.snapshots = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public void put(String key, byte[] body) {
+        snapshots.put(key, new Snapshot(body, Instant.now()));
+    }
+
+    public Optional<Snapshot> get(String key) {
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot == null || snapshot.capturedAt().plus(maxAge).isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot);
+    }
+
+    public record Snapshot(byte[] body, Instant capturedAt) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.revcart.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Upstream base URLs and per-section budget for the {@code /api/bff/**} composite endpoints.
+ * Keys of {@code services} match the circuit breaker / bulkhead instance names.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.bff")
+public class BffProperties {
+
+    private Map<String, String> services = new HashMap<>();
+
+    private Duration sectionTimeout = Duration.ofSeconds(3);
+
+    public String url(String service) {
+        String url = services.get(service);
+        if (url == null) {
+            throw new IllegalStateException("No BFF upstream configured for " + service);
+        }
+        return url;
+    }
+}
@@ -0,0 +1,51 @@
+package com.revcart.gateway.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the per-service circuit breaker and time limiter instances declared under
+ * {@code resilience4j.*} to the gateway's {@code CircuitBreaker} route filters, and
+ * exports state transitions as a Micrometer counter.
+ */
+@Slf4j
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> routeCircuitBreakerCustomizer(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            MeterRegistry meterRegistry) {
+
+        circuitBreakerRegistry.getAllCircuitBreakers()
+                .forEach(circuitBreaker -> registerTransitionMetrics(circuitBreaker, meterRegistry));
+        circuitBreakerRegistry.getEventPublisher()
+                .onEntryAdded(event -> registerTransitionMetrics(event.getAddedEntry(), meterRegistry));
+
+        return factory -> circuitBreakerRegistry.getAllCircuitBreakers().forEach(circuitBreaker -> {
+            String name = circuitBreaker.getName();
+            factory.configure(builder -> builder
+                    .circuitBreakerConfig(circuitBreaker.getCircuitBreakerConfig())
+                    .timeLimiterConfig(timeLimiterRegistry.timeLimiter(name).getTimeLimiterConfig()), name);
+        });
+    }
+
+    private void registerTransitionMetrics(CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Circuit breaker {} transitioned {}", event.getCircuitBreakerName(), event.getStateTransition());
+            meterRegistry.counter("gateway.circuitbreaker.transitions",
+                    "name", event.getCircuitBreakerName(),
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name())
+                    .increment();
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.revcart.gateway.controller;
+
+import com.revcart.gateway.dto.ApiResponse;
+import com.revcart.gateway.dto.SectionResult;
+import com.revcart.gateway.service.AggregationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Composite endpoints for the storefront: one round trip per screen instead of one per backend.
+ */
+@RestController
+@RequestMapping("/api/bff")
+@RequiredArgsConstructor
+public class BffController {
+
+    private final AggregationService aggregationService;
+
+    @GetMapping("/home")
+    public Mono<ResponseEntity<ApiResponse<Map<String, SectionResult>>>> home(
+            @RequestHeader HttpHeaders headers,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        return aggregationService.home(headers, page, size)
+                .map(sections -> respond(sections, "Home page retrieved"));
+    }
+
+    @GetMapping("/orders/{orderId}")
+    public Mono<ResponseEntity<ApiResponse<Map<String, SectionResult>>>> orderDetail(
+            @PathVariable Long orderId,
+            @RequestHeader HttpHeaders headers) {
+        return aggregationService.orderDetail(orderId, headers)
+                .map(sections -> respond(sections, "Order detail retrieved"));
+    }
+
+    private ResponseEntity<ApiResponse<Map<String, SectionResult>>> respond(Map<String, SectionResult> sections,
+                                                                            String message) {
+        // Server-Timing shows per-backend latency in the browser's network panel
+        String serverTiming = sections.entrySet().stream()
+                .map(e -> e.getKey() + ";dur=" + e.getValue().getDurationMs())
+                .collect(Collectors.joining(", "));
+        boolean complete = sections.values().stream()
+                .noneMatch(section -> SectionResult.FAILED.equals(section.getStatus()));
+        return ResponseEntity.ok()
+                .header("Server-Timing", serverTiming)
+                .body(ApiResponse.success(complete ? message : message + " (partial)", sections));
+    }
+}
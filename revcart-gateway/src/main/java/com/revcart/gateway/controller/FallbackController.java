@@ -0,0 +1,102 @@
+package com.revcart.gateway.controller;
+
+import com.revcart.gateway.cache.ResponseSnapshotCache;
+import com.revcart.gateway.dto.ApiResponse;
+import com.revcart.gateway.filter.CatalogSnapshotGatewayFilterFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR;
+
+/**
+ * Fallback targets for the per-route {@code CircuitBreaker} filters. Reached via
+ * {@code forward:/fallback/**} when a circuit is open, a call times out or a bulkhead is full.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/fallback")
+@RequiredArgsConstructor
+public class FallbackController {
+
+    // The only notification read whose body is a plain list; an empty one is a valid answer there
+    private static final Pattern NOTIFICATION_LIST = Pattern.compile("/api/notifications/user/[^/]+/?");
+
+    private final ResponseSnapshotCache snapshotCache;
+
+    @RequestMapping("/catalog")
+    public ResponseEntity<?> catalogFallback(ServerWebExchange exchange) {
+        URI originalUri = originalUri(exchange);
+        logFallback("catalog", originalUri, exchange);
+        // Snapshots are GET responses; a write must not look like it succeeded
+        if (originalUri != null && isRead(exchange)) {
+            return snapshotCache.get(CatalogSnapshotGatewayFilterFactory.snapshotKey(originalUri))
+                    .<ResponseEntity<?>>map(snapshot -> ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("X-Gateway-Fallback", "snapshot")
+                            .header("X-Snapshot-Captured-At", snapshot.capturedAt().toString())
+                            .body(snapshot.body()))
+                    .orElseGet(() -> unavailable("Catalog is temporarily unavailable"));
+        }
+        return unavailable("Catalog is temporarily unavailable");
+    }
+
+    @RequestMapping("/notifications")
+    public ResponseEntity<?> notificationsFallback(ServerWebExchange exchange) {
+        URI originalUri = originalUri(exchange);
+        logFallback("notifications", originalUri, exchange);
+        // Counts, inbox pages and single notifications have no honest empty value
+        if (!isRead(exchange) || originalUri == null || !NOTIFICATION_LIST.matcher(originalUri.getPath()).matches()) {
+            return unavailable("Notifications are temporarily unavailable");
+        }
+        return ResponseEntity.ok()
+                .header("X-Gateway-Fallback", "empty")
+                .body(ApiResponse.success("Notifications are temporarily unavailable", Collections.emptyList()));
+    }
+
+    @RequestMapping("/analytics")
+    public ResponseEntity<?> analyticsFallback(ServerWebExchange exchange) {
+        logFallback("analytics", originalUri(exchange), exchange);
+        return unavailable("Analytics is temporarily unavailable");
+    }
+
+    @RequestMapping("/default")
+    public ResponseEntity<?> defaultFallback(ServerWebExchange exchange) {
+        logFallback("default", originalUri(exchange), exchange);
+        return unavailable("Service is temporarily unavailable, please try again shortly");
+    }
+
+    private ResponseEntity<?> unavailable(String message) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "10")
+                .body(ApiResponse.failure(message));
+    }
+
+    private boolean isRead(ServerWebExchange exchange) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        return method == HttpMethod.GET || method == HttpMethod.HEAD;
+    }
+
+    private URI originalUri(ServerWebExchange exchange) {
+        Set<URI> uris = exchange.getAttribute(GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+        return uris == null || uris.isEmpty() ? null : uris.iterator().next();
+    }
+
+    private void logFallback(String type, URI originalUri, ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        log.warn("Serving {} fallback for {}: {}", type, originalUri,
+                cause != null ? cause.getClass().getSimpleName() : "unknown");
+    }
+}
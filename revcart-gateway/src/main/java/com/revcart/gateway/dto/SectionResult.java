@@ -0,0 +1,36 @@
+package com.revcart.gateway.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One section of a composite BFF payload. A failed or skipped section carries
+ * {@code status} and {@code error} instead of failing the whole page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SectionResult {
+    public static final String OK = "OK";
+    public static final String FAILED = "FAILED";
+    public static final String SKIPPED = "SKIPPED";
+
+    private String status;
+    private JsonNode data;
+    private String error;
+    private long durationMs;
+
+    public static SectionResult ok(JsonNode data, long durationMs) {
+        return new SectionResult(OK, data, null, durationMs);
+    }
+
+    public static SectionResult failed(String error, long durationMs) {
+        return new SectionResult(FAILED, null, error, durationMs);
+    }
+
+    public static SectionResult skipped(String reason) {
+        return new SectionResult(SKIPPED, null, reason, 0);
+    }
+}
@@ -0,0 +1,60 @@
+package com.revcart.gateway.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Semaphore bulkhead per downstream service. Calls beyond {@code maxConcurrentCalls} are rejected
+ * immediately instead of queueing on the shared Netty connection pool, so one slow service
+ * cannot starve routes to the others.
+ * <p>
+ * Declare it after the route's {@code CircuitBreaker} filter so rejections are served by the
+ * route fallback; {@link BulkheadFullException} is ignored by the breaker's failure rate.
+ */
+@Slf4j
+@Component
+public class BulkheadGatewayFilterFactory extends AbstractGatewayFilterFactory<BulkheadGatewayFilterFactory.Config> {
+
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+
+    public BulkheadGatewayFilterFactory(BulkheadRegistry bulkheadRegistry, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(config.getName());
+        Counter rejected = meterRegistry.counter("gateway.bulkhead.rejected", "name", config.getName());
+
+        return (exchange, chain) -> chain.filter(exchange)
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .doOnError(BulkheadFullException.class, ex -> {
+                    rejected.increment();
+                    log.warn("Bulkhead {} full, rejecting {}", config.getName(), exchange.getRequest().getPath());
+                });
+    }
+
+    @Data
+    public static class Config {
+        private String name;
+    }
+}
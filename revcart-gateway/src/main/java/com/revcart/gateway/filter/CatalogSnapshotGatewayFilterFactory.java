@@ -0,0 +1,62 @@
+package com.revcart.gateway.filter;
+
+import com.revcart.gateway.cache.ResponseSnapshotCache;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Captures successful GET responses of catalog routes into {@link ResponseSnapshotCache}
+ * so the {@code /fallback/catalog} endpoint can serve them while the circuit is open.
+ */
+@Component
+public class CatalogSnapshotGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private final ResponseSnapshotCache snapshotCache;
+
+    public CatalogSnapshotGatewayFilterFactory(ResponseSnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    public static String snapshotKey(URI uri) {
+        return uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String key = snapshotKey(exchange.getRequest().getURI());
+            ServerHttpResponse original = exchange.getResponse();
+            ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(original) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()) {
+                        return super.writeWith(body);
+                    }
+                    return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        snapshotCache.put(key, bytes);
+                        return super.writeWith(Mono.just(original.bufferFactory().wrap(bytes)));
+                    });
+                }
+            };
+            return chain.filter(exchange.mutate().response(decorated).build());
+        };
+    }
+}
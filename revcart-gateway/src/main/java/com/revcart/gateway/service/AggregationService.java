@@ -0,0 +1,143 @@
+package com.revcart.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.revcart.gateway.config.BffProperties;
+import com.revcart.gateway.dto.SectionResult;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans out composite page requests to the upstream services in parallel. Each section goes
+ * through the same circuit breaker and bulkhead as the matching gateway route, has its own
+ * timeout, and degrades to a {@link SectionResult#FAILED} entry instead of failing the page.
+ */
+@Slf4j
+@Service
+public class AggregationService {
+
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    private final WebClient webClient;
+    private final BffProperties properties;
+    private final ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+
+    public AggregationService(WebClient.Builder webClientBuilder,
+                              BffProperties properties,
+                              ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory,
+                              BulkheadRegistry bulkheadRegistry,
+                              MeterRegistry meterRegistry) {
+        this.webClient = webClientBuilder.build();
+        this.properties = properties;
+        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Mono<Map<String, SectionResult>> home(HttpHeaders headers, int page, int size) {
+        String userId = headers.getFirst(USER_ID_HEADER);
+        Mono<SectionResult> categories = section("home", "categories", "product-service",
+                "/api/categories", headers);
+        Mono<SectionResult> products = section("home", "products", "product-service",
+                "/api/products?page=" + page + "&size=" + size, headers);
+        Mono<SectionResult> cartCount = userId == null
+                ? Mono.just(SectionResult.skipped("X-User-Id header is required"))
+                : section("home", "cartCount", "cart-service", "/api/cart/count", headers);
+        Mono<SectionResult> notifications = userId == null
+                ? Mono.just(SectionResult.skipped("X-User-Id header is required"))
+                : section("home", "notifications", "notification-service",
+                        "/api/notifications/user/" + userId + "/inbox?limit=20", headers);
+
+        return Mono.zip(categories, products, cartCount, notifications)
+                .map(results -> {
+                    Map<String, SectionResult> sections = new LinkedHashMap<>();
+                    sections.put("categories", results.getT1());
+                    sections.put("products", results.getT2());
+                    sections.put("cartCount", results.getT3());
+                    sections.put("notifications", results.getT4());
+                    return sections;
+                });
+    }
+
+    public Mono<Map<String, SectionResult>> orderDetail(Long orderId, HttpHeaders headers) {
+        Mono<SectionResult> order = section("order-detail", "order", "order-service",
+                "/api/orders/" + orderId, headers);
+        Mono<SectionResult> delivery = section("order-detail", "delivery", "delivery-service",
+                "/api/delivery/" + orderId, headers);
+        Mono<SectionResult> tracking = section("order-detail", "tracking", "delivery-service",
+                "/api/delivery/" + orderId + "/track", headers);
+        Mono<SectionResult> payment = section("order-detail", "payment", "payment-service",
+                "/api/payments/order/" + orderId, headers);
+
+        return Mono.zip(order, delivery, tracking, payment)
+                .map(results -> {
+                    Map<String, SectionResult> sections = new LinkedHashMap<>();
+                    sections.put("order", results.getT1());
+                    sections.put("delivery", results.getT2());
+                    sections.put("tracking", results.getT3());
+                    sections.put("payment", results.getT4());
+                    return sections;
+                });
+    }
+
+    private Mono<SectionResult> section(String page, String section, String service, String path,
+                                        HttpHeaders incoming) {
+        Mono<JsonNode> call = webClient.get()
+                .uri(properties.url(service) + path)
+                .headers(outgoing -> copyHeaders(incoming, outgoing))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                // Unwrap the services' ApiResponse envelope so sections carry the payload only
+                .map(body -> body.has("data") ? body.get("data") : body)
+                .timeout(properties.getSectionTimeout())
+                .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(service)));
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return circuitBreakerFactory.create(service).run(call)
+                    .map(data -> SectionResult.ok(data, elapsedMs(page, section, "success", start)))
+                    .onErrorResume(ex -> {
+                        log.warn("BFF {} section {} from {} failed: {}", page, section, service, ex.toString());
+                        return Mono.just(SectionResult.failed(ex.getClass().getSimpleName(),
+                                elapsedMs(page, section, "error", start)));
+                    })
+                    .defaultIfEmpty(SectionResult.failed("Empty response", 0));
+        });
+    }
+
+    private long elapsedMs(String page, String section, String outcome, long start) {
+        long nanos = System.nanoTime() - start;
+        Timer.builder("gateway.bff.section")
+                .tag("page", page)
+                .tag("section", section)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private void copyHeaders(HttpHeaders incoming, HttpHeaders outgoing) {
+        String authorization = incoming.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null) {
+            outgoing.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        String userId = incoming.getFirst(USER_ID_HEADER);
+        if (userId != null) {
+            outgoing.set(USER_ID_HEADER, userId);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+# Measures checkout latency and how many requests each checkout puts through the gateway.
+# Run once against a build that routes Feign calls via the gateway and once with the direct
+# service registry, then compare "Gateway requests per checkout" and the latency figures.
+#
+# Usage: .\scripts\benchmark-checkout.ps1 -Token <jwt> -UserId 1 -AddressId 1 -ProductId 1 [-Iterations 50]
+
+param(
+    [Parameter(Mandatory=$true)][string]$Token,
+    [Parameter(Mandatory=$true)][long]$UserId,
+    [Parameter(Mandatory=$true)][long]$AddressId,
+    [Parameter(Mandatory=$true)][long]$ProductId,
+    [int]$Iterations = 50,
+    [string]$GatewayUrl = "http://localhost:8080"
+)
+
+$headers = @{
+    "Authorization" = "Bearer $Token"
+    "X-User-Id" = "$UserId"
+    "Content-Type" = "application/json"
+}
+
+function Get-GatewayRequestCount {
+    $metric = Invoke-RestMethod -Uri "$GatewayUrl/actuator/metrics/spring.cloud.gateway.requests" -UseBasicParsing
+    return ($metric.measurements | Where-Object { $_.statistic -eq "COUNT" }).value
+}
+
+Write-Host "=== RevCart Checkout Benchmark ($Iterations iterations) ===" -ForegroundColor Cyan
+
+$latencies = @()
+$failures = 0
+$checkoutBody = @{ addressId = $AddressId; paymentMethod = "COD" } | ConvertTo-Json
+$cartBody = @{ productId = $ProductId; quantity = 1 } | ConvertTo-Json
+
+$before = Get-GatewayRequestCount
+for ($i = 1; $i -le $Iterations; $i++) {
+    Invoke-RestMethod -Method Post -Uri "$GatewayUrl/api/cart/items" -Headers $headers -Body $cartBody -UseBasicParsing | Out-Null
+
+    $watch = [System.Diagnostics.Stopwatch]::StartNew()
+    try {
+        Invoke-RestMethod -Method Post -Uri "$GatewayUrl/api/orders/checkout" -Headers $headers -Body $checkoutBody -UseBasicParsing | Out-Null
+        $watch.Stop()
+        $latencies += $watch.Elapsed.TotalMilliseconds
+    } catch {
+        $failures++
+        Write-Host "❌ Checkout $i failed: $($_.Exception.Message)" -ForegroundColor Red
+    }
+}
+$after = Get-GatewayRequestCount
+
+# Each iteration makes two client calls (add to cart + checkout); everything above that is internal hairpin traffic
+$gatewayPerCheckout = (($after - $before) / $Iterations) - 1
+$sorted = $latencies | Sort-Object
+$p50 = $sorted[[math]::Floor($sorted.Count * 0.5)]
+$p95 = $sorted[[math]::Min($sorted.Count - 1, [math]::Floor($sorted.Count * 0.95))]
+
+Write-Host ""
+Write-Host "Successful checkouts:         $($latencies.Count) / $Iterations"
+Write-Host "Gateway requests per checkout: $([math]::Round($gatewayPerCheckout, 2)) (1 = no internal hops via gateway)"
+Write-Host "Average latency:              $([math]::Round(($latencies | Measure-Object -Average).Average, 1)) ms"
+Write-Host "p50 latency:                  $([math]::Round($p50, 1)) ms"
+Write-Host "p95 latency:                  $([math]::Round($p95, 1)) ms"
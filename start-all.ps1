@@ -7,6 +7,8 @@ Write-Host "========================================`n" -ForegroundColor Cyan
 
 # Set environment variables
 $env:DB_PASSWORD="Mahidinesh@07"
+# Shared by user-service, order-service and analytics-service for /internal/** calls
+if (-not $env:INTERNAL_API_TOKEN) { $env:INTERNAL_API_TOKEN="revcart-internal-dev" }
 
 # Check if MySQL is running
 Write-Host "Checking MySQL..." -NoNewline
@@ -48,7 +50,7 @@ Start-Sleep -Seconds 15
 
 # Start User Service
 Write-Host "[2/10] Starting User Service (Port 8081)..." -ForegroundColor Green
-Start-Process powershell -ArgumentList "-NoExit", "-Command", "cd '$PSScriptRoot\user-service'; `$env:DB_PASSWORD='Mahidinesh@07'; Write-Host 'Starting User Service...' -ForegroundColor Cyan; mvn spring-boot:run"
+Start-Process powershell -ArgumentList "-NoExit", "-Command", "cd '$PSScriptRoot\user-service'; `$env:INTERNAL_API_TOKEN='$env:INTERNAL_API_TOKEN'; `$env:DB_PASSWORD='Mahidinesh@07'; Write-Host 'Starting User Service...' -ForegroundColor Cyan; mvn spring-boot:run"
 Start-Sleep -Seconds 8
 
 # Start Product Service
@@ -63,7 +65,7 @@ Start-Sleep -Seconds 8
 
 # Start Order Service
 Write-Host "[5/10] Starting Order Service (Port 8084)..." -ForegroundColor Green
-Start-Process powershell -ArgumentList "-NoExit", "-Command", "cd '$PSScriptRoot\order-service'; `$env:DB_PASSWORD='Mahidinesh@07'; Write-Host 'Starting Order Service...' -ForegroundColor Cyan; mvn spring-boot:run"
+Start-Process powershell -ArgumentList "-NoExit", "-Command", "cd '$PSScriptRoot\order-service'; `$env:INTERNAL_API_TOKEN='$env:INTERNAL_API_TOKEN'; `$env:DB_PASSWORD='Mahidinesh@07'; Write-Host 'Starting Order Service...' -ForegroundColor Cyan; mvn spring-boot:run"
 Start-Sleep -Seconds 8
 
 # Start Payment Service
@@ -83,7 +85,7 @@ Start-Sleep -Seconds 8
 
 # Start Analytics Service
 Write-Host "[9/10] Starting Analytics Service (Port 8088)..." -ForegroundColor Green
-Start-Process powershell -ArgumentList "-NoExit", "-Command", "cd '$PSScriptRoot\analytics-service'; Write-Host 'Starting Analytics Service...' -ForegroundColor Cyan; mvn spring-boot:run"
+Start-Process powershell -ArgumentList "-NoExit", "-Command", "cd '$PSScriptRoot\analytics-service'; `$env:INTERNAL_API_TOKEN='$env:INTERNAL_API_TOKEN'; Write-Host 'Starting Analytics Service...' -ForegroundColor Cyan; mvn spring-boot:run"
 Start-Sleep -Seconds 8
 
 # Start Frontend
@@ -15,7 +15,13 @@ CREATE TABLE IF NOT EXISTS users (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_email (email),
-    INDEX idx_role (role)
+    INDEX idx_role (role),
+    INDEX idx_users_created_at (created_at),
+    INDEX idx_users_updated_at_id (updated_at, id),
+    INDEX idx_users_role_active (role, active),
+    INDEX idx_users_active (active),
+    INDEX idx_users_name_id (name, id),
+    INDEX idx_users_phone_id (phone, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Addresses Table
@@ -41,8 +47,51 @@ CREATE TABLE IF NOT EXISTS otp_tokens (
     otp VARCHAR(10) NOT NULL,
     expires_at TIMESTAMP NOT NULL,
     used BOOLEAN NOT NULL DEFAULT FALSE,
+    failed_attempts INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    INDEX idx_email_otp (email, otp, used)
+    INDEX idx_otp_email_used (email, used),
+    INDEX idx_otp_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Wrong OTP codes per email in the current window (OtpService)
+CREATE TABLE IF NOT EXISTS otp_email_attempts (
+    email VARCHAR(255) PRIMARY KEY,
+    failed_attempts INT NOT NULL,
+    window_started_at TIMESTAMP NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Dead-lettered outbound emails
+CREATE TABLE IF NOT EXISTS failed_emails (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    to_email VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    html_body MEDIUMTEXT NOT NULL,
+    attempts INT NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_failed_emails_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Revoked JWTs (type JTI, keyed by jti) and revoked users (type SUBJECT, keyed by email)
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(10) NOT NULL,
+    token_key VARCHAR(255) NOT NULL,
+    revoked_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at_millis BIGINT,
+    UNIQUE KEY uk_revoked_type_key (type, token_key),
+    INDEX idx_revoked_at (revoked_at),
+    INDEX idx_revoked_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Materialized user counts per (role, active); seeded and reconciled by UserMetrics
+CREATE TABLE IF NOT EXISTS user_counters (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    role VARCHAR(20) NOT NULL,
+    active BOOLEAN NOT NULL,
+    user_count BIGINT NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_user_counters_role_active (role, active)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Sample Data
@@ -1,7 +1,13 @@
 package com.revcart.userservice.controller;
 
 import com.revcart.userservice.dto.ApiResponse;
+import com.revcart.userservice.dto.UserCountsDto;
 import com.revcart.userservice.dto.UserDto;
+import com.revcart.userservice.dto.UserSearchCriteria;
+import com.revcart.userservice.dto.UserSearchPage;
+import com.revcart.userservice.entity.User;
+import com.revcart.userservice.service.UserMetrics;
+import com.revcart.userservice.service.UserSearchService;
 import com.revcart.userservice.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +29,8 @@ import java.util.Map;
 public class AdminUserController {
 
     private final UserService userService;
+    private final UserSearchService userSearchService;
+    private final UserMetrics userMetrics;
 
     @GetMapping("/users")
     public ResponseEntity<ApiResponse<List<UserDto>>> getAllUsers() {
@@ -30,18 +38,41 @@ public class AdminUserController {
         return ResponseEntity.ok(ApiResponse.success(users, "Users fetched"));
     }
 
+    @GetMapping("/users/search")
+    public ResponseEntity<ApiResponse<UserSearchPage>> searchUsers(@ModelAttribute UserSearchCriteria criteria) {
+        UserSearchPage page = userSearchService.search(criteria);
+        return ResponseEntity.ok(ApiResponse.success(page, "Users fetched"));
+    }
+
     @GetMapping("/users/stats")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getUserStats() {
         Map<String, Object> stats = userService.getUserStats();
         return ResponseEntity.ok(ApiResponse.success(stats, "User stats retrieved successfully"));
     }
 
+    @GetMapping("/users/counters")
+    public ResponseEntity<ApiResponse<UserCountsDto>> getUserCounters() {
+        return ResponseEntity.ok(ApiResponse.success(userMetrics.counts(), "User counters retrieved successfully"));
+    }
+
     @GetMapping("/users/{id}")
     public ResponseEntity<ApiResponse<UserDto>> getUserById(@PathVariable Long id) {
         UserDto user = userService.getUserById(id);
         return ResponseEntity.ok(ApiResponse.success(user, "User retrieved successfully"));
     }
     
+    @PutMapping("/users/{id}/status")
+    public ResponseEntity<ApiResponse<UserDto>> updateUserStatus(@PathVariable Long id, @RequestParam boolean active) {
+        UserDto user = userService.updateUserStatus(id, active);
+        return ResponseEntity.ok(ApiResponse.success(user, active ? "User activated" : "User deactivated"));
+    }
+
+    @PutMapping("/users/{id}/role")
+    public ResponseEntity<ApiResponse<UserDto>> updateUserRole(@PathVariable Long id, @RequestParam User.Role role) {
+        UserDto user = userService.updateUserRole(id, role);
+        return ResponseEntity.ok(ApiResponse.success(user, "User role updated"));
+    }
+
     @GetMapping("/count/active")
     public ResponseEntity<Long> getActiveUsers() {
         long count = userService.countActiveUsers();
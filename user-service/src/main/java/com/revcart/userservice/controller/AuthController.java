@@ -47,6 +47,12 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success(valid, "Token validation completed"));
     }
 
+    @PostMapping("/api/users/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(@RequestHeader("Authorization") String authorization) {
+        authService.logout(authorization.startsWith("Bearer ") ? authorization.substring(7) : authorization);
+        return ResponseEntity.ok(ApiResponse.success(null, "Logged out successfully"));
+    }
+
     @GetMapping("/api/users/test-bcrypt")
     public ResponseEntity<String> testBcrypt() {
         return ResponseEntity.ok(authService.testAdminBcrypt());
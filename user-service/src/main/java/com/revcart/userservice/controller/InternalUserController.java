@@ -0,0 +1,61 @@
+package com.revcart.userservice.controller;
+
+import com.revcart.userservice.dto.AddressDto;
+import com.revcart.userservice.dto.ApiResponse;
+import com.revcart.userservice.dto.UserCountsDto;
+import com.revcart.userservice.dto.UserDto;
+import com.revcart.userservice.dto.UserFeedPage;
+import com.revcart.userservice.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service-to-service user feed. Not routed by the gateway, which only forwards /api/**.
+ */
+@RestController
+@RequestMapping("/internal/users")
+@RequiredArgsConstructor
+public class InternalUserController {
+
+    private final UserService userService;
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<UserDto>>> getUsersByIds(@RequestBody List<Long> ids) {
+        List<UserDto> users = userService.getUsersByIds(ids);
+        return ResponseEntity.ok(ApiResponse.success(users, "Users retrieved successfully"));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<UserFeedPage>> getUserPage(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "500") int size) {
+        UserFeedPage page = userService.getUserPage(afterId, size);
+        return ResponseEntity.ok(ApiResponse.success(page, "Users retrieved successfully"));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<UserFeedPage>> getUsersUpdatedSince(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "500") int size) {
+        UserFeedPage page = userService.getUsersUpdatedSince(since, afterId, size);
+        return ResponseEntity.ok(ApiResponse.success(page, "User changes retrieved successfully"));
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<ApiResponse<UserCountsDto>> getUserCounts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdSince) {
+        UserCountsDto counts = userService.getUserCounts(createdSince);
+        return ResponseEntity.ok(ApiResponse.success(counts, "User counts retrieved successfully"));
+    }
+
+    @GetMapping("/{userId}/addresses/{addressId}")
+    public ResponseEntity<ApiResponse<AddressDto>> getAddress(@PathVariable Long userId, @PathVariable Long addressId) {
+        AddressDto address = userService.getAddressForUser(userId, addressId);
+        return ResponseEntity.ok(ApiResponse.success(address, "Address retrieved successfully"));
+    }
+}
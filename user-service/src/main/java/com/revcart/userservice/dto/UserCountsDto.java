@@ -0,0 +1,19 @@
+package com.revcart.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCountsDto {
+    private long total;
+    private long active;
+    private long inactive;
+    private Map<String, Long> byRole;
+    private Map<String, Long> activeByRole;
+    // Only set when the request passed createdSince
+    private Long createdSince;
+}
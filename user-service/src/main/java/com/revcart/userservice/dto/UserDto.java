@@ -18,6 +18,7 @@ public class UserDto {
     private User.Role role;
     private Boolean active;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
     
     public UserDto(Long id, String email, String name, String phone, User.Role role, LocalDateTime createdAt) {
         this.id = id;
@@ -0,0 +1,21 @@
+package com.revcart.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of the internal user feed. Pass {@code nextAfterId} (and, for the delta feed,
+ * {@code nextSince}) back to fetch the following page; {@code hasMore} is false on the last one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserFeedPage {
+    private List<UserDto> users;
+    private boolean hasMore;
+    private Long nextAfterId;
+    private LocalDateTime nextSince;
+}
@@ -0,0 +1,21 @@
+package com.revcart.userservice.dto;
+
+import com.revcart.userservice.entity.User;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDateTime;
+
+@Data
+public class UserSearchCriteria {
+    private String q;
+    // EMAIL, NAME or PHONE; inferred from q when absent
+    private String field;
+    private User.Role role;
+    private Boolean active;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+    private String cursor;
+    private int size = 50;
+}
@@ -0,0 +1,16 @@
+package com.revcart.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchPage {
+    private List<UserDto> users;
+    private boolean hasMore;
+    // Opaque; pass back as cursor with the same filters to get the next page
+    private String nextCursor;
+}
@@ -0,0 +1,27 @@
+package com.revcart.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Wrong OTP codes per email within the current window, independent of which token they were
+ * entered against, so issuing a new OTP does not reset the count.
+ */
+@Entity
+@Table(name = "otp_email_attempts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OtpEmailAttempts {
+    @Id
+    private String email;
+
+    @Column(name = "failed_attempts", nullable = false)
+    private Integer failedAttempts;
+
+    @Column(name = "window_started_at", nullable = false)
+    private LocalDateTime windowStartedAt;
+}
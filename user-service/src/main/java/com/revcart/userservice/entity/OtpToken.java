@@ -7,7 +7,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "otp_tokens")
+@Table(name = "otp_tokens", indexes = {
+        @Index(name = "idx_otp_email_used", columnList = "email, used"),
+        @Index(name = "idx_otp_expires_at", columnList = "expires_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +31,9 @@ public class OtpToken {
     @Column(nullable = false)
     private Boolean used = false;
 
+    @Column(name = "failed_attempts", nullable = false)
+    private Integer failedAttempts = 0;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
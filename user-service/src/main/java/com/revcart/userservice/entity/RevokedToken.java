@@ -0,0 +1,48 @@
+package com.revcart.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A revoked JWT ({@code JTI}, keyed by the token's jti claim) or a revoked user
+ * ({@code SUBJECT}, keyed by email: every token issued up to {@code revokedAt} is invalid).
+ */
+@Entity
+@Table(name = "revoked_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_revoked_type_key", columnNames = {"type", "token_key"}),
+        indexes = {
+                @Index(name = "idx_revoked_at", columnList = "revoked_at"),
+                @Index(name = "idx_revoked_expires_at", columnList = "expires_at")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Type type;
+
+    @Column(name = "token_key", nullable = false)
+    private String tokenKey;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // revokedAt is whole seconds; this decides tokens issued within that second (SUBJECT only)
+    @Column(name = "revoked_at_millis")
+    private Long revokedAtMillis;
+
+    public enum Type {
+        JTI, SUBJECT
+    }
+}
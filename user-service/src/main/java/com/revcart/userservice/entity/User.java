@@ -9,7 +9,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_created_at", columnList = "created_at"),
+        @Index(name = "idx_users_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_users_role_active", columnList = "role, active"),
+        @Index(name = "idx_users_active", columnList = "active"),
+        @Index(name = "idx_users_name_id", columnList = "name, id"),
+        @Index(name = "idx_users_phone_id", columnList = "phone, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,32 @@
+package com.revcart.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Materialized number of users per (role, active) pair, maintained alongside every write that
+ * changes either column.
+ */
+@Entity
+@Table(name = "user_counters",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_counters_role_active", columnNames = {"role", "active"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private User.Role role;
+
+    @Column(nullable = false)
+    private Boolean active;
+
+    @Column(name = "user_count", nullable = false)
+    private Long count;
+}
@@ -0,0 +1,19 @@
+package com.revcart.userservice.repository;
+
+import com.revcart.userservice.entity.FailedEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+
+@Repository
+public interface FailedEmailRepository extends JpaRepository<FailedEmail, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FailedEmail f WHERE f.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,44 @@
+package com.revcart.userservice.repository;
+
+import com.revcart.userservice.entity.OtpEmailAttempts;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface OtpEmailAttemptsRepository extends JpaRepository<OtpEmailAttempts, String> {
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO otp_email_attempts (email, failed_attempts, window_started_at) VALUES (:email, 0, :now)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("email") String email, @Param("now") LocalDateTime now);
+
+    /**
+     * Counts one wrong code, starting a new window when the current one began before {@code since}.
+     * Returns 0 when the email already used up {@code max} attempts in the current window. MySQL
+     * applies the assignments left to right, so the window test in both sees the old start.
+     */
+    @Modifying
+    @Query(value = "UPDATE otp_email_attempts SET "
+            + "failed_attempts = CASE WHEN window_started_at < :since THEN 1 ELSE failed_attempts + 1 END, "
+            + "window_started_at = CASE WHEN window_started_at < :since THEN :now ELSE window_started_at END "
+            + "WHERE email = :email AND (window_started_at < :since OR failed_attempts < :max)",
+            nativeQuery = true)
+    int recordFailure(@Param("email") String email, @Param("now") LocalDateTime now,
+                      @Param("since") LocalDateTime since, @Param("max") int max);
+
+    @Query("SELECT COUNT(a) > 0 FROM OtpEmailAttempts a "
+            + "WHERE a.email = :email AND a.windowStartedAt >= :since AND a.failedAttempts >= :max")
+    boolean isLocked(@Param("email") String email, @Param("since") LocalDateTime since, @Param("max") int max);
+
+    @Modifying
+    @Query("DELETE FROM OtpEmailAttempts a WHERE a.email = :email")
+    int reset(@Param("email") String email);
+
+    @Modifying
+    @Query("DELETE FROM OtpEmailAttempts a WHERE a.windowStartedAt < :cutoff")
+    int deleteWindowsBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,10 +2,42 @@ package com.revcart.userservice.repository;
 
 import com.revcart.userservice.entity.OtpToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface OtpTokenRepository extends JpaRepository<OtpToken, Long> {
-    Optional<OtpToken> findByEmailAndOtpAndUsedFalse(String email, String otp);
+    // Served by idx_otp_email_used; at most one unused token per email exists after issuance
+    Optional<OtpToken> findFirstByEmailAndUsedFalseOrderByIdDesc(String email);
+
+    @Modifying
+    @Query("UPDATE OtpToken t SET t.used = true WHERE t.email = :email AND t.used = false")
+    int invalidateActiveTokens(@Param("email") String email);
+
+    // Conditional so concurrent wrong codes cannot record more than :max attempts between them
+    @Modifying
+    @Query("UPDATE OtpToken t SET t.failedAttempts = t.failedAttempts + 1 "
+            + "WHERE t.id = :id AND t.used = false AND t.failedAttempts < :max")
+    int recordFailedAttempt(@Param("id") Long id, @Param("max") int max);
+
+    @Modifying
+    @Query("UPDATE OtpToken t SET t.used = true WHERE t.id = :id AND t.failedAttempts >= :max")
+    int burnIfExhausted(@Param("id") Long id, @Param("max") int max);
+
+    // Only one caller can consume a token, and not once it has run out of attempts
+    @Modifying
+    @Query("UPDATE OtpToken t SET t.used = true WHERE t.id = :id AND t.used = false AND t.failedAttempts < :max")
+    int consume(@Param("id") Long id, @Param("max") int max);
+
+    @Modifying
+    @Query("UPDATE OtpToken t SET t.used = true WHERE t.id = :id")
+    int markUsed(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM OtpToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
 }
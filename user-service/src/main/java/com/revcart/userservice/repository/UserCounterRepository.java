@@ -0,0 +1,22 @@
+package com.revcart.userservice.repository;
+
+import com.revcart.userservice.entity.User;
+import com.revcart.userservice.entity.UserCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserCounterRepository extends JpaRepository<UserCounter, Long> {
+
+    @Modifying
+    @Query("UPDATE UserCounter c SET c.count = c.count + :delta WHERE c.role = :role AND c.active = :active")
+    int increment(@Param("role") User.Role role, @Param("active") Boolean active, @Param("delta") long delta);
+
+    // Reconciliation's correction; a no-op if a writer changed the row since it was read
+    @Modifying
+    @Query("UPDATE UserCounter c SET c.count = :count WHERE c.id = :id AND c.count = :seen")
+    int correct(@Param("id") Long id, @Param("seen") long seen, @Param("count") long count);
+}
@@ -1,20 +1,45 @@
 package com.revcart.userservice.repository;
 
 import com.revcart.userservice.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     Optional<User> findByEmail(String email);
     Optional<User> findByEmailIgnoreCase(String email);
     boolean existsByEmail(String email);
-    long countByActive(Boolean active);
-    
-    @Query("SELECT COUNT(u) FROM User u WHERE u.active = true")
-    long countActiveUsers();
     
     java.util.List<User> findByRole(User.Role role);
+
+    List<User> findByIdIn(Collection<Long> ids);
+
+    // Keyset pages over the primary key; the caller passes the last id it saw
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Delta feed ordered by (updated_at, id) so rows sharing a timestamp are never skipped between pages
+    @Query("SELECT u FROM User u WHERE u.updatedAt > :since OR (u.updatedAt = :since AND u.id > :afterId) " +
+            "ORDER BY u.updatedAt ASC, u.id ASC")
+    List<User> findUpdatedSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT u.role, u.active, COUNT(u) FROM User u GROUP BY u.role, u.active")
+    List<Object[]> countGroupedByRoleAndActive();
+
+    long countByCreatedAtGreaterThanEqual(LocalDateTime createdAt);
+
+    // Guarded by the old hash so a concurrent password reset is never overwritten
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
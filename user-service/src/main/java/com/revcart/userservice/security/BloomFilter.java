@@ -0,0 +1,75 @@
+package com.revcart.userservice.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over strings. Lookups hash the string's chars directly
+ * (no byte[] or key concatenation) and touch only the bit array, so a membership test allocates
+ * nothing. A {@code seed} separates key namespaces sharing one filter.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    public void put(int seed, String value) {
+        long hash1 = hash(value, seed);
+        long hash2 = hash(value, seed ^ 0x5bd1e995);
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(hash1 + i * hash2);
+            long mask = 1L << index;
+            int word = index >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(int seed, String value) {
+        long hash1 = hash(value, seed);
+        long hash2 = hash(value, seed ^ 0x5bd1e995);
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(hash1 + i * hash2);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int sizeInBytes() {
+        return bits.length() * Long.BYTES;
+    }
+
+    private int index(long combined) {
+        return (int) ((combined & Long.MAX_VALUE) % bitCount);
+    }
+
+    // 64-bit FNV-1a over UTF-16 chars, finished with a murmur3 fmix64 for better bit spread
+    private static long hash(String value, int seed) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec6L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
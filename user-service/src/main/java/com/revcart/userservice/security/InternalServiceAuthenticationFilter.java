@@ -0,0 +1,48 @@
+package com.revcart.userservice.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates service-to-service calls by the shared {@code X-Internal-Token} header and grants
+ * {@code ROLE_SERVICE}. With no token configured nothing is granted, so internal endpoints refuse
+ * every call rather than fall open.
+ */
+@Slf4j
+public class InternalServiceAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Internal-Token";
+
+    private final byte[] token;
+
+    public InternalServiceAuthenticationFilter(String token) {
+        this.token = token == null ? new byte[0] : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String presented = request.getHeader(HEADER);
+        if (token.length > 0 && presented != null
+                && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    "internal-service", null, List.of(new SimpleGrantedAuthority("ROLE_SERVICE")));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        } else {
+            log.warn("Internal call to {} refused: missing or wrong {}", request.getRequestURI(), HEADER);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
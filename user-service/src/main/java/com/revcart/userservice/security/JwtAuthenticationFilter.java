@@ -1,7 +1,6 @@
 package com.revcart.userservice.security;
 
-import com.revcart.userservice.entity.User;
-import com.revcart.userservice.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,14 +8,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
-import java.util.Collections;
 import java.util.Optional;
 
 @Component
@@ -25,7 +22,8 @@ import java.util.Optional;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService revocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -33,25 +31,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getUsernameFromToken(jwt);
-                log.debug("JWT validated for email: {}", email);
-                
-                Optional<User> userOptional = userRepository.findByEmail(email);
-                if (userOptional.isPresent()) {
-                    User user = userOptional.get();
-                    if (user.getActive()) {
-                        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.getRole().name());
-                        UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(email, null, Collections.singletonList(authority));
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        log.debug("Authentication set for user: {} with role: {}", email, user.getRole());
+            if (StringUtils.hasText(jwt)) {
+                Optional<Claims> claims = tokenProvider.parseToken(jwt);
+                if (claims.isPresent() && revocationService.isRevoked(claims.get())) {
+                    log.warn("Revoked token presented for: {}", claims.get().getSubject());
+                } else if (claims.isPresent()) {
+                    String email = claims.get().getSubject();
+                    log.debug("JWT validated for email: {}", email);
+
+                    Optional<PrincipalCache.CachedPrincipal> principal = principalCache.get(email);
+                    if (principal.isPresent()) {
+                        if (principal.get().active()) {
+                            UsernamePasswordAuthenticationToken authentication =
+                                    new UsernamePasswordAuthenticationToken(email, null, principal.get().authorities());
+                            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                            SecurityContextHolder.getContext().setAuthentication(authentication);
+                            log.debug("Authentication set for user: {} with role: {}", email, principal.get().role());
+                        } else {
+                            log.warn("User account is inactive: {}", email);
+                        }
                     } else {
-                        log.warn("User account is inactive: {}", email);
+                        log.warn("User not found in database: {}", email);
                     }
-                } else {
-                    log.warn("User not found in database: {}", email);
                 }
             }
         } catch (Exception ex) {
@@ -0,0 +1,87 @@
+package com.revcart.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revcart.userservice.entity.User;
+import com.revcart.userservice.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bounded, TTL'd cache of the role/active state the JWT filter needs, keyed by email, so an
+ * authenticated request does not hit {@code users} once the principal is warm.
+ * <p>
+ * Entries must be invalidated whenever a user's role or active flag changes; the TTL only bounds
+ * staleness across service instances.
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, CachedPrincipal> cache;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${security.principal-cache.max-size:100000}") long maxSize,
+                          @Value("${security.principal-cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<CachedPrincipal> get(String email) {
+        CachedPrincipal cached = cache.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Unknown emails are not cached, so a user registered later is picked up immediately
+        return userRepository.findByEmail(email).map(user -> {
+            CachedPrincipal principal = CachedPrincipal.of(user);
+            cache.put(email, principal);
+            return principal;
+        });
+    }
+
+    public void invalidate(String email) {
+        cache.invalidate(email);
+        log.debug("Principal cache invalidated for: {}", email);
+    }
+
+    /**
+     * Invalidates now and again once the surrounding transaction commits, so a concurrent request
+     * cannot re-cache the pre-commit row.
+     */
+    public void invalidateAfterCommit(String email) {
+        invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(email);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public record CachedPrincipal(Long userId, User.Role role, boolean active,
+                                  List<SimpleGrantedAuthority> authorities) {
+        static CachedPrincipal of(User user) {
+            return new CachedPrincipal(user.getId(), user.getRole(), Boolean.TRUE.equals(user.getActive()),
+                    List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.revcart.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revcart.userservice.entity.RevokedToken;
+import com.revcart.userservice.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Token revocation backed by the {@code revoked_tokens} table and fronted by an in-memory
+ * {@link BloomFilter}. Each instance polls the table for rows revoked since its last refresh, so
+ * revocations issued anywhere reach every instance within {@code security.revocation.refresh-interval-ms}.
+ * <p>
+ * A token that misses the filter is not revoked: that check needs no allocation and no query.
+ * Only filter hits (real revocations plus the configured false-positive rate) go to the store.
+ * Bloom filters cannot forget, so the filter is rebuilt from unexpired rows periodically.
+ * <p>
+ * Subject rows are cached, including the absence of one for a filter false positive, so a revoked
+ * user's later tokens do not query the store on every request. The poll keeps cached rows current.
+ * <p>
+ * A subject revocation covers tokens issued before {@code revokedAt}, which is stored in whole
+ * seconds like {@code iat}. Tokens issued in that same second are ordered by their
+ * {@code iatMillis} claim against {@code revokedAtMillis}, so a token issued right after a
+ * password reset stays valid.
+ */
+@Component
+@Slf4j
+public class TokenRevocationService {
+
+    private static final int JTI_SEED = 0x1f3d5b79;
+    private static final int SUBJECT_SEED = 0x7c2a9e41;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration pollOverlap;
+    private final Counter filterHits;
+    private final Counter falsePositives;
+    private final Cache<String, Optional<SubjectRevocation>> subjectRevocations;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastPolled;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.revocation.expected-insertions:1000000}") long expectedInsertions,
+                                  @Value("${security.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${security.revocation.poll-overlap:PT30S}") Duration pollOverlap,
+                                  @Value("${security.revocation.subject-cache-size:100000}") long subjectCacheSize,
+                                  @Value("${security.revocation.subject-cache-ttl:PT10M}") Duration subjectCacheTtl) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.pollOverlap = pollOverlap;
+        this.filterHits = meterRegistry.counter("token.revocation.filter.hits");
+        this.falsePositives = meterRegistry.counter("token.revocation.filter.false.positives");
+        this.subjectRevocations = Caffeine.newBuilder()
+                .maximumSize(subjectCacheSize)
+                .expireAfterWrite(subjectCacheTtl)
+                .build();
+    }
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * Hot-path check for a token that has already passed signature and expiry verification.
+     */
+    public boolean isRevoked(Claims claims) {
+        BloomFilter current = filter;
+        String jti = claims.getId();
+        String subject = claims.getSubject();
+        boolean jtiHit = jti != null && current.mightContain(JTI_SEED, jti);
+        boolean subjectHit = subject != null && current.mightContain(SUBJECT_SEED, subject);
+        if (!jtiHit && !subjectHit) {
+            return false;
+        }
+
+        filterHits.increment();
+        boolean revoked = (jtiHit && revokedTokenRepository.findByTypeAndTokenKey(RevokedToken.Type.JTI, jti).isPresent())
+                || (subjectHit && isRevokedForSubject(subject, claims));
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Revokes a single token, e.g. on logout. The row lives until the token would have expired anyway.
+     */
+    @Transactional
+    public void revokeToken(Claims claims) {
+        if (claims.getId() == null) {
+            // Issued before jti claims existed; only subject revocation can reach it
+            revokeAllForSubject(claims.getSubject());
+            return;
+        }
+        LocalDateTime expiresAt = toLocalDateTime(claims.getExpiration());
+        revokedTokenRepository.findByTypeAndTokenKey(RevokedToken.Type.JTI, claims.getId())
+                .orElseGet(() -> revokedTokenRepository.save(
+                        new RevokedToken(null, RevokedToken.Type.JTI, claims.getId(), LocalDateTime.now(), expiresAt, null)));
+        filter.put(JTI_SEED, claims.getId());
+        log.info("Token revoked for user: {}", claims.getSubject());
+    }
+
+    /**
+     * Revokes every token issued to {@code email} up to now; tokens issued afterwards stay valid.
+     */
+    @Transactional
+    public void revokeAllForSubject(String email) {
+        long nowMillis = System.currentTimeMillis();
+        LocalDateTime now = toLocalDateTime(new Date(nowMillis));
+        // Truncated here rather than rounded by the database, so it never lands after nowMillis
+        LocalDateTime revokedAt = now.truncatedTo(ChronoUnit.SECONDS);
+        RevokedToken row = revokedTokenRepository.findByTypeAndTokenKey(RevokedToken.Type.SUBJECT, email)
+                .orElseGet(() -> new RevokedToken(null, RevokedToken.Type.SUBJECT, email, revokedAt, now, nowMillis));
+        row.setRevokedAt(revokedAt);
+        row.setRevokedAtMillis(nowMillis);
+        row.setExpiresAt(now.plus(Duration.ofMillis(jwtExpiration)));
+        revokedTokenRepository.save(row);
+        filter.put(SUBJECT_SEED, email);
+        subjectRevocations.put(email, Optional.of(SubjectRevocation.of(row)));
+        log.info("All tokens revoked for user: {}", email);
+    }
+
+    /**
+     * Incremental replication: adds rows revoked (or re-revoked) since the last poll. The overlap
+     * window covers rows whose transactions committed after a later-stamped row was already seen.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        LocalDateTime pollStart = LocalDateTime.now();
+        List<RevokedToken> rows = revokedTokenRepository.findByRevokedAtGreaterThanEqual(lastPolled.minus(pollOverlap));
+        BloomFilter current = filter;
+        rows.forEach(row -> {
+            add(current, row);
+            if (row.getType() == RevokedToken.Type.SUBJECT) {
+                subjectRevocations.put(row.getTokenKey(), Optional.of(SubjectRevocation.of(row)));
+            }
+        });
+        lastPolled = pollStart;
+        if (!rows.isEmpty()) {
+            log.debug("Revocation filter refreshed with {} rows", rows.size());
+        }
+    }
+
+    /**
+     * Drops expired rows and rebuilds the filter from what is left, keeping the false-positive
+     * rate from creeping up as revocations accumulate.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.rebuild-interval-ms:3600000}",
+            initialDelayString = "${security.revocation.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        LocalDateTime pollStart = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(pollStart);
+        List<RevokedToken> rows = revokedTokenRepository.findByExpiresAtAfter(pollStart);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, rows.size() * 2L), falsePositiveRate);
+        rows.forEach(row -> add(rebuilt, row));
+        filter = rebuilt;
+        subjectRevocations.invalidateAll();
+        lastPolled = pollStart;
+        log.info("✅ Revocation filter rebuilt: {} entries, {} KB, {} expired rows purged",
+                rows.size(), rebuilt.sizeInBytes() / 1024, purged);
+    }
+
+    private boolean isRevokedForSubject(String subject, Claims claims) {
+        Optional<SubjectRevocation> revocation = subjectRevocations.get(subject, key ->
+                revokedTokenRepository.findByTypeAndTokenKey(RevokedToken.Type.SUBJECT, key).map(SubjectRevocation::of));
+        if (revocation.isEmpty()) {
+            return false;
+        }
+        if (claims.getIssuedAt() == null) {
+            return true;
+        }
+        LocalDateTime issuedAt = toLocalDateTime(claims.getIssuedAt());
+        LocalDateTime revokedAt = revocation.get().revokedAt();
+        if (issuedAt.isBefore(revokedAt)) {
+            return true;
+        }
+        if (issuedAt.isAfter(revokedAt)) {
+            return false;
+        }
+        // Same second: only the millisecond times can tell; without them stay on the safe side
+        Long issuedAtMillis = claims.get(JwtTokenProvider.ISSUED_AT_MILLIS_CLAIM, Long.class);
+        Long revokedAtMillis = revocation.get().revokedAtMillis();
+        return issuedAtMillis == null || revokedAtMillis == null || issuedAtMillis <= revokedAtMillis;
+    }
+
+    private static void add(BloomFilter target, RevokedToken row) {
+        target.put(row.getType() == RevokedToken.Type.JTI ? JTI_SEED : SUBJECT_SEED, row.getTokenKey());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private record SubjectRevocation(LocalDateTime revokedAt, Long revokedAtMillis) {
+        static SubjectRevocation of(RevokedToken row) {
+            return new SubjectRevocation(row.getRevokedAt(), row.getRevokedAtMillis());
+        }
+    }
+}
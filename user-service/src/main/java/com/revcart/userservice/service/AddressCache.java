@@ -0,0 +1,61 @@
+package com.revcart.userservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revcart.userservice.dto.AddressDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Per-user cache of saved addresses, keyed by user id. Every address write must call
+ * {@link #invalidateAfterCommit(Long)}; the TTL only bounds staleness across service instances.
+ */
+@Component
+@Slf4j
+public class AddressCache {
+
+    private final Cache<Long, List<AddressDto>> cache;
+
+    public AddressCache(@Value("${users.address-cache.max-size:50000}") long maxSize,
+                        @Value("${users.address-cache.ttl:PT10M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public List<AddressDto> get(Long userId, Function<Long, List<AddressDto>> loader) {
+        return cache.get(userId, id -> List.copyOf(loader.apply(id)));
+    }
+
+    /**
+     * The cached addresses of a user, or {@code null} without loading them.
+     */
+    public List<AddressDto> getIfPresent(Long userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    /**
+     * Invalidates now and again once the surrounding transaction commits, so a concurrent read
+     * cannot re-cache the pre-commit rows.
+     */
+    public void invalidateAfterCommit(Long userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+        log.debug("Address cache invalidated for user: {}", userId);
+    }
+}
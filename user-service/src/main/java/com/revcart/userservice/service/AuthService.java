@@ -1,19 +1,18 @@
 package com.revcart.userservice.service;
 
 import com.revcart.userservice.dto.*;
-import com.revcart.userservice.entity.OtpToken;
 import com.revcart.userservice.entity.User;
 import com.revcart.userservice.exception.BadRequestException;
-import com.revcart.userservice.repository.OtpTokenRepository;
 import com.revcart.userservice.repository.UserRepository;
 import com.revcart.userservice.security.JwtTokenProvider;
+import com.revcart.userservice.security.PasswordHashingService;
+import com.revcart.userservice.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
-import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
@@ -21,10 +20,13 @@ import java.util.Random;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final OtpTokenRepository otpTokenRepository;
+    private final OtpService otpService;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService revocationService;
     private final EmailService emailService;
+    private final UserMetrics userMetrics;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -37,7 +39,7 @@ public class AuthService {
 
         User user = new User();
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(request.getPassword().trim()));
+        user.setPassword(passwordHashingService.encode(request.getPassword().trim()));
         user.setName(request.getName().trim());
         user.setPhone(request.getPhone() != null ? request.getPhone().trim() : null);
         
@@ -64,6 +66,8 @@ public class AuthService {
         }
 
         String token = jwtTokenProvider.generateToken(saved.getEmail(), saved.getId());
+        // Last before commit, so the counter row is locked only briefly
+        userMetrics.userCreated(selectedRole, true);
         return new AuthResponse(token, toDto(saved));
     }
 
@@ -74,10 +78,19 @@ public class AuthService {
         User user = userRepository.findByEmailIgnoreCase(email)
                 .orElseThrow(() -> new BadRequestException("Invalid email or password"));
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashingService.matches(password, user.getPassword())) {
             throw new BadRequestException("Invalid email or password");
         }
 
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            Long userId = user.getId();
+            String oldHash = user.getPassword();
+            passwordHashingService.rehashAsync(password, newHash -> {
+                userRepository.updatePasswordHash(userId, oldHash, newHash);
+                log.info("Password rehashed with current BCrypt cost for user: {}", userId);
+            });
+        }
+
         if (!user.getActive()) {
             throw new BadRequestException("Account is inactive");
         }
@@ -93,29 +106,8 @@ public class AuthService {
         User user = userRepository.findByEmailIgnoreCase(normalizedEmail)
                 .orElseThrow(() -> new BadRequestException("Email not found"));
 
-        // Invalidate all previous OTPs for this email BEFORE creating new one
-        java.util.List<OtpToken> oldTokens = otpTokenRepository.findAll().stream()
-                .filter(token -> token.getEmail().equalsIgnoreCase(normalizedEmail) && !token.getUsed())
-                .collect(java.util.stream.Collectors.toList());
-        
-        for (OtpToken token : oldTokens) {
-            token.setUsed(true);
-            otpTokenRepository.save(token);
-            log.info("Invalidated old OTP for: {}", normalizedEmail);
-        }
+        String otp = otpService.issue(normalizedEmail);
 
-        // Generate new OTP
-        String otp = String.format("%06d", new Random().nextInt(999999));
-        OtpToken otpToken = new OtpToken();
-        otpToken.setEmail(normalizedEmail);
-        otpToken.setOtp(otp);
-        otpToken.setExpiresAt(LocalDateTime.now().plusMinutes(5));
-        otpToken.setUsed(false);
-
-        OtpToken savedToken = otpTokenRepository.save(otpToken);
-        log.info("✅ New OTP created - ID: {}, Email: {}, OTP: {}, Used: {}", 
-                savedToken.getId(), savedToken.getEmail(), savedToken.getOtp(), savedToken.getUsed());
-        
         // Send OTP email (non-blocking)
         try {
             emailService.sendOtpEmail(normalizedEmail, otp, user.getName());
@@ -126,7 +118,7 @@ public class AuthService {
         }
     }
 
-    @Transactional
+    @Transactional(noRollbackFor = BadRequestException.class)
     public void verifyOtp(String email, String otp) {
         try {
             String normalizedEmail = email.trim().toLowerCase();
@@ -134,20 +126,7 @@ public class AuthService {
             
             log.info("Attempting OTP verification for email: {}, OTP: {}", normalizedEmail, normalizedOtp);
             
-            OtpToken otpToken = otpTokenRepository.findByEmailAndOtpAndUsedFalse(normalizedEmail, normalizedOtp)
-                    .orElseThrow(() -> {
-                        log.error("OTP not found or already used for email: {}, OTP: {}", normalizedEmail, normalizedOtp);
-                        return new BadRequestException("Invalid or expired OTP");
-                    });
-
-            if (otpToken.getExpiresAt().isBefore(LocalDateTime.now())) {
-                log.error("OTP expired for email: {}. Expired at: {}, Current time: {}", 
-                         normalizedEmail, otpToken.getExpiresAt(), LocalDateTime.now());
-                throw new BadRequestException("OTP has expired");
-            }
-
-            otpToken.setUsed(true);
-            otpTokenRepository.save(otpToken);
+            otpService.verify(normalizedEmail, normalizedOtp);
             log.info("✅ OTP verified successfully for: {}", normalizedEmail);
         } catch (BadRequestException e) {
             throw e;
@@ -162,13 +141,22 @@ public class AuthService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new BadRequestException("User not found"));
 
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         userRepository.save(user);
+        revocationService.revokeAllForSubject(email);
         log.info("Password reset for: {}", email);
     }
 
     public boolean validateToken(String token) {
-        return jwtTokenProvider.validateToken(token);
+        return jwtTokenProvider.parseToken(token)
+                .map(claims -> !revocationService.isRevoked(claims))
+                .orElse(false);
+    }
+
+    public void logout(String token) {
+        Claims claims = jwtTokenProvider.parseToken(token)
+                .orElseThrow(() -> new BadRequestException("Invalid token"));
+        revocationService.revokeToken(claims);
     }
 
     private UserDto toDto(User user) {
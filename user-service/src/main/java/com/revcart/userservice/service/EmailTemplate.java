@@ -0,0 +1,70 @@
+package com.revcart.userservice.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTML mail template with {@code {{name}}} placeholders, split into literal and placeholder
+ * segments once at load time so rendering is a single pass into a pre-sized buffer.
+ * Values are HTML-escaped.
+ */
+public final class EmailTemplate {
+
+    private final List<String> literals;
+    private final List<String> placeholders;
+    private final int literalLength;
+
+    private EmailTemplate(List<String> literals, List<String> placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    public static EmailTemplate load(String classpathLocation) {
+        try (InputStream in = new ClassPathResource(classpathLocation).getInputStream()) {
+            return compile(StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load mail template " + classpathLocation, e);
+        }
+    }
+
+    public static EmailTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf("{{", position)) >= 0) {
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                break;
+            }
+            literals.add(source.substring(position, open));
+            placeholders.add(source.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        literals.add(source.substring(position));
+        return new EmailTemplate(List.copyOf(literals), List.copyOf(placeholders));
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder html = new StringBuilder(literalLength + placeholders.size() * 32);
+        for (int i = 0; i < placeholders.size(); i++) {
+            html.append(literals.get(i));
+            String value = values.get(placeholders.get(i));
+            if (value != null) {
+                html.append(HtmlUtils.htmlEscape(value));
+            }
+        }
+        html.append(literals.get(literals.size() - 1));
+        return html.toString();
+    }
+}
@@ -0,0 +1,343 @@
+package com.revcart.userservice.service;
+
+import com.revcart.userservice.entity.FailedEmail;
+import com.revcart.userservice.repository.FailedEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbound mail pipeline: callers enqueue into a bounded queue and return immediately; a fixed
+ * pool of workers drains it in small batches, each worker holding one SMTP connection open
+ * across messages instead of reconnecting per send. Failed sends are retried with exponential
+ * backoff and end up in {@code failed_emails} once retries are exhausted.
+ * <p>
+ * Messages are rendered from their template when sent. Dead-lettered bodies are rendered with the
+ * secret parameters (OTP codes) masked, and dead letters are deleted after
+ * {@code mail.dispatch.dead-letter-retention}. A message submitted inside a transaction is queued
+ * only once that transaction commits. On shutdown, queued messages and pending retries that were
+ * not sent are dead-lettered.
+ */
+@Component
+@Slf4j
+public class MailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final FailedEmailRepository failedEmailRepository;
+    private final BlockingQueue<MailJob> queue;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration idleTimeout;
+    private final Duration deadLetterRetention;
+    private final Set<MailJob> pendingRetries = ConcurrentHashMap.newKeySet();
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+    private final Counter rejectedCounter;
+    private final Timer deliveryTimer;
+    private final Timer sendTimer;
+
+    private ExecutorService workerPool;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    public MailDispatcher(JavaMailSender mailSender,
+                          FailedEmailRepository failedEmailRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${mail.dispatch.queue-capacity:1000}") int queueCapacity,
+                          @Value("${mail.dispatch.workers:4}") int workers,
+                          @Value("${mail.dispatch.batch-size:20}") int batchSize,
+                          @Value("${mail.dispatch.max-attempts:4}") int maxAttempts,
+                          @Value("${mail.dispatch.initial-backoff:PT2S}") Duration initialBackoff,
+                          @Value("${mail.dispatch.idle-timeout:PT30S}") Duration idleTimeout,
+                          @Value("${mail.dispatch.dead-letter-retention:P30D}") Duration deadLetterRetention) {
+        this.mailSender = mailSender;
+        this.failedEmailRepository = failedEmailRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.idleTimeout = idleTimeout;
+        this.deadLetterRetention = deadLetterRetention;
+
+        meterRegistry.gauge("mail.queue.depth", queue, BlockingQueue::size);
+        this.sentCounter = meterRegistry.counter("mail.sent");
+        this.failedCounter = meterRegistry.counter("mail.failed");
+        this.retriedCounter = meterRegistry.counter("mail.retried");
+        this.rejectedCounter = meterRegistry.counter("mail.rejected");
+        this.deliveryTimer = Timer.builder("mail.delivery.latency")
+                .description("Time from enqueue to successful SMTP hand-off")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send.latency")
+                .description("SMTP send time per message")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        AtomicInteger workerIndex = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "mail-worker-" + workerIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::workLoop);
+        }
+        log.info("Mail dispatcher started with {} workers, queue capacity {}", workers, queue.remainingCapacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        // Retries still waiting for their backoff are not sent; let one that is firing finish
+        retryScheduler.shutdownNow();
+        retryScheduler.awaitTermination(1, TimeUnit.SECONDS);
+        for (MailJob retry : List.copyOf(pendingRetries)) {
+            if (pendingRetries.remove(retry)) {
+                deadLetter(retry, "Service shutting down");
+            }
+        }
+        // Workers send what is already queued before they stop
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(10, TimeUnit.SECONDS)) {
+            workerPool.shutdownNow();
+            workerPool.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        List<MailJob> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(job -> deadLetter(job, "Service shutting down"));
+    }
+
+    /**
+     * Enqueues a message without blocking. Returns {@code false} (and dead-letters the message)
+     * when the queue is full. Inside a transaction the message is queued after commit and dropped
+     * on rollback; the result is then always {@code true}, a full queue still dead-letters it.
+     *
+     * @param secretParams keys of {@code params} that are masked when the message is dead-lettered
+     */
+    public boolean submit(String to, String subject, EmailTemplate template, Map<String, String> params,
+                          Set<String> secretParams) {
+        MailJob job = new MailJob(to, subject, template, Map.copyOf(params), Set.copyOf(secretParams), 1, System.nanoTime());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(job);
+                }
+            });
+            return true;
+        }
+        return enqueue(job);
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${mail.dispatch.dead-letter-purge-interval-ms:3600000}")
+    public void purgeDeadLetters() {
+        try {
+            int purged = failedEmailRepository.deleteCreatedBefore(LocalDateTime.now().minus(deadLetterRetention));
+            if (purged > 0) {
+                log.info("Purged {} dead-lettered emails older than {}", purged, deadLetterRetention);
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge dead-lettered emails: {}", e.getMessage());
+        }
+    }
+
+    private boolean enqueue(MailJob job) {
+        job = job.restamped();
+        if (!queue.offer(job)) {
+            rejectedCounter.increment();
+            log.warn("Mail queue full, rejecting email to: {}", job.to());
+            deadLetter(job, "Mail queue full");
+            return false;
+        }
+        return true;
+    }
+
+    private void workLoop() {
+        Transport transport = null;
+        List<MailJob> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                MailJob first = queue.poll(idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // Idle: release the SMTP connection rather than let the server time it out
+                    transport = close(transport);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (MailJob job : batch) {
+                    transport = send(job, transport);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        close(transport);
+    }
+
+    private Transport send(MailJob job, Transport transport) {
+        long start = System.nanoTime();
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            helper.setFrom(fromEmail);
+            helper.setTo(job.to());
+            helper.setSubject(job.subject());
+            helper.setText(job.template().render(job.params()), true);
+
+            if (mailSender instanceof JavaMailSenderImpl senderImpl) {
+                transport = connected(transport, senderImpl);
+                message.saveChanges();
+                transport.sendMessage(message, message.getAllRecipients());
+            } else {
+                mailSender.send(message);
+            }
+
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            deliveryTimer.record(System.nanoTime() - job.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            sentCounter.increment();
+            log.info("✅ Email '{}' sent to: {} (attempt {})", job.subject(), job.to(), job.attempt());
+            return transport;
+        } catch (Exception e) {
+            log.error("❌ Failed to send email '{}' to: {} (attempt {}): {}",
+                    job.subject(), job.to(), job.attempt(), e.getMessage());
+            scheduleRetry(job, e);
+            // Drop the connection, it may be the cause; the next message reconnects
+            return close(transport);
+        }
+    }
+
+    private Transport connected(Transport transport, JavaMailSenderImpl senderImpl) throws MessagingException {
+        if (transport != null && transport.isConnected()) {
+            return transport;
+        }
+        Transport fresh = senderImpl.getSession().getTransport(senderImpl.getProtocol());
+        fresh.connect(senderImpl.getHost(), senderImpl.getPort(), senderImpl.getUsername(), senderImpl.getPassword());
+        return fresh;
+    }
+
+    private Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP transport: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void scheduleRetry(MailJob job, Exception cause) {
+        failedCounter.increment();
+        if (job.attempt() >= maxAttempts || !running) {
+            deadLetter(job, cause.getMessage());
+            return;
+        }
+        long delay = initialBackoff.toMillis() << (job.attempt() - 1);
+        MailJob retry = job.nextAttempt();
+        retriedCounter.increment();
+        pendingRetries.add(retry);
+        try {
+            retryScheduler.schedule(() -> {
+                // Whoever removes it owns it, so stop() and this task never both handle a retry
+                if (pendingRetries.remove(retry) && !queue.offer(retry)) {
+                    rejectedCounter.increment();
+                    deadLetter(retry, "Mail queue full on retry");
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Stopped between the running check and here
+            if (pendingRetries.remove(retry)) {
+                deadLetter(retry, "Service shutting down");
+            }
+        }
+    }
+
+    private void deadLetter(MailJob job, String error) {
+        try {
+            FailedEmail failed = new FailedEmail();
+            failed.setToEmail(job.to());
+            failed.setSubject(job.subject());
+            failed.setHtmlBody(job.redactedBody());
+            failed.setAttempts(job.attempt());
+            failed.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            failedEmailRepository.save(failed);
+            log.error("Email '{}' to {} moved to dead-letter store after {} attempt(s)",
+                    job.subject(), job.to(), job.attempt());
+        } catch (Exception e) {
+            log.error("Could not dead-letter email to {}: {}", job.to(), e.getMessage());
+        }
+    }
+
+    record MailJob(String to, String subject, EmailTemplate template, Map<String, String> params,
+                   Set<String> secretParams, int attempt, long enqueuedAtNanos) {
+        MailJob nextAttempt() {
+            return new MailJob(to, subject, template, params, secretParams, attempt + 1, enqueuedAtNanos);
+        }
+
+        // Latency is measured from when the message is queued, which may be after a commit
+        MailJob restamped() {
+            return new MailJob(to, subject, template, params, secretParams, attempt, System.nanoTime());
+        }
+
+        String redactedBody() {
+            Map<String, String> redacted = new HashMap<>(params);
+            secretParams.forEach(key -> redacted.computeIfPresent(key, (k, v) -> "******"));
+            return template.render(redacted);
+        }
+    }
+}
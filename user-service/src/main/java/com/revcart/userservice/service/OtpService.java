@@ -0,0 +1,143 @@
+package com.revcart.userservice.service;
+
+import com.revcart.userservice.entity.OtpToken;
+import com.revcart.userservice.exception.BadRequestException;
+import com.revcart.userservice.repository.OtpEmailAttemptsRepository;
+import com.revcart.userservice.repository.OtpTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * OTP issuance and verification against {@code otp_tokens}. Issuing touches only the caller's
+ * unused rows via the {@code (email, used)} index, so cost does not grow with table history;
+ * expired rows are purged on a schedule.
+ * <p>
+ * Wrong codes are limited twice, both with conditional updates so parallel guesses cannot exceed
+ * the limit: {@code otp.max-attempts} per token, and {@code otp.max-attempts-per-email} per email
+ * within {@code otp.email-window}, which survives requesting a new code.
+ */
+@Service
+@Slf4j
+public class OtpService {
+
+    private final OtpTokenRepository otpTokenRepository;
+    private final OtpEmailAttemptsRepository otpEmailAttemptsRepository;
+    private final SecureRandom random = new SecureRandom();
+    private final Duration ttl;
+    private final int maxAttempts;
+    private final int maxAttemptsPerEmail;
+    private final Duration emailWindow;
+    private final Duration retention;
+
+    public OtpService(OtpTokenRepository otpTokenRepository,
+                      OtpEmailAttemptsRepository otpEmailAttemptsRepository,
+                      @Value("${otp.ttl:PT5M}") Duration ttl,
+                      @Value("${otp.max-attempts:5}") int maxAttempts,
+                      @Value("${otp.max-attempts-per-email:10}") int maxAttemptsPerEmail,
+                      @Value("${otp.email-window:PT1H}") Duration emailWindow,
+                      @Value("${otp.retention:PT1H}") Duration retention) {
+        this.otpTokenRepository = otpTokenRepository;
+        this.otpEmailAttemptsRepository = otpEmailAttemptsRepository;
+        this.ttl = ttl;
+        this.maxAttempts = maxAttempts;
+        this.maxAttemptsPerEmail = maxAttemptsPerEmail;
+        this.emailWindow = emailWindow;
+        this.retention = retention;
+    }
+
+    @Transactional
+    public String issue(String email) {
+        int invalidated = otpTokenRepository.invalidateActiveTokens(email);
+        if (invalidated > 0) {
+            log.info("Invalidated {} old OTP(s) for: {}", invalidated, email);
+        }
+
+        String otp = String.format("%06d", random.nextInt(1_000_000));
+        OtpToken otpToken = new OtpToken();
+        otpToken.setEmail(email);
+        otpToken.setOtp(otp);
+        otpToken.setExpiresAt(LocalDateTime.now().plus(ttl));
+        otpToken.setUsed(false);
+        otpToken.setFailedAttempts(0);
+
+        OtpToken savedToken = otpTokenRepository.save(otpToken);
+        log.info("✅ New OTP created - ID: {}, Email: {}", savedToken.getId(), savedToken.getEmail());
+        return otp;
+    }
+
+    /**
+     * Checks {@code otp} against the email's current token. A wrong code counts against that token,
+     * which is burned after {@code otp.max-attempts} failures, and against the email, which is locked
+     * for the rest of the window after {@code otp.max-attempts-per-email} failures.
+     */
+    @Transactional(noRollbackFor = BadRequestException.class)
+    public void verify(String email, String otp) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = now.minus(emailWindow);
+        if (otpEmailAttemptsRepository.isLocked(email, windowStart, maxAttemptsPerEmail)) {
+            log.warn("OTP verification refused for {}: too many failed attempts", email);
+            throw new BadRequestException("Too many failed attempts, please try again later");
+        }
+
+        OtpToken otpToken = otpTokenRepository.findFirstByEmailAndUsedFalseOrderByIdDesc(email)
+                .orElseThrow(() -> {
+                    log.error("No active OTP for email: {}", email);
+                    return new BadRequestException("Invalid or expired OTP");
+                });
+
+        if (otpToken.getExpiresAt().isBefore(now)) {
+            log.error("OTP expired for email: {}. Expired at: {}", email, otpToken.getExpiresAt());
+            otpTokenRepository.markUsed(otpToken.getId());
+            throw new BadRequestException("OTP has expired");
+        }
+
+        if (!MessageDigest.isEqual(otpToken.getOtp().getBytes(StandardCharsets.UTF_8),
+                otp.getBytes(StandardCharsets.UTF_8))) {
+            recordFailure(email, otpToken, now, windowStart);
+        }
+
+        if (otpTokenRepository.consume(otpToken.getId(), maxAttempts) == 0) {
+            // Used or burned by a concurrent request since it was read
+            throw new BadRequestException("Invalid or expired OTP");
+        }
+        otpEmailAttemptsRepository.reset(email);
+    }
+
+    @Scheduled(fixedDelayString = "${otp.purge-interval-ms:600000}")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = otpTokenRepository.deleteExpiredBefore(now.minus(retention));
+        int windows = otpEmailAttemptsRepository.deleteWindowsBefore(now.minus(emailWindow));
+        if (purged > 0 || windows > 0) {
+            log.info("Purged {} expired OTP tokens and {} attempt windows", purged, windows);
+        }
+    }
+
+    private void recordFailure(String email, OtpToken otpToken, LocalDateTime now, LocalDateTime windowStart) {
+        otpEmailAttemptsRepository.insertIfAbsent(email, now);
+        boolean emailLocked = otpEmailAttemptsRepository.recordFailure(email, now, windowStart, maxAttemptsPerEmail) == 0;
+        boolean tokenCounted = otpTokenRepository.recordFailedAttempt(otpToken.getId(), maxAttempts) > 0;
+        boolean tokenBurned = !tokenCounted || otpTokenRepository.burnIfExhausted(otpToken.getId(), maxAttempts) > 0;
+        if (emailLocked) {
+            log.warn("OTP verification for {} locked for {} after {} failed attempts", email, emailWindow, maxAttemptsPerEmail);
+            throw new BadRequestException("Too many failed attempts, please try again later");
+        }
+        if (tokenBurned) {
+            log.warn("OTP for {} locked after {} failed attempts", email, maxAttempts);
+            throw new BadRequestException("Too many failed attempts, please request a new OTP");
+        }
+        log.warn("Wrong OTP for {}", email);
+        throw new BadRequestException("Invalid or expired OTP");
+    }
+}
@@ -24,6 +24,7 @@ public class ProfileService {
 
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
+    private final AddressCache addressCache;
 
     public UserDto getProfile() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -76,6 +77,7 @@ public class ProfileService {
                             (dto.getPrimaryAddress() != null ? dto.getPrimaryAddress() : false));
 
         Address saved = addressRepository.save(address);
+        addressCache.invalidateAfterCommit(user.getId());
         log.info("Address added for user: {}", user.getEmail());
         return toAddressDto(saved);
     }
@@ -101,6 +103,7 @@ public class ProfileService {
         address.setIsDefault(dto.getIsDefault());
 
         Address updated = addressRepository.save(address);
+        addressCache.invalidateAfterCommit(user.getId());
         log.info("Address updated: {}", updated.getId());
         return toAddressDto(updated);
     }
@@ -119,6 +122,7 @@ public class ProfileService {
         }
 
         addressRepository.delete(address);
+        addressCache.invalidateAfterCommit(user.getId());
         log.info("Address deleted: {}", id);
     }
 
@@ -0,0 +1,194 @@
+package com.revcart.userservice.service;
+
+import com.revcart.userservice.dto.UserCountsDto;
+import com.revcart.userservice.entity.User;
+import com.revcart.userservice.entity.UserCounter;
+import com.revcart.userservice.repository.UserCounterRepository;
+import com.revcart.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * User counts by role and active flag, kept in {@code user_counters} instead of counting
+ * {@code users} on every stats call.
+ * <p>
+ * Writers adjust the counters inside their own transaction, as its last statement so the counter
+ * row stays locked only until the commit. Reconciliation counts {@code users} without taking any
+ * lock, reading the counters before and after the count; a counter that changed in between is
+ * left for the next run, and a correction only applies if the counter still holds the value it was
+ * computed from. It also repairs drift from concurrent changes to the same user. Gauges read a
+ * snapshot refreshed every few seconds, so a scrape never queries the database.
+ */
+@Component
+@Slf4j
+public class UserMetrics {
+
+    private final UserCounterRepository userCounterRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<User.Role, Map<Boolean, Long>> snapshot = new EnumMap<>(User.Role.class);
+
+    public UserMetrics(UserCounterRepository userCounterRepository,
+                       UserRepository userRepository,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.userCounterRepository = userCounterRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (User.Role role : User.Role.values()) {
+            Map<Boolean, Long> byActive = new LinkedHashMap<>();
+            byActive.put(true, 0L);
+            byActive.put(false, 0L);
+            snapshot.put(role, byActive);
+            for (boolean active : new boolean[]{true, false}) {
+                Gauge.builder("users.count", this, metrics -> metrics.cached(role, active))
+                        .tag("role", role.name())
+                        .tag("active", String.valueOf(active))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        reconcile();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userCreated(User.Role role, boolean active) {
+        adjust(role, active, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(User.Role role, boolean wasActive, boolean active) {
+        if (wasActive != active) {
+            adjust(role, wasActive, -1);
+            adjust(role, active, 1);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void roleChanged(User.Role oldRole, User.Role role, boolean active) {
+        if (oldRole != role) {
+            adjust(oldRole, active, -1);
+            adjust(role, active, 1);
+        }
+    }
+
+    /**
+     * Current counts straight from the counter table (six rows, no scan of {@code users}).
+     */
+    public UserCountsDto counts() {
+        List<UserCounter> counters = userCounterRepository.findAll();
+        counters.forEach(this::cache);
+        return toCounts(counters);
+    }
+
+    @Scheduled(fixedDelayString = "${users.metrics.refresh-interval-ms:5000}")
+    public void refresh() {
+        userCounterRepository.findAll().forEach(this::cache);
+    }
+
+    @Scheduled(fixedDelayString = "${users.metrics.reconcile-interval-ms:600000}",
+            initialDelayString = "${users.metrics.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        Map<User.Role, Map<Boolean, UserCounter>> before = stored();
+        Map<User.Role, Map<Boolean, Long>> actual = new EnumMap<>(User.Role.class);
+        for (Object[] row : userRepository.countGroupedByRoleAndActive()) {
+            actual.computeIfAbsent((User.Role) row[0], role -> new LinkedHashMap<>())
+                    .put(Boolean.TRUE.equals(row[1]), ((Number) row[2]).longValue());
+        }
+        Map<User.Role, Map<Boolean, UserCounter>> after = stored();
+
+        for (User.Role role : User.Role.values()) {
+            for (boolean active : new boolean[]{true, false}) {
+                long expected = actual.getOrDefault(role, Map.of()).getOrDefault(active, 0L);
+                UserCounter seen = after.getOrDefault(role, Map.of()).get(active);
+                UserCounter previous = before.getOrDefault(role, Map.of()).get(active);
+                if (seen == null) {
+                    seed(role, active, expected);
+                } else if (previous == null || previous.getCount() != seen.getCount()) {
+                    log.debug("User counter {}/{} changed during reconciliation, left for the next run", role, active);
+                } else if (seen.getCount() != expected) {
+                    log.warn("User counter drift for {}/{}: stored {}, actual {}",
+                            role, active ? "active" : "inactive", seen.getCount(), expected);
+                    transactionTemplate.executeWithoutResult(status ->
+                            userCounterRepository.correct(seen.getId(), seen.getCount(), expected));
+                }
+            }
+        }
+        refresh();
+        log.debug("User counters reconciled");
+    }
+
+    private Map<User.Role, Map<Boolean, UserCounter>> stored() {
+        Map<User.Role, Map<Boolean, UserCounter>> stored = new EnumMap<>(User.Role.class);
+        for (UserCounter counter : userCounterRepository.findAll()) {
+            stored.computeIfAbsent(counter.getRole(), role -> new LinkedHashMap<>()).put(counter.getActive(), counter);
+        }
+        return stored;
+    }
+
+    // Replicas starting together on an empty table race to create the rows; the loser keeps the winner's
+    private void seed(User.Role role, boolean active, long count) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    userCounterRepository.saveAndFlush(new UserCounter(null, role, active, count)));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("User counter {}/{} created concurrently", role, active);
+        }
+    }
+
+    private void adjust(User.Role role, boolean active, long delta) {
+        if (userCounterRepository.increment(role, active, delta) == 0) {
+            // Row not seeded yet; reconciliation will create it with the correct value
+            log.warn("User counter row missing for {}/{}", role, active);
+        }
+    }
+
+    private void cache(UserCounter counter) {
+        synchronized (snapshot) {
+            snapshot.get(counter.getRole()).put(counter.getActive(), counter.getCount());
+        }
+    }
+
+    private double cached(User.Role role, boolean active) {
+        synchronized (snapshot) {
+            return snapshot.get(role).get(active);
+        }
+    }
+
+    private static UserCountsDto toCounts(List<UserCounter> counters) {
+        Map<String, Long> byRole = new LinkedHashMap<>();
+        Map<String, Long> activeByRole = new LinkedHashMap<>();
+        for (User.Role role : User.Role.values()) {
+            byRole.put(role.name(), 0L);
+            activeByRole.put(role.name(), 0L);
+        }
+        long total = 0;
+        long active = 0;
+        for (UserCounter counter : counters) {
+            total += counter.getCount();
+            byRole.merge(counter.getRole().name(), counter.getCount(), Long::sum);
+            if (counter.getActive()) {
+                active += counter.getCount();
+                activeByRole.merge(counter.getRole().name(), counter.getCount(), Long::sum);
+            }
+        }
+        return new UserCountsDto(total, active, total - active, byRole, activeByRole, null);
+    }
+}
@@ -0,0 +1,161 @@
+package com.revcart.userservice.service;
+
+import com.revcart.userservice.dto.UserDto;
+import com.revcart.userservice.dto.UserSearchCriteria;
+import com.revcart.userservice.dto.UserSearchPage;
+import com.revcart.userservice.entity.User;
+import com.revcart.userservice.exception.BadRequestException;
+import com.revcart.userservice.repository.UserRepository;
+import jakarta.persistence.criteria.Predicate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Admin user search. A prefix query walks the matching (field, id) index in order, and without a
+ * query results are newest first by id; either way pages are keyset-based, so page N costs the same
+ * as page 1 and no COUNT query is issued.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchService {
+
+    static final int MAX_PAGE_SIZE = 200;
+    private static final Pattern PHONE_PREFIX = Pattern.compile("[+\\d][\\d\\s-]*");
+
+    private final UserRepository userRepository;
+
+    public UserSearchPage search(UserSearchCriteria criteria) {
+        if (criteria.getSize() < 1 || criteria.getSize() > MAX_PAGE_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String prefix = StringUtils.hasText(criteria.getQ()) ? criteria.getQ().trim() : null;
+        String field = prefix == null ? null : resolveField(criteria.getField(), prefix);
+        Cursor cursor = Cursor.decode(criteria.getCursor(), field != null);
+
+        Specification<User> spec = filters(criteria)
+                .and(prefixMatch(field, prefix))
+                .and(after(field, cursor));
+        Sort sort = field == null
+                ? Sort.by(Sort.Direction.DESC, "id")
+                : Sort.by(Sort.Direction.ASC, field).and(Sort.by(Sort.Direction.ASC, "id"));
+
+        int limit = criteria.getSize();
+        // One extra row tells us whether another page exists
+        List<User> rows = userRepository.findBy(spec, query -> query.sortBy(sort).limit(limit + 1).all());
+        boolean hasMore = rows.size() > limit;
+        List<User> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            User last = page.get(page.size() - 1);
+            nextCursor = new Cursor(field == null ? null : fieldValue(last, field), last.getId()).encode();
+        }
+        List<UserDto> users = page.stream().map(UserSearchService::toUserDto).collect(Collectors.toList());
+        return new UserSearchPage(users, hasMore, nextCursor);
+    }
+
+    private static String resolveField(String requested, String prefix) {
+        if (StringUtils.hasText(requested)) {
+            return switch (requested.trim().toUpperCase(Locale.ROOT)) {
+                case "EMAIL" -> "email";
+                case "NAME" -> "name";
+                case "PHONE" -> "phone";
+                default -> throw new BadRequestException("field must be one of EMAIL, NAME, PHONE");
+            };
+        }
+        if (prefix.contains("@")) {
+            return "email";
+        }
+        return PHONE_PREFIX.matcher(prefix).matches() ? "phone" : "name";
+    }
+
+    private static Specification<User> filters(UserSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getRole() != null) {
+                predicates.add(cb.equal(root.get("role"), criteria.getRole()));
+            }
+            if (criteria.getActive() != null) {
+                predicates.add(cb.equal(root.get("active"), criteria.getActive()));
+            }
+            if (criteria.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), criteria.getCreatedFrom()));
+            }
+            if (criteria.getCreatedTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), criteria.getCreatedTo()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // A leading-anchored LIKE is a range scan on the column's index (the table's collation is case-insensitive)
+    private static Specification<User> prefixMatch(String field, String prefix) {
+        if (field == null) {
+            return null;
+        }
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get(field), pattern, '\\');
+    }
+
+    private static Specification<User> after(String field, Cursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        if (field == null) {
+            return (root, query, cb) -> cb.lessThan(root.get("id"), cursor.id());
+        }
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get(field), cursor.value()),
+                cb.and(cb.equal(root.get(field), cursor.value()), cb.greaterThan(root.get("id"), cursor.id())));
+    }
+
+    private static String fieldValue(User user, String field) {
+        return switch (field) {
+            case "email" -> user.getEmail();
+            case "name" -> user.getName();
+            default -> user.getPhone();
+        };
+    }
+
+    private static UserDto toUserDto(User user) {
+        UserDto dto = new UserDto(user.getId(), user.getEmail(), user.getName(), user.getPhone(), user.getRole(), user.getCreatedAt());
+        dto.setActive(user.getActive());
+        dto.setUpdatedAt(user.getUpdatedAt());
+        return dto;
+    }
+
+    private record Cursor(String value, Long id) {
+
+        String encode() {
+            String raw = (value == null ? "" : value) + "\n" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token, boolean valued) {
+            if (!StringUtils.hasText(token)) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('\n');
+                String value = raw.substring(0, separator);
+                return new Cursor(valued ? value : null, Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package com.revcart.userservice.service;
 
 import com.revcart.userservice.dto.AddressDto;
+import com.revcart.userservice.dto.UserCountsDto;
 import com.revcart.userservice.dto.UserDto;
+import com.revcart.userservice.dto.UserFeedPage;
 import com.revcart.userservice.entity.Address;
 import com.revcart.userservice.entity.User;
 import com.revcart.userservice.exception.BadRequestException;
 import com.revcart.userservice.exception.ResourceNotFoundException;
 import com.revcart.userservice.repository.AddressRepository;
 import com.revcart.userservice.repository.UserRepository;
+import com.revcart.userservice.security.PrincipalCache;
+import com.revcart.userservice.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,6 +30,13 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final AddressRepository addressRepository;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService revocationService;
+    private final AddressCache addressCache;
+    private final UserMetrics userMetrics;
+
+    static final int MAX_FEED_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_IDS = 1000;
 
     public UserDto getProfile() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -52,11 +66,30 @@ public class UserService {
 
     public List<AddressDto> getAddresses() {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        return addressRepository.findByUserId(user.getId()).stream()
+        Long userId = principalCache.get(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"))
+                .userId();
+        return getAddressesForUser(userId);
+    }
+
+    public List<AddressDto> getAddressesForUser(Long userId) {
+        return addressCache.get(userId, id -> addressRepository.findByUserId(id).stream()
                 .map(this::toAddressDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    public AddressDto getAddressForUser(Long userId, Long addressId) {
+        List<AddressDto> cached = addressCache.getIfPresent(userId);
+        if (cached != null) {
+            return cached.stream()
+                    .filter(address -> address.getId().equals(addressId))
+                    .findFirst()
+                    .orElseThrow(() -> new ResourceNotFoundException("Address not found"));
+        }
+        // a single row on a miss; the user's whole list is only cached by the list endpoints
+        return addressRepository.findByIdAndUserId(addressId, userId)
+                .map(this::toAddressDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Address not found"));
     }
 
     @Transactional
@@ -76,6 +109,7 @@ public class UserService {
                             (dto.getPrimaryAddress() != null ? dto.getPrimaryAddress() : false));
 
         Address saved = addressRepository.save(address);
+        addressCache.invalidateAfterCommit(user.getId());
         log.info("Address added for user: {}", user.getEmail());
         return toAddressDto(saved);
     }
@@ -101,6 +135,7 @@ public class UserService {
         address.setIsDefault(dto.getIsDefault());
 
         Address updated = addressRepository.save(address);
+        addressCache.invalidateAfterCommit(user.getId());
         log.info("Address updated: {}", updated.getId());
         return toAddressDto(updated);
     }
@@ -119,12 +154,14 @@ public class UserService {
         }
 
         addressRepository.delete(address);
+        addressCache.invalidateAfterCommit(user.getId());
         log.info("Address deleted: {}", id);
     }
 
     private UserDto toUserDto(User user) {
         UserDto dto = new UserDto(user.getId(), user.getEmail(), user.getName(), user.getPhone(), user.getRole(), user.getCreatedAt());
         dto.setActive(user.getActive());
+        dto.setUpdatedAt(user.getUpdatedAt());
         return dto;
     }
 
@@ -151,7 +188,7 @@ public class UserService {
     
     public java.util.Map<String, Object> getUserStats() {
         java.util.Map<String, Object> stats = new java.util.HashMap<>();
-        long activeUsers = userRepository.countByActive(true);
+        long activeUsers = userMetrics.counts().getActive();
         stats.put("activeUsers", activeUsers);
         return stats;
     }
@@ -161,12 +198,94 @@ public class UserService {
     }
     
     public long countActiveUsers() {
-        return userRepository.countActiveUsers();
+        return userMetrics.counts().getActive();
     }
     
+    @Transactional
+    public UserDto updateUserStatus(Long id, boolean active) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        boolean wasActive = Boolean.TRUE.equals(user.getActive());
+        user.setActive(active);
+        User updated = userRepository.save(user);
+        principalCache.invalidateAfterCommit(updated.getEmail());
+        if (!active) {
+            revocationService.revokeAllForSubject(updated.getEmail());
+        }
+        log.info("User {} {}", updated.getEmail(), active ? "activated" : "deactivated");
+        userMetrics.statusChanged(updated.getRole(), wasActive, active);
+        return toUserDto(updated);
+    }
+
+    @Transactional
+    public UserDto updateUserRole(Long id, User.Role role) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User.Role oldRole = user.getRole();
+        user.setRole(role);
+        User updated = userRepository.save(user);
+        principalCache.invalidateAfterCommit(updated.getEmail());
+        log.info("User {} role changed to {}", updated.getEmail(), role);
+        userMetrics.roleChanged(oldRole, role, Boolean.TRUE.equals(updated.getActive()));
+        return toUserDto(updated);
+    }
+
     public List<UserDto> getDeliveryAgents() {
         return userRepository.findByRole(User.Role.DELIVERY_AGENT).stream()
                 .map(this::toUserDto)
                 .collect(Collectors.toList());
     }
+
+    public List<UserDto> getUsersByIds(Collection<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("At most " + MAX_BATCH_IDS + " ids per batch");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findByIdIn(ids).stream()
+                .map(this::toUserDto)
+                .collect(Collectors.toList());
+    }
+
+    public UserFeedPage getUserPage(Long afterId, int size) {
+        int limit = feedLimit(size);
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<User> page = hasMore ? rows.subList(0, limit) : rows;
+        Long nextAfterId = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+        return new UserFeedPage(page.stream().map(this::toUserDto).collect(Collectors.toList()),
+                hasMore, nextAfterId, null);
+    }
+
+    public UserFeedPage getUsersUpdatedSince(LocalDateTime since, Long afterId, int size) {
+        int limit = feedLimit(size);
+        List<User> rows = userRepository.findUpdatedSince(
+                since, afterId == null ? 0L : afterId, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<User> page = hasMore ? rows.subList(0, limit) : rows;
+        if (page.isEmpty()) {
+            return new UserFeedPage(List.of(), false, afterId, since);
+        }
+        User last = page.get(page.size() - 1);
+        return new UserFeedPage(page.stream().map(this::toUserDto).collect(Collectors.toList()),
+                hasMore, last.getId(), last.getUpdatedAt());
+    }
+
+    public UserCountsDto getUserCounts(LocalDateTime createdSince) {
+        UserCountsDto counts = userMetrics.counts();
+        if (createdSince != null) {
+            counts.setCreatedSince(userRepository.countByCreatedAtGreaterThanEqual(createdSince));
+        }
+        return counts;
+    }
+
+    private static int feedLimit(int size) {
+        if (size < 1 || size > MAX_FEED_PAGE_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_FEED_PAGE_SIZE);
+        }
+        return size;
+    }
 }
@@ -0,0 +1,72 @@
+package com.revcart.userservice.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline benchmark for sizing {@code security.bcrypt.strength}: runs login-equivalent
+ * {@code matches} calls at each cost and prints logins per second per core. Run it on hardware
+ * like production's, never inside the service:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.revcart.userservice.security.PasswordHashBenchmark [costs=8,10,12] [iterations=200] [threads=cores]
+ * </pre>
+ */
+public final class PasswordHashBenchmark {
+
+    private static final String SAMPLE_PASSWORD = "benchmark-Password-123";
+    private static final long TIMEOUT_MINUTES = 10;
+
+    private PasswordHashBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        List<Integer> costs = args.length > 0
+                ? Arrays.stream(args[0].split(",")).map(String::trim).map(Integer::valueOf).toList()
+                : List.of(8, 10, 12);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        for (int cost : costs) {
+            run(cost, iterations, threads);
+        }
+    }
+
+    private static void run(int cost, int iterations, int threads) throws InterruptedException {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        String hash = encoder.encode(SAMPLE_PASSWORD);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(iterations);
+        long start = System.nanoTime();
+        boolean completed;
+        try {
+            for (int i = 0; i < iterations; i++) {
+                pool.execute(() -> {
+                    encoder.matches(SAMPLE_PASSWORD, hash);
+                    done.countDown();
+                });
+            }
+            completed = done.await(TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+        if (!completed) {
+            // A partial run says nothing about throughput
+            System.out.printf("cost=%d: timed out after %d minutes with %d of %d logins done%n",
+                    cost, TIMEOUT_MINUTES, iterations - done.getCount(), iterations);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        double loginsPerSecond = iterations / seconds;
+        int cores = Math.min(threads, Runtime.getRuntime().availableProcessors());
+        System.out.printf("cost=%d iterations=%d threads=%d logins/s=%.1f logins/s/core=%.1f avg ms/login=%.2f%n",
+                cost, iterations, threads, loginsPerSecond, loginsPerSecond / cores, seconds * 1000 * threads / iterations);
+    }
+}
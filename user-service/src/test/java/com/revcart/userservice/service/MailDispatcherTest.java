@@ -0,0 +1,151 @@
+package com.revcart.userservice.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.revcart.userservice.entity.FailedEmail;
+import com.revcart.userservice.repository.FailedEmailRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class MailDispatcherTest {
+
+    private static final EmailTemplate TEMPLATE = EmailTemplate.compile("<p>Hi {{userName}}, your code is {{otp}}</p>");
+    private static final String CODE = "482910";
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final FailedEmailRepository failedEmailRepository = mock(FailedEmailRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MailDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (dispatcher != null && ReflectionTestUtils.getField(dispatcher, "workerPool") != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void sendsQueuedMessagesThroughSmtp() throws Exception {
+        dispatcher = dispatcher(ServerSetupTest.SMTP.getPort(), 3, Duration.ofMillis(50));
+        dispatcher.start();
+
+        for (int i = 1; i <= 3; i++) {
+            assertThat(dispatcher.submit("user" + i + "@example.com", "Code", TEMPLATE,
+                    Map.of("userName", "User " + i, "otp", CODE), Set.of("otp"))).isTrue();
+        }
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 3)).isTrue();
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        List<String> recipients = new ArrayList<>();
+        for (MimeMessage message : received) {
+            recipients.add(message.getAllRecipients()[0].toString());
+        }
+        assertThat(recipients).containsExactlyInAnyOrder("user1@example.com", "user2@example.com", "user3@example.com");
+        assertThat(GreenMailUtil.getBody(received[0])).contains(CODE);
+        assertThat(meterRegistry.counter("mail.sent").count()).isEqualTo(3);
+        verify(failedEmailRepository, never()).save(any());
+    }
+
+    @Test
+    void deadLettersWithSecretsMaskedAfterRetries() throws Exception {
+        dispatcher = dispatcher(closedPort(), 2, Duration.ofMillis(50));
+        dispatcher.start();
+
+        dispatcher.submit("user@example.com", "Code", TEMPLATE, Map.of("userName", "User", "otp", CODE), Set.of("otp"));
+
+        ArgumentCaptor<FailedEmail> saved = ArgumentCaptor.forClass(FailedEmail.class);
+        verify(failedEmailRepository, timeout(10000)).save(saved.capture());
+        assertThat(saved.getValue().getAttempts()).isEqualTo(2);
+        assertThat(saved.getValue().getHtmlBody()).doesNotContain(CODE).contains("******").contains("User");
+        assertThat(meterRegistry.counter("mail.retried").count()).isEqualTo(1);
+    }
+
+    @Test
+    void deadLettersPendingRetriesOnShutdown() throws Exception {
+        dispatcher = dispatcher(closedPort(), 3, Duration.ofMinutes(1));
+        dispatcher.start();
+
+        dispatcher.submit("user@example.com", "Code", TEMPLATE, Map.of("userName", "User", "otp", CODE), Set.of("otp"));
+        await(() -> meterRegistry.counter("mail.retried").count() == 1);
+        dispatcher.stop();
+
+        ArgumentCaptor<FailedEmail> saved = ArgumentCaptor.forClass(FailedEmail.class);
+        verify(failedEmailRepository).save(saved.capture());
+        assertThat(saved.getValue().getLastError()).isEqualTo("Service shutting down");
+        assertThat(saved.getValue().getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void queuesOnlyAfterCommit() {
+        // Workers are not started, so queued messages stay in the queue
+        dispatcher = dispatcher(ServerSetupTest.SMTP.getPort(), 3, Duration.ofMillis(50));
+
+        TransactionSynchronizationManager.initSynchronization();
+        dispatcher.submit("user@example.com", "Code", TEMPLATE, Map.of("userName", "User", "otp", CODE), Set.of("otp"));
+        assertThat(dispatcher.queueDepth()).isZero();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(dispatcher.queueDepth()).isZero();
+
+        TransactionSynchronizationManager.initSynchronization();
+        dispatcher.submit("user@example.com", "Code", TEMPLATE, Map.of("userName", "User", "otp", CODE), Set.of("otp"));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(dispatcher.queueDepth()).isEqualTo(1);
+    }
+
+    private MailDispatcher dispatcher(int port, int maxAttempts, Duration backoff) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        MailDispatcher mailDispatcher = new MailDispatcher(mailSender, failedEmailRepository, meterRegistry,
+                100, 2, 10, maxAttempts, backoff, Duration.ofSeconds(1), Duration.ofDays(30));
+        ReflectionTestUtils.setField(mailDispatcher, "fromEmail", "noreply@revcart.com");
+        return mailDispatcher;
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}